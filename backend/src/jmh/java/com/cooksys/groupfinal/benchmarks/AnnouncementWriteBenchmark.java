@@ -0,0 +1,151 @@
+package com.cooksys.groupfinal.benchmarks;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.GroupFinalApplication;
+import com.cooksys.groupfinal.dtos.AnnouncementRequestDto;
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.SessionUserDto;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.AnnouncementService;
+import com.cooksys.groupfinal.services.UserService;
+
+/**
+ * Creates, updates and deletes announcements through the service against an
+ * in-memory database whose company and author already have the given number
+ * of announcements. Each create is paired with a delete so the history stays
+ * the same size throughout. The loaded-history variant touches both inverse
+ * collections in the same transaction first, which is what every write used
+ * to do, so the cost the append-only path avoids shows up side by side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnnouncementWriteBenchmark {
+
+	@Param({ "0", "10000", "100000" })
+	public int history;
+
+	private ConfigurableApplicationContext context;
+	private AnnouncementService announcementService;
+	private CompanyRepository companyRepository;
+	private UserRepository userRepository;
+	private TransactionTemplate transactionTemplate;
+
+	private Long companyId;
+	private Long authorId;
+	private String authorization;
+	private Long existingId;
+	private long updates;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(GroupFinalApplication.class).web(WebApplicationType.NONE)
+				.properties("spring.jpa.properties.hibernate.generate_statistics=false",
+						"spring.jpa.properties.hibernate.cache.use_second_level_cache=true", "logging.level.root=WARN")
+				.run();
+		announcementService = context.getBean(AnnouncementService.class);
+		companyRepository = context.getBean(CompanyRepository.class);
+		userRepository = context.getBean(UserRepository.class);
+		transactionTemplate = context.getBean(TransactionTemplate.class);
+
+		companyId = companyRepository.findAll().stream().filter(company -> "waystar|ROYCO".equals(company.getName()))
+				.findFirst().orElseThrow().getId();
+		CredentialsDto admin = new CredentialsDto();
+		admin.setUsername("temporaryceoofwaystar");
+		admin.setPassword("idontgetpaidenoughforthis");
+		SessionUserDto session = context.getBean(UserService.class).login(admin);
+		authorId = session.getId();
+		authorization = "Bearer " + session.getToken();
+
+		// Negative ids keep clear of the sequence the service draws from
+		Timestamp date = Timestamp.from(Instant.now());
+		context.getBean(JdbcTemplate.class).batchUpdate("insert into announcement (id, version, date, title, message, "
+				+ "company_id, author_id) values (?, 0, ?, ?, ?, ?, ?)", new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement statement, int i) throws SQLException {
+						statement.setLong(1, -1L - i);
+						statement.setTimestamp(2, date);
+						statement.setString(3, "Announcement " + i);
+						statement.setString(4, "Message " + i);
+						statement.setLong(5, companyId);
+						statement.setLong(6, authorId);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return history;
+					}
+
+				});
+		existingId = announcementService.createAnnouncement(companyId, request("Existing"), authorization).getId();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public void createAndDelete() {
+		Long id = announcementService.createAnnouncement(companyId, request("Benchmark"), authorization).getId();
+		announcementService.deleteAnnouncement(id, null, authorization);
+	}
+
+	@Benchmark
+	public Object update() {
+		return announcementService.updateAnnouncement(existingId, request("Update " + updates++), authorization,
+				null);
+	}
+
+	@Benchmark
+	public void createAndDeleteLoadingHistory() {
+		Long id = transactionTemplate.execute(status -> {
+			Company company = companyRepository.findById(companyId).orElseThrow();
+			User author = userRepository.findById(authorId).orElseThrow();
+			company.getAnnouncements().size();
+			author.getAnnouncements().size();
+			return announcementService.createAnnouncement(companyId, request("Benchmark"), authorization).getId();
+		});
+		announcementService.deleteAnnouncement(id, null, authorization);
+	}
+
+	private static AnnouncementRequestDto request(String title) {
+		AnnouncementRequestDto request = new AnnouncementRequestDto();
+		request.setTitle(title);
+		request.setMessage("Posted by the write benchmark");
+		return request;
+	}
+
+}
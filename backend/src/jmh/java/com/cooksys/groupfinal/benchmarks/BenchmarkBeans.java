@@ -0,0 +1,33 @@
+package com.cooksys.groupfinal.benchmarks;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The generated mappers wire each other with field injection, so they are
+ * built by a small Spring context rather than by hand.
+ */
+final class BenchmarkBeans {
+
+	private BenchmarkBeans() {
+	}
+
+	static AnnotationConfigApplicationContext mappers() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.scan("com.cooksys.groupfinal.mappers");
+		context.refresh();
+		return context;
+	}
+
+	/**
+	 * Configured like the ObjectMapper Spring Boot gives the controllers.
+	 */
+	static ObjectMapper objectMapper() {
+		return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.cooksys.groupfinal.benchmarks;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.cooksys.groupfinal.entities.Announcement;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.Credentials;
+import com.cooksys.groupfinal.entities.Profile;
+import com.cooksys.groupfinal.entities.Team;
+import com.cooksys.groupfinal.entities.User;
+
+/**
+ * An in-memory company shaped like the seeded ones: a few admins, teams of
+ * ten, every employee on one team and a feed of announcements, newest first
+ * as the feed query returns them.
+ */
+final class CompanyGraph {
+
+	static final int TEAM_SIZE = 10;
+	static final int ANNOUNCEMENTS = 200;
+	static final int ADMINS = 5;
+
+	final Company company = new Company();
+	final List<Announcement> announcements = new ArrayList<>();
+
+	CompanyGraph(int employees) {
+		company.setId(1L);
+		company.setName("Benchmark Co");
+		company.setDescription("A company with " + employees + " employees");
+
+		Team team = null;
+		for (int i = 0; i < employees; i++) {
+			if (i % TEAM_SIZE == 0) {
+				team = new Team();
+				team.setId((long) i / TEAM_SIZE + 1);
+				team.setName("Team " + team.getId());
+				team.setDescription("Works on project " + team.getId());
+				team.setCompany(company);
+				company.getTeams().add(team);
+			}
+			User user = user(i + 1L, i < ADMINS);
+			user.getCompanies().add(company);
+			user.getTeams().add(team);
+			company.getEmployees().add(user);
+			team.getTeammates().add(user);
+		}
+
+		List<User> admins = company.getEmployees().stream().filter(User::isAdmin).collect(Collectors.toList());
+		Instant now = Instant.now();
+		for (int i = 0; i < ANNOUNCEMENTS; i++) {
+			Announcement announcement = new Announcement();
+			announcement.setId((long) ANNOUNCEMENTS - i);
+			announcement.setDate(Timestamp.from(now.minusSeconds(3600L * i)));
+			announcement.setTitle("Announcement " + announcement.getId());
+			announcement.setMessage("Everyone should read announcement " + announcement.getId()
+					+ " before the next all-hands meeting.");
+			announcement.setCompany(company);
+			announcement.setAuthor(admins.isEmpty() ? null : admins.get(i % admins.size()));
+			announcements.add(announcement);
+		}
+	}
+
+	private static User user(Long id, boolean admin) {
+		Credentials credentials = new Credentials();
+		credentials.setUsername("user" + id);
+		credentials.setPassword("password" + id);
+		Profile profile = new Profile();
+		profile.setFirstName("First" + id);
+		profile.setLastName("Last" + id);
+		profile.setEmail("user" + id + "@example.com");
+		profile.setPhone("555-" + String.format("%07d", id));
+
+		User user = new User();
+		user.setId(id);
+		user.setCredentials(credentials);
+		user.setProfile(profile);
+		user.setActive(true);
+		user.setAdmin(admin);
+		user.setStatus(id % 4 == 0 ? "PENDING" : "JOINED");
+		return user;
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.cooksys.groupfinal.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.cooksys.groupfinal.dtos.AnnouncementPageDto;
+import com.cooksys.groupfinal.dtos.CompanyDto;
+import com.cooksys.groupfinal.dtos.TeamDto;
+import com.cooksys.groupfinal.entities.Announcement;
+import com.cooksys.groupfinal.mappers.AnnouncementMapper;
+import com.cooksys.groupfinal.mappers.CompanyMapper;
+import com.cooksys.groupfinal.mappers.TeamMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Maps and serializes the company-wide payloads: the team list, the company
+ * with its roster, and a page of the announcement feed. The write benchmarks
+ * start from already mapped DTOs so the two costs can be told apart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompanyPayloadBenchmark {
+
+	private static final int PAGE_SIZE = 50;
+
+	@Param({ "10", "100", "1000", "10000" })
+	public int employees;
+
+	private AnnotationConfigApplicationContext context;
+	private TeamMapper teamMapper;
+	private CompanyMapper companyMapper;
+	private AnnouncementMapper announcementMapper;
+	private ObjectMapper objectMapper;
+
+	private CompanyGraph graph;
+	private Set<TeamDto> teams;
+	private CompanyDto company;
+	private AnnouncementPageDto page;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkBeans.mappers();
+		teamMapper = context.getBean(TeamMapper.class);
+		companyMapper = context.getBean(CompanyMapper.class);
+		announcementMapper = context.getBean(AnnouncementMapper.class);
+		objectMapper = BenchmarkBeans.objectMapper();
+
+		graph = new CompanyGraph(employees);
+		teams = mapTeams();
+		company = mapCompany();
+		page = mapAnnouncementPage();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Set<TeamDto> mapTeams() {
+		return teamMapper.entitiesToDtos(graph.company.getTeams());
+	}
+
+	@Benchmark
+	public CompanyDto mapCompany() {
+		return companyMapper.entityToDto(graph.company);
+	}
+
+	/**
+	 * The in-memory part of the feed endpoint. Ordering and limiting happen
+	 * in the query, so the page arrives already sorted.
+	 */
+	@Benchmark
+	public AnnouncementPageDto mapAnnouncementPage() {
+		List<Announcement> announcements = graph.announcements.subList(0, PAGE_SIZE);
+		Announcement last = announcements.get(PAGE_SIZE - 1);
+		return new AnnouncementPageDto(announcementMapper.entitiesToDtos(announcements),
+				last.getDate().toInstant() + "," + last.getId());
+	}
+
+	@Benchmark
+	public byte[] writeTeams() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(teams);
+	}
+
+	@Benchmark
+	public byte[] writeCompany() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(company);
+	}
+
+	@Benchmark
+	public byte[] writeAnnouncementPage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+
+}
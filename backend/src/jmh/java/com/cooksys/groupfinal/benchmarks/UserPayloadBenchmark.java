@@ -0,0 +1,75 @@
+package com.cooksys.groupfinal.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.cooksys.groupfinal.dtos.FullUserDto;
+import com.cooksys.groupfinal.mappers.FullUserMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Maps and serializes the company user list. Every FullUserDto carries its
+ * companies with their full rosters, so the payload grows with the square of
+ * the company size and 10,000 employees would not fit in a default heap.
+ * The sizes stop at 1,000 until that shape changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPayloadBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int employees;
+
+	private AnnotationConfigApplicationContext context;
+	private FullUserMapper fullUserMapper;
+	private ObjectMapper objectMapper;
+
+	private CompanyGraph graph;
+	private Set<FullUserDto> users;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkBeans.mappers();
+		fullUserMapper = context.getBean(FullUserMapper.class);
+		objectMapper = BenchmarkBeans.objectMapper();
+
+		graph = new CompanyGraph(employees);
+		users = mapUsers();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Set<FullUserDto> mapUsers() {
+		return fullUserMapper.entitiesToFullUserDtos(graph.company.getEmployees());
+	}
+
+	@Benchmark
+	public byte[] writeUsers() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(users);
+	}
+
+}
@@ -0,0 +1,268 @@
+package com.cooksys.groupfinal;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.services.CompanyStatsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills an empty database with a synthetic dataset for capacity testing in
+ * the perf profile. Users, teams, projects and announcements are spread over
+ * the companies with Zipf weights, so with a positive skew the first
+ * companies are much larger than the rest, as in a real tenant mix. Rows are
+ * written with plain JDBC batches, one table at a time, and ids are assigned
+ * here, so the id sequences are moved past them afterwards. The same
+ * settings and seed always produce the same data.
+ */
+@Slf4j
+@Component
+@Profile("perf")
+public class PerfDataGenerator implements CommandLineRunner {
+
+	// Announcement dates are spread over the year before this, so reruns match
+	private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+	private static final long YEAR_SECONDS = 365L * 24 * 60 * 60;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final CompanyStatsService companyStatsService;
+	private final int companies;
+	private final long users;
+	private final long teams;
+	private final long projects;
+	private final long announcements;
+	private final double skew;
+	private final long seed;
+	private final int batchSize;
+
+	public PerfDataGenerator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+			CompanyStatsService companyStatsService, @Value("${groupfinal.perf.companies:20}") int companies,
+			@Value("${groupfinal.perf.users:200000}") long users, @Value("${groupfinal.perf.teams:20000}") long teams,
+			@Value("${groupfinal.perf.projects:100000}") long projects,
+			@Value("${groupfinal.perf.announcements:200000}") long announcements,
+			@Value("${groupfinal.perf.skew:1.0}") double skew, @Value("${groupfinal.perf.seed:42}") long seed,
+			@Value("${groupfinal.perf.batch-size:1000}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.companyStatsService = companyStatsService;
+		this.companies = companies;
+		this.users = users;
+		this.teams = teams;
+		this.projects = projects;
+		this.announcements = announcements;
+		this.skew = skew;
+		this.seed = seed;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void run(String... args) {
+		Long existing = jdbcTemplate.queryForObject("select count(*) from company", Long.class);
+		if (existing != null && existing > 0) {
+			log.info("Database already holds {} companies, skipping data generation", existing);
+			return;
+		}
+
+		long started = System.nanoTime();
+		SplittableRandom random = new SplittableRandom(seed);
+		long[] userCounts = distribute(users);
+		long[] teamCounts = distribute(teams);
+		long[] projectCounts = distribute(projects);
+		long[] announcementCounts = distribute(announcements);
+		long[] firstUserIds = firstIds(userCounts);
+		long[] firstTeamIds = firstIds(teamCounts);
+
+		long rows = 0;
+		try (Batch batch = new Batch("insert into company (id, version, name, description) values (?, 0, ?, ?)")) {
+			for (int c = 0; c < companies; c++) {
+				batch.add(c + 1L, "Company " + (c + 1), userCounts[c] + " employees in " + teamCounts[c] + " teams");
+			}
+			rows += batch.written("companies");
+		}
+		try (Batch batch = new Batch(
+				"insert into company_revision (company_id, revision, purged_revision) values (?, 0, 0)")) {
+			for (int c = 0; c < companies; c++) {
+				batch.add(c + 1L);
+			}
+			rows += batch.written("company revisions");
+		}
+
+		try (Batch batch = new Batch("insert into team (id, version, name, description, company_id) "
+				+ "values (?, 0, ?, ?, ?)")) {
+			for (int c = 0; c < companies; c++) {
+				for (long t = 0; t < teamCounts[c]; t++) {
+					long id = firstTeamIds[c] + t;
+					batch.add(id, "Team " + id, "Team " + (t + 1) + " of company " + (c + 1), c + 1L);
+				}
+			}
+			rows += batch.written("teams");
+		}
+
+		try (Batch batch = new Batch("insert into user_table (id, version, username, password, first_name, "
+				+ "last_name, email, phone, active, admin, status) values (?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+			for (int c = 0; c < companies; c++) {
+				for (long u = 0; u < userCounts[c]; u++) {
+					long id = firstUserIds[c] + u;
+					// The first employee of each company is a joined admin to log in with
+					boolean admin = u == 0;
+					boolean active = admin || random.nextInt(20) != 0;
+					String status = admin || random.nextInt(10) != 0 ? "JOINED" : "PENDING";
+					batch.add(id, "user" + id, "password", "First" + id, "Last" + id, "user" + id + "@example.com",
+							String.format("(555) %03d-%04d", id / 10000 % 1000, id % 10000), active, admin, status);
+				}
+			}
+			rows += batch.written("users");
+		}
+
+		try (Batch batch = new Batch("insert into company_employees (companies_id, employees_id) values (?, ?)")) {
+			for (int c = 0; c < companies; c++) {
+				for (long u = 0; u < userCounts[c]; u++) {
+					batch.add(c + 1L, firstUserIds[c] + u);
+				}
+			}
+			rows += batch.written("company memberships");
+		}
+
+		try (Batch batch = new Batch("insert into team_teammates (teams_id, teammates_id) values (?, ?)")) {
+			for (int c = 0; c < companies; c++) {
+				for (long u = 0; teamCounts[c] > 0 && u < userCounts[c]; u++) {
+					batch.add(firstTeamIds[c] + u % teamCounts[c], firstUserIds[c] + u);
+				}
+			}
+			rows += batch.written("team memberships");
+		}
+
+		try (Batch batch = new Batch("insert into project (id, version, name, description, active, team_id) "
+				+ "values (?, 0, ?, ?, ?, ?)")) {
+			long id = 1;
+			for (int c = 0; c < companies; c++) {
+				for (long p = 0; teamCounts[c] > 0 && p < projectCounts[c]; p++, id++) {
+					long teamId = firstTeamIds[c] + random.nextLong(teamCounts[c]);
+					batch.add(id, "Project " + id, "Project " + id + " of team " + teamId, random.nextInt(5) != 0,
+							teamId);
+				}
+			}
+			rows += batch.written("projects");
+		}
+
+		try (Batch batch = new Batch("insert into announcement (id, version, date, title, message, company_id, "
+				+ "author_id) values (?, 0, ?, ?, ?, ?, ?)")) {
+			long id = 1;
+			for (int c = 0; c < companies; c++) {
+				for (long a = 0; a < announcementCounts[c]; a++, id++) {
+					Long authorId = userCounts[c] > 0 ? firstUserIds[c] + random.nextLong(userCounts[c]) : null;
+					batch.add(id, Timestamp.from(EPOCH.minusSeconds(random.nextLong(YEAR_SECONDS))),
+							"Announcement " + id, "Message " + id + " for everyone at company " + (c + 1), c + 1L,
+							authorId);
+				}
+			}
+			rows += batch.written("announcements");
+		}
+
+		restartSequence("company_seq", companies + 1L);
+		restartSequence("team_seq", teams + 1);
+		restartSequence("user_seq", users + 1);
+		restartSequence("project_seq", projects + 1);
+		restartSequence("announcement_seq", announcements + 1);
+		for (int c = 0; c < companies; c++) {
+			companyStatsService.reconcile(c + 1L);
+		}
+
+		long seconds = Math.max(1, (System.nanoTime() - started) / 1_000_000_000L);
+		log.info("Generated {} rows in {}s ({} rows/s). Log in as user1 with password \"password\"", rows, seconds,
+				rows / seconds);
+	}
+
+	/**
+	 * Splits the total over the companies in proportion to 1 / rank^skew. A
+	 * skew of 0 gives every company the same share.
+	 */
+	private long[] distribute(long total) {
+		double[] weights = new double[companies];
+		double sum = 0;
+		for (int c = 0; c < companies; c++) {
+			weights[c] = 1 / Math.pow(c + 1, skew);
+			sum += weights[c];
+		}
+		long[] counts = new long[companies];
+		long assigned = 0;
+		for (int c = 0; c < companies; c++) {
+			counts[c] = (long) (total * weights[c] / sum);
+			assigned += counts[c];
+		}
+		for (int c = 0; assigned < total; c = (c + 1) % companies, assigned++) {
+			counts[c]++;
+		}
+		return counts;
+	}
+
+	private static long[] firstIds(long[] counts) {
+		long[] firstIds = new long[counts.length];
+		long next = 1;
+		for (int c = 0; c < counts.length; c++) {
+			firstIds[c] = next;
+			next += counts[c];
+		}
+		return firstIds;
+	}
+
+	private void restartSequence(String sequence, long next) {
+		jdbcTemplate.execute("alter sequence " + sequence + " restart with " + next);
+	}
+
+	/**
+	 * Collects rows for one statement and writes them in JDBC batches, one
+	 * transaction per batch.
+	 */
+	private class Batch implements AutoCloseable {
+
+		private final String sql;
+		private final List<Object[]> rows = new ArrayList<>(batchSize);
+		private final long started = System.nanoTime();
+		private long written;
+
+		private Batch(String sql) {
+			this.sql = sql;
+		}
+
+		private void add(Object... values) {
+			rows.add(values);
+			if (rows.size() == batchSize) {
+				flush();
+			}
+		}
+
+		private void flush() {
+			if (!rows.isEmpty()) {
+				transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+				written += rows.size();
+				rows.clear();
+			}
+		}
+
+		private long written(String table) {
+			flush();
+			log.info("Wrote {} {} in {}ms", written, table, (System.nanoTime() - started) / 1_000_000);
+			return written;
+		}
+
+		@Override
+		public void close() {
+			flush();
+		}
+
+	}
+
+}
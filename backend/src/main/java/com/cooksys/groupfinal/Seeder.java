@@ -4,6 +4,8 @@ import java.util.Arrays;
 import java.util.HashSet;
 
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.stereotype.Component;
 
 import com.cooksys.groupfinal.entities.Announcement;
@@ -30,9 +32,16 @@ public class Seeder implements CommandLineRunner {
   private final ProjectRepository projectRepository;
   private final TeamRepository teamRepository;
   private final UserRepository userRepository;
+  private final Environment environment;
   
   @Override
   public void run(String... args) throws Exception {
+	  // The perf profile fills the database with PerfDataGenerator instead. Checked here rather than with
+	  // @Profile, whose name would clash with the Profile entity built below
+	  if (environment.acceptsProfiles(Profiles.of("perf"))) {
+		  return;
+	  }
+
 	  // If data already exists, skip seeding to avoid duplicate key violations when using persistent schema updates
 	  if (userRepository.count() > 0) {
 		  return;
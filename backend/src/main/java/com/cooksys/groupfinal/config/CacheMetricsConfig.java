@@ -0,0 +1,41 @@
+package com.cooksys.groupfinal.config;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * Publishes hit, miss, put and eviction counters for every Hibernate
+ * second-level cache region under the cache.* metrics, tagged with
+ * cache.manager=hibernate.
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+	@Bean
+	public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+		return registry -> {
+			RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache()
+					.getRegionFactory();
+			if (!(regionFactory instanceof JCacheRegionFactory)) {
+				return;
+			}
+			CacheManager cacheManager = ((JCacheRegionFactory) regionFactory).getCacheManager();
+			for (String name : cacheManager.getCacheNames()) {
+				Cache<Object, Object> cache = cacheManager.getCache(name);
+				JCacheMetrics.monitor(registry, cache, Tags.of("cache.manager", "hibernate"));
+			}
+		};
+	}
+
+}
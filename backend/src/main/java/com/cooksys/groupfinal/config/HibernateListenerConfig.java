@@ -0,0 +1,45 @@
+package com.cooksys.groupfinal.config;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.context.annotation.Configuration;
+
+import com.cooksys.groupfinal.entities.CompanyRevisionListener;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Registers the entity listeners that keep company revisions current and
+ * count entity loads for the request metrics.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class HibernateListenerConfig {
+
+	private final EntityManagerFactory entityManagerFactory;
+	private final CompanyRevisionListener companyRevisionListener;
+
+	@PostConstruct
+	public void registerListeners() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, companyRevisionListener);
+		registry.appendListeners(EventType.POST_UPDATE, companyRevisionListener);
+		registry.appendListeners(EventType.POST_DELETE, companyRevisionListener);
+		registry.appendListeners(EventType.POST_COLLECTION_RECREATE, companyRevisionListener);
+		registry.appendListeners(EventType.POST_COLLECTION_UPDATE, companyRevisionListener);
+		registry.appendListeners(EventType.POST_COLLECTION_REMOVE, companyRevisionListener);
+		registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> {
+			RequestStatistics statistics = RequestStatistics.current();
+			if (statistics != null) {
+				statistics.entityLoaded();
+			}
+		});
+	}
+
+}
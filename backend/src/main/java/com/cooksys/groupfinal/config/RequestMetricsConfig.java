@@ -0,0 +1,33 @@
+package com.cooksys.groupfinal.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks Hibernate into {@link RequestStatistics}: the statement inspector
+ * records the SQL each request prepares and the session listener counts and
+ * times what it executes. Entity loads are counted by a listener registered
+ * in {@link HibernateListenerConfig}.
+ */
+@Configuration
+public class RequestMetricsConfig {
+
+	@Bean
+	public HibernatePropertiesCustomizer requestStatisticsHibernateProperties() {
+		return properties -> {
+			properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+				RequestStatistics statistics = RequestStatistics.current();
+				if (statistics != null) {
+					statistics.prepared(sql);
+				}
+				return sql;
+			});
+			properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+					RequestStatisticsSessionListener.class.getName());
+		};
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.cooksys.groupfinal.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publishes, per route, histograms of the SQL statements, database time and
+ * entity loads each request needed. Latency per route is already recorded
+ * as http.server.requests. Only the initial dispatch of a request is
+ * counted, so streamed and async responses show what ran before the
+ * response was handed off.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+	private final MeterRegistry meterRegistry;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		RequestStatistics statistics = RequestStatistics.open();
+		request.setAttribute(RequestStatistics.ATTRIBUTE, statistics);
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			RequestStatistics.close();
+			record(request, response, statistics);
+		}
+	}
+
+	private void record(HttpServletRequest request, HttpServletResponse response, RequestStatistics statistics) {
+		Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		Tags tags = Tags.of("method", request.getMethod(), "route", route == null ? "unmapped" : route.toString(),
+				"status", String.valueOf(response.getStatus()));
+
+		DistributionSummary.builder("groupfinal.request.statements").description("SQL statements run per request")
+				.baseUnit("statements").tags(tags).publishPercentileHistogram().minimumExpectedValue(1.0)
+				.maximumExpectedValue(1000.0).register(meterRegistry).record(statistics.getStatements());
+		Timer.builder("groupfinal.request.database.time").description("Time per request spent executing SQL")
+				.tags(tags).publishPercentileHistogram().minimumExpectedValue(Duration.ofMillis(1))
+				.maximumExpectedValue(Duration.ofSeconds(10)).register(meterRegistry)
+				.record(statistics.getDatabaseNanos(), TimeUnit.NANOSECONDS);
+		DistributionSummary.builder("groupfinal.request.entity.loads").description("Entities loaded per request")
+				.baseUnit("entities").tags(tags).publishPercentileHistogram().minimumExpectedValue(1.0)
+				.maximumExpectedValue(100_000.0).register(meterRegistry).record(statistics.getEntityLoads());
+		DistributionSummary.builder("groupfinal.request.commits").description("Transactions committed per request")
+				.baseUnit("commits").tags(tags).publishPercentileHistogram().minimumExpectedValue(1.0)
+				.maximumExpectedValue(100.0).register(meterRegistry).record(statistics.getCommits());
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.cooksys.groupfinal.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What one request asked of the database through Hibernate. The request
+ * metrics filter opens one on the handling thread and the Hibernate hooks add
+ * to whichever is open on theirs, so work handed to other threads, and SQL
+ * sent through JdbcTemplate, is not counted.
+ */
+public class RequestStatistics {
+
+	/**
+	 * The request attribute holding the statistics, for tests and error
+	 * reporting.
+	 */
+	public static final String ATTRIBUTE = RequestStatistics.class.getName();
+
+	// Enough to read an N+1 off without holding on to every statement of a bulk request
+	private static final int MAX_RECORDED_SQL = 200;
+
+	private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+	private final List<String> sql = new ArrayList<>();
+	private int statements;
+	private long databaseNanos;
+	private long executionStarted;
+	private int entityLoads;
+	private int commits;
+
+	static RequestStatistics open() {
+		RequestStatistics statistics = new RequestStatistics();
+		CURRENT.set(statistics);
+		return statistics;
+	}
+
+	static void close() {
+		CURRENT.remove();
+	}
+
+	static RequestStatistics current() {
+		return CURRENT.get();
+	}
+
+	void prepared(String statement) {
+		if (sql.size() < MAX_RECORDED_SQL) {
+			sql.add(statement);
+		}
+	}
+
+	void executionStarted() {
+		statements++;
+		executionStarted = System.nanoTime();
+	}
+
+	void executionEnded() {
+		databaseNanos += System.nanoTime() - executionStarted;
+	}
+
+	void entityLoaded() {
+		entityLoads++;
+	}
+
+	void committed() {
+		commits++;
+	}
+
+	/**
+	 * Statements and batches executed.
+	 */
+	public int getStatements() {
+		return statements;
+	}
+
+	/**
+	 * Time spent waiting on statement and batch executions, not counting
+	 * reading their results.
+	 */
+	public long getDatabaseNanos() {
+		return databaseNanos;
+	}
+
+	public int getEntityLoads() {
+		return entityLoads;
+	}
+
+	/**
+	 * Transactions committed, read-only ones included.
+	 */
+	public int getCommits() {
+		return commits;
+	}
+
+	/**
+	 * The SQL of the first statements prepared, in order.
+	 */
+	public List<String> getSql() {
+		return Collections.unmodifiableList(sql);
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.cooksys.groupfinal.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Times statement and batch executions, and counts commits, for the request
+ * open on the current thread. Hibernate creates one per session from its class name.
+ */
+public class RequestStatisticsSessionListener extends BaseSessionEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		started();
+	}
+
+	@Override
+	public void jdbcExecuteStatementEnd() {
+		ended();
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		started();
+	}
+
+	@Override
+	public void jdbcExecuteBatchEnd() {
+		ended();
+	}
+
+	@Override
+	public void transactionCompletion(boolean successful) {
+		RequestStatistics statistics = RequestStatistics.current();
+		if (statistics != null && successful) {
+			statistics.committed();
+		}
+	}
+
+	private static void started() {
+		RequestStatistics statistics = RequestStatistics.current();
+		if (statistics != null) {
+			statistics.executionStarted();
+		}
+	}
+
+	private static void ended() {
+		RequestStatistics statistics = RequestStatistics.current();
+		if (statistics != null) {
+			statistics.executionEnded();
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.cooksys.groupfinal.config;
+
+import java.util.Map;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.interceptor.RetryInterceptorBuilder;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Wraps {@link RetryOnConflict} methods in a retry that sits outside their
+ * transaction, so every attempt begins and commits its own.
+ */
+@Slf4j
+@Configuration
+public class RetryConfig {
+
+	@Bean
+	@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+	public static Advisor retryOnConflictAdvisor(@Value("${groupfinal.retry.max-attempts:3}") int maxAttempts,
+			@Value("${groupfinal.retry.initial-backoff-ms:20}") long initialBackoff) {
+		ExponentialRandomBackOffPolicy backOff = new ExponentialRandomBackOffPolicy();
+		backOff.setInitialInterval(initialBackoff);
+		backOff.setMaxInterval(initialBackoff * 10);
+		MethodInterceptor retry = RetryInterceptorBuilder.stateless()
+				.retryPolicy(new SimpleRetryPolicy(maxAttempts, Map.of(ConcurrencyFailureException.class, true), true))
+				.backOffPolicy(backOff).build();
+
+		DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+				new AnnotationMatchingPointcut(null, RetryOnConflict.class, true), (MethodInterceptor) invocation -> {
+					if (TransactionSynchronizationManager.isActualTransactionActive()) {
+						// Rerunning inside a transaction that is already rolling back would not help
+						return invocation.proceed();
+					}
+					try {
+						return retry.invoke(invocation);
+					} catch (ConcurrencyFailureException e) {
+						log.warn("Gave up on {} after {} conflicting attempts", invocation.getMethod().getName(),
+								maxAttempts);
+						throw e;
+					}
+				});
+		// Ahead of the transaction advice, which runs at the lowest precedence
+		advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return advisor;
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.cooksys.groupfinal.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reruns a transactional service method from the start, in a new
+ * transaction, when it loses a race with another writer: an optimistic lock
+ * conflict at commit, a lock timeout or deadlock, or a serialization failure.
+ * Only the outermost call retries, so a method joining a caller's transaction
+ * leaves that to the caller.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,76 @@
+package com.cooksys.groupfinal.config;
+
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brings data written before a schema change in line with it. The schema
+ * itself comes from ddl-auto=update, which adds tables and columns but
+ * cannot fill them, so each step here must be safe to run on every start.
+ */
+@Slf4j
+@Component
+public class SchemaUpgrade {
+
+	// Tables whose ids used to come from the shared hibernate_sequence
+	private static final Map<String, String> SEQUENCE_TABLES = Map.of("announcement_seq", "announcement",
+			"company_seq", "company", "project_seq", "project", "team_seq", "team", "user_seq", "user_table",
+			"change_log_seq", "change_log");
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Dialect dialect;
+
+	// Taking the entity manager factory makes the upgrade wait for Hibernate to update the schema
+	public SchemaUpgrade(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+	}
+
+	@PostConstruct
+	public void upgrade() {
+		alignSequences();
+		seedCompanyRevisions();
+	}
+
+	/**
+	 * Moves each entity sequence past the ids already in its table. A sequence
+	 * is only ever moved forward, so blocks other instances have drawn stay
+	 * unique. Checking draws one block from each sequence with rows.
+	 */
+	void alignSequences() {
+		SEQUENCE_TABLES.forEach((sequence, table) -> {
+			Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+			if (maxId == null) {
+				return;
+			}
+			long next = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence), Long.class);
+			if (next <= maxId) {
+				jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + 1));
+				log.info("Moved {} from {} to {}, past the ids in {}", sequence, next, maxId + 1, table);
+			}
+		});
+	}
+
+	/**
+	 * Gives every company that predates revision tracking its revision row, so
+	 * its lists are served with an entity tag.
+	 */
+	void seedCompanyRevisions() {
+		int seeded = jdbcTemplate.update("insert into company_revision (company_id, revision, purged_revision) "
+				+ "select c.id, 0, 0 from company c "
+				+ "where not exists (select 1 from company_revision r where r.company_id = c.id)");
+		if (seeded > 0) {
+			log.info("Seeded revisions for {} existing companies", seeded);
+		}
+	}
+
+}
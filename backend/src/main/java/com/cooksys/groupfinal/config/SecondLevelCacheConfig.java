@@ -0,0 +1,48 @@
+package com.cooksys.groupfinal.config;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.UUID;
+
+import javax.cache.Caching;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gives each application context a second-level cache manager of its own,
+ * built from the configured ehcache.xml. JCache hands out one manager per
+ * configuration URI and class loader, so contexts sharing a JVM, as the test
+ * suite's do, would otherwise see each other's cached rows and the first to
+ * shut down would close the cache for the rest. Hibernate closes the manager
+ * along with its session factory.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheManager() {
+		return properties -> {
+			Object configUri = properties.get(ConfigSettings.CONFIG_URI);
+			if (configUri == null
+					|| "false".equalsIgnoreCase(String.valueOf(properties.get(AvailableSettings.USE_SECOND_LEVEL_CACHE)))) {
+				return;
+			}
+			URL config = SecondLevelCacheConfig.class.getClassLoader().getResource(configUri.toString());
+			if (config == null) {
+				throw new CacheException("Couldn't load the second-level cache configuration from " + configUri);
+			}
+			EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+					.getCachingProvider(EhcacheCachingProvider.class.getName());
+			properties.put(ConfigSettings.CACHE_MANAGER, provider.getCacheManager(
+					URI.create("urn:groupfinal:second-level-cache:" + UUID.randomUUID()), new XmlConfiguration(config)));
+		};
+	}
+
+}
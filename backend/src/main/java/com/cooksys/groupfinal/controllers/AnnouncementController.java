@@ -1,11 +1,14 @@
 package com.cooksys.groupfinal.controllers;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,15 +29,21 @@ public class AnnouncementController {
 	private final AnnouncementService announcementService;
 
 	@PutMapping("/{announcementId}")
-	public AnnouncementDto updateAnnouncement(@PathVariable Long announcementId,
-			@RequestBody AnnouncementRequestDto request) {
-		return announcementService.updateAnnouncement(announcementId, request);
+	public ResponseEntity<AnnouncementDto> updateAnnouncement(@PathVariable Long announcementId,
+			@RequestBody AnnouncementRequestDto request,
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		AnnouncementDto announcement = announcementService.updateAnnouncement(announcementId, request, authorization,
+				EntityTags.expectedVersion(ifMatch));
+		return EntityTags.tagged(announcement, announcement.getVersion());
 	}
 
 	@DeleteMapping("/{announcementId}")
 	@ResponseStatus(HttpStatus.NO_CONTENT)
-	public void deleteAnnouncement(@PathVariable Long announcementId, @RequestBody CredentialsDto credentials) {
-		announcementService.deleteAnnouncement(announcementId, credentials);
+	public void deleteAnnouncement(@PathVariable Long announcementId,
+			@RequestBody(required = false) CredentialsDto credentials,
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		announcementService.deleteAnnouncement(announcementId, credentials, authorization);
 	}
 
 }
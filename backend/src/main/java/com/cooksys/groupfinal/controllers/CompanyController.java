@@ -1,8 +1,24 @@
 package com.cooksys.groupfinal.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,61 +26,183 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.cooksys.groupfinal.dtos.AnnouncementDto;
+import com.cooksys.groupfinal.dtos.AnnouncementPageDto;
 import com.cooksys.groupfinal.dtos.AnnouncementRequestDto;
+import com.cooksys.groupfinal.dtos.BasicUserDto;
+import com.cooksys.groupfinal.dtos.ChangeSetDto;
+import com.cooksys.groupfinal.dtos.CompanyStatsDto;
+import com.cooksys.groupfinal.dtos.DashboardDto;
 import com.cooksys.groupfinal.dtos.FullUserDto;
 import com.cooksys.groupfinal.dtos.ProjectDto;
+import com.cooksys.groupfinal.dtos.ProjectPageDto;
+import com.cooksys.groupfinal.dtos.SearchPageDto;
+import com.cooksys.groupfinal.dtos.SnapshotImportResultDto;
 import com.cooksys.groupfinal.dtos.TeamDto;
+import com.cooksys.groupfinal.dtos.TeamMembersRequestDto;
 import com.cooksys.groupfinal.dtos.TeamRequestDto;
 import com.cooksys.groupfinal.dtos.UserRequestDto;
 import com.cooksys.groupfinal.services.AnnouncementService;
+import com.cooksys.groupfinal.services.ChangeLogService;
+import com.cooksys.groupfinal.services.CompanyEventService;
 import com.cooksys.groupfinal.services.CompanyService;
+import com.cooksys.groupfinal.services.CompanySnapshotService;
+import com.cooksys.groupfinal.services.CompanyStatsService;
+import com.cooksys.groupfinal.services.DashboardService;
+import com.cooksys.groupfinal.services.SearchService;
 import com.cooksys.groupfinal.services.TeamService;
+import com.cooksys.groupfinal.services.UserImportService;
 import com.cooksys.groupfinal.services.UserService;
+import com.cooksys.groupfinal.services.UserSuggestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 
 @RestController
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 @RequestMapping("/company")
 @RequiredArgsConstructor
 public class CompanyController {
 
 	private final CompanyService companyService;
+	private final CompanyEventService companyEventService;
+	private final ChangeLogService changeLogService;
 	private final AnnouncementService announcementService;
 	private final TeamService teamService;
 	private final UserService userService;
+	private final UserImportService userImportService;
+	private final CompanySnapshotService companySnapshotService;
+	private final CompanyStatsService companyStatsService;
+	private final DashboardService dashboardService;
+	private final SearchService searchService;
+	private final UserSuggestService userSuggestService;
+	private final ObjectMapper objectMapper;
 
+	/**
+	 * Not tagged with the company revision, since each user also carries the
+	 * other companies they belong to and the teams they are on there.
+	 */
 	@GetMapping("/{companyId}/users")
 	public Set<FullUserDto> getAllUsers(@PathVariable Long companyId) {
 		return companyService.getAllUsers(companyId);
 	}
 
+	@GetMapping("/{companyId}/users/suggest")
+	public List<BasicUserDto> suggestUsers(@PathVariable Long companyId, @RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		return userSuggestService.suggest(companyId, prefix, limit);
+	}
+
+	/**
+	 * Streams change events for the company. A resync event means the client
+	 * may have missed changes and should refetch what it shows.
+	 */
+	@GetMapping("/{companyId}/events")
+	public SseEmitter streamEvents(@PathVariable Long companyId) {
+		return companyEventService.subscribe(companyId);
+	}
+
+	/**
+	 * Returns the records changed since the cursor from an earlier response.
+	 * Without a cursor, or once it is older than the change log keeps, the
+	 * response asks the client to resync and carries a cursor to resume from.
+	 */
+	@GetMapping("/{companyId}/changes")
+	public ChangeSetDto getChanges(@PathVariable Long companyId, @RequestParam(required = false) Long since) {
+		return changeLogService.getChanges(companyId, since);
+	}
+
+	/**
+	 * Returns what the home page shows in one response: the first page of
+	 * announcements, every team with its member and active-project counts,
+	 * and the company's user counts.
+	 */
+	@GetMapping("/{companyId}/dashboard")
+	public ResponseEntity<DashboardDto> getDashboard(@PathVariable Long companyId,
+			@RequestParam(defaultValue = "50") int announcementLimit, WebRequest request) {
+		return conditional(companyId, request, () -> dashboardService.getDashboard(companyId, announcementLimit));
+	}
+
+	@GetMapping("/{companyId}/stats")
+	public CompanyStatsDto getStats(@PathVariable Long companyId) {
+		return companyStatsService.getStats(companyId);
+	}
+
+	@GetMapping("/{companyId}/employees")
+	public Page<BasicUserDto> getEmployeesPage(@PathVariable Long companyId,
+			@PageableDefault(size = 50, sort = "id") Pageable pageable) {
+		return companyService.getEmployeesPage(companyId, pageable);
+	}
+
 	@PostMapping("/{companyId}/user")
 	@ResponseStatus(HttpStatus.CREATED)
 	public FullUserDto addUser(@PathVariable Long companyId, @RequestBody UserRequestDto request) {
 		return userService.addUser(companyId, request);
 	}
 
+	@GetMapping("/{companyId}/export")
+	public ResponseEntity<StreamingResponseBody> exportCompany(@PathVariable Long companyId,
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		companySnapshotService.authorizeExport(companyId, authorization);
+		StreamingResponseBody body = output -> companySnapshotService.exportCompany(companyId,
+				record -> writeLine(output, record));
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	@PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	@ResponseStatus(HttpStatus.CREATED)
+	public SnapshotImportResultDto importCompany(InputStream input,
+			@RequestParam(required = false) String usernameSuffix,
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		return companySnapshotService.importCompany(input, usernameSuffix, authorization);
+	}
+
+	@PostMapping(value = "/{companyId}/users/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+	public void importUsers(@PathVariable Long companyId, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		// Results are written as each chunk completes. The content type is only set once the
+		// first line goes out so validation errors can still be rendered as a normal error body.
+		OutputStream output = response.getOutputStream();
+		userImportService.importUsers(companyId, request.getContentType(), request.getInputStream(), result -> {
+			response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+			writeLine(output, result);
+		});
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+	}
+
 	@GetMapping("/{companyId}/announcements")
-	public Set<AnnouncementDto> getAllAnnouncements(@PathVariable Long companyId) {
-		return companyService.getAllAnnouncements(companyId);
+	public ResponseEntity<AnnouncementPageDto> getAnnouncementFeed(@PathVariable Long companyId,
+			@RequestParam(required = false) String before, @RequestParam(defaultValue = "50") int limit,
+			WebRequest request) {
+		return conditional(companyId, request, () -> companyService.getAnnouncementFeed(companyId, before, limit));
 	}
 
 	@PostMapping("/{companyId}/announcements")
 	@ResponseStatus(HttpStatus.CREATED)
 	public AnnouncementDto createAnnouncement(@PathVariable Long companyId,
-			@RequestBody AnnouncementRequestDto request) {
-		return announcementService.createAnnouncement(companyId, request);
+			@RequestBody AnnouncementRequestDto request,
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		return announcementService.createAnnouncement(companyId, request, authorization);
 	}
 
 	@GetMapping("/{companyId}/teams")
-	public Set<TeamDto> getAllTeams(@PathVariable Long companyId) {
-		return companyService.getAllTeams(companyId);
+	public ResponseEntity<Set<TeamDto>> getAllTeams(@PathVariable Long companyId, WebRequest request) {
+		return conditional(companyId, request, () -> companyService.getAllTeams(companyId));
+	}
+
+	@GetMapping(value = "/{companyId}/teams", params = "page")
+	public Page<TeamDto> getTeamsPage(@PathVariable Long companyId,
+			@PageableDefault(size = 20, sort = "id") Pageable pageable) {
+		return companyService.getTeamsPage(companyId, pageable);
 	}
 
 	@PostMapping("/{companyId}/teams")
@@ -74,9 +212,17 @@ public class CompanyController {
 	}
 
 	@PatchMapping("/{companyId}/teams/{teamId}")
-	public TeamDto updateTeam(@PathVariable Long companyId, @PathVariable Long teamId,
-			@RequestBody TeamRequestDto request) {
-		return teamService.updateTeam(companyId, teamId, request);
+	public ResponseEntity<TeamDto> updateTeam(@PathVariable Long companyId, @PathVariable Long teamId,
+			@RequestBody TeamRequestDto request, @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		TeamDto team = teamService.updateTeam(companyId, teamId, request, EntityTags.expectedVersion(ifMatch));
+		return EntityTags.tagged(team, team.getVersion());
+	}
+
+	@PatchMapping("/{companyId}/teams/{teamId}/members")
+	public ResponseEntity<TeamDto> updateTeamMembers(@PathVariable Long companyId, @PathVariable Long teamId,
+			@RequestBody TeamMembersRequestDto request, @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		TeamDto team = teamService.updateMembers(companyId, teamId, request, EntityTags.expectedVersion(ifMatch));
+		return EntityTags.tagged(team, team.getVersion());
 	}
 
 	@DeleteMapping("/{companyId}/teams/{teamId}")
@@ -86,8 +232,52 @@ public class CompanyController {
 	}
 
 	@GetMapping("/{companyId}/teams/{teamId}/projects")
-	public Set<ProjectDto> getAllProjects(@PathVariable Long companyId, @PathVariable Long teamId) {
-		return companyService.getAllProjects(companyId, teamId);
+	public ResponseEntity<List<ProjectDto>> getAllProjects(@PathVariable Long companyId, @PathVariable Long teamId,
+			WebRequest request) {
+		return conditional(companyId, request, () -> companyService.getAllProjects(companyId, teamId));
+	}
+
+	@GetMapping("/{companyId}/projects")
+	public ResponseEntity<ProjectPageDto> getProjects(@PathVariable Long companyId,
+			@RequestParam(required = false) Long teamId, @RequestParam(required = false) Boolean active,
+			@RequestParam(required = false) String name, @RequestParam(defaultValue = "name") String sort,
+			@RequestParam(required = false) String after, @RequestParam(defaultValue = "50") int limit,
+			WebRequest request) {
+		return conditional(companyId, request,
+				() -> companyService.getProjects(companyId, teamId, active, name, sort, after, limit));
+	}
+
+	@GetMapping("/{companyId}/search")
+	public SearchPageDto search(@PathVariable Long companyId, @RequestParam String q,
+			@RequestParam(required = false) String type, @RequestParam(defaultValue = "0") int offset,
+			@RequestParam(defaultValue = "20") int limit) {
+		return searchService.search(companyId, q, type, offset, limit);
+	}
+
+	/**
+	 * Answers with 304 when the client already holds the company's current
+	 * revision, so the list is only loaded and serialized when it changed.
+	 */
+	private <T> ResponseEntity<T> conditional(Long companyId, WebRequest request, Supplier<T> body) {
+		String eTag = companyService.getRevisionTag(companyId);
+		if (eTag != null && request.checkNotModified(eTag)) {
+			return null;
+		}
+		// A company only lacks a revision if it was never written through this version, or does not exist
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+		if (eTag != null) {
+			response.eTag(eTag);
+		}
+		return response.body(body.get());
+	}
+
+	private void writeLine(OutputStream output, Object value) {
+		try {
+			output.write(objectMapper.writeValueAsBytes(value));
+			output.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 }
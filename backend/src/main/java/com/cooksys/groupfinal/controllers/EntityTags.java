@@ -0,0 +1,42 @@
+package com.cooksys.groupfinal.controllers;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Entity tags for single teams, projects, users and announcements, which are
+ * their versions. Company listings are tagged with the company revision
+ * instead.
+ */
+final class EntityTags {
+
+	// Never a version, so an update asked to match it always fails its precondition
+	private static final long UNMATCHABLE = -1;
+
+	private EntityTags() {
+	}
+
+	/**
+	 * The version an If-Match header requires, or null when there is no header
+	 * or it accepts any version. Weak tags, lists of tags and tags that are not
+	 * versions can never match.
+	 */
+	static Long expectedVersion(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+			return null;
+		}
+		String tag = ifMatch.strip();
+		if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+			tag = tag.substring(1, tag.length() - 1);
+		}
+		try {
+			return Long.parseLong(tag);
+		} catch (NumberFormatException e) {
+			return UNMATCHABLE;
+		}
+	}
+
+	static <T> ResponseEntity<T> tagged(T body, long version) {
+		return ResponseEntity.ok().eTag(Long.toString(version)).body(body);
+	}
+
+}
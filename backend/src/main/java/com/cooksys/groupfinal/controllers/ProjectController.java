@@ -1,16 +1,21 @@
 package com.cooksys.groupfinal.controllers;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.cooksys.groupfinal.dtos.ProjectBatchRequestDto;
+import com.cooksys.groupfinal.dtos.ProjectBatchResultDto;
 import com.cooksys.groupfinal.dtos.ProjectDto;
 import com.cooksys.groupfinal.dtos.ProjectRequestDto;
 import com.cooksys.groupfinal.services.ProjectService;
@@ -31,9 +36,17 @@ public class ProjectController {
 		return projectService.createProject(project);
 	}
 
+	@PostMapping("/batch")
+	public ResponseEntity<ProjectBatchResultDto> applyBatch(@RequestBody ProjectBatchRequestDto batch) {
+		ProjectBatchResultDto result = projectService.applyBatch(batch);
+		return ResponseEntity.status(result.isApplied() ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(result);
+	}
+
 	@PatchMapping("/{projectId}")
-	public ProjectDto updateProject(@PathVariable Long projectId, @RequestBody ProjectRequestDto project) {
-		return projectService.updateProject(projectId, project);
+	public ResponseEntity<ProjectDto> updateProject(@PathVariable Long projectId,
+			@RequestBody ProjectRequestDto project, @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		ProjectDto updated = projectService.updateProject(projectId, project, EntityTags.expectedVersion(ifMatch));
+		return EntityTags.tagged(updated, updated.getVersion());
 	}
 
 	@DeleteMapping("/{projectId}")
@@ -1,19 +1,27 @@
 package com.cooksys.groupfinal.controllers;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.cooksys.groupfinal.dtos.CredentialsDto;
 import com.cooksys.groupfinal.dtos.FullUserDto;
+import com.cooksys.groupfinal.dtos.SessionUserDto;
+import com.cooksys.groupfinal.dtos.UserPurgeDto;
 import com.cooksys.groupfinal.dtos.UserUpdateRequestDto;
+import com.cooksys.groupfinal.services.UserPurgeService;
 import com.cooksys.groupfinal.services.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -25,21 +33,31 @@ import lombok.RequiredArgsConstructor;
 public class UserController {
 
 	private final UserService userService;
+	private final UserPurgeService userPurgeService;
 
 	@PostMapping("/login")
 	@CrossOrigin(origins = "*")
-	public FullUserDto login(@RequestBody CredentialsDto credentialsDto) {
+	public SessionUserDto login(@RequestBody CredentialsDto credentialsDto) {
 		return userService.login(credentialsDto);
 	}
 
+	@PostMapping(value = "/login", params = "view=full")
+	@CrossOrigin(origins = "*")
+	public FullUserDto loginFull(@RequestBody CredentialsDto credentialsDto) {
+		return userService.loginFull(credentialsDto);
+	}
+
 	@PatchMapping("/{userId}")
-	public FullUserDto updateUser(@PathVariable Long userId, @RequestBody UserUpdateRequestDto request) {
-		return userService.updateUser(userId, request);
+	public ResponseEntity<FullUserDto> updateUser(@PathVariable Long userId, @RequestBody UserUpdateRequestDto request,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		FullUserDto user = userService.updateUser(userId, request, EntityTags.expectedVersion(ifMatch));
+		return EntityTags.tagged(user, user.getVersion());
 	}
 	
 	@PatchMapping("/{userId}/reinstate")
-	public FullUserDto reinstateUser(@PathVariable Long userId, @RequestBody CredentialsDto request) {
-		return userService.reinstateUser(userId, request);
+	public FullUserDto reinstateUser(@PathVariable Long userId, @RequestBody(required = false) CredentialsDto request,
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		return userService.reinstateUser(userId, request, authorization);
 	}
 
 	@DeleteMapping("/{userId}")
@@ -54,4 +72,18 @@ public class UserController {
 		userService.deleteUserPermanent(userId);
 	}
 
+	@PostMapping("/purge")
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	public UserPurgeDto purgeInactiveUsers(@RequestParam int inactiveDays,
+			@RequestBody(required = false) CredentialsDto credentials,
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		return userPurgeService.startPurge(inactiveDays, credentials, authorization);
+	}
+
+	@GetMapping("/purge")
+	public UserPurgeDto getPurge(
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		return userPurgeService.getPurge(authorization);
+	}
+
 }
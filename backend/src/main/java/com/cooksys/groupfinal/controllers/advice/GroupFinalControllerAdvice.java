@@ -1,5 +1,6 @@
 package com.cooksys.groupfinal.controllers.advice;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -10,6 +11,7 @@ import com.cooksys.groupfinal.dtos.ErrorDto;
 import com.cooksys.groupfinal.exceptions.BadRequestException;
 import com.cooksys.groupfinal.exceptions.NotAuthorizedException;
 import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.exceptions.PreconditionFailedException;
 
 @ControllerAdvice(basePackages = { "com.cooksys.groupfinal.controllers" })
 @ResponseBody
@@ -33,4 +35,16 @@ public class GroupFinalControllerAdvice {
         return new ErrorDto(notAuthorizedException.getMessage());
     }
 
-}
\ No newline at end of file
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorDto handlePreconditionFailedException(PreconditionFailedException preconditionFailedException) {
+        return new ErrorDto(preconditionFailedException.getMessage());
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorDto handleConcurrencyFailureException(ConcurrencyFailureException concurrencyFailureException) {
+        return new ErrorDto("The change conflicted with a concurrent update. Please try again.");
+    }
+
+}
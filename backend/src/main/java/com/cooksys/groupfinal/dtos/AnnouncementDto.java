@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
 public class AnnouncementDto {
 	
 	private Long id;
+
+	private long version;
     
     private Timestamp date;
     
@@ -0,0 +1,29 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.List;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ChangeSetDto {
+
+	private long cursor;
+
+	private boolean resync;
+
+	private Set<FullUserDto> users;
+
+	private Set<TeamDto> teams;
+
+	private Set<ProjectDto> projects;
+
+	private Set<AnnouncementDto> announcements;
+
+	private List<DeletedRecordDto> deleted;
+
+}
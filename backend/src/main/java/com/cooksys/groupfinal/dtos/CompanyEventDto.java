@@ -0,0 +1,20 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CompanyEventDto {
+
+	private String type;
+
+	private Long id;
+
+	private String op;
+
+	private long version;
+
+}
@@ -0,0 +1,24 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class CompanyStatsDto {
+
+	private Long companyId;
+
+	private long activeUsers;
+
+	private long pendingUsers;
+
+	private long teams;
+
+	private long announcements;
+
+	private List<TeamStatsDto> teamStats;
+
+}
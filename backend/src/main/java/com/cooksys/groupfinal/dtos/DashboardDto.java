@@ -0,0 +1,24 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class DashboardDto {
+
+	private Long companyId;
+
+	private AnnouncementPageDto announcements;
+
+	private List<TeamSummaryDto> teams;
+
+	private long activeUsers;
+
+	private long pendingUsers;
+
+}
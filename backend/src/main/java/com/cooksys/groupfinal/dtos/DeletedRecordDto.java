@@ -0,0 +1,16 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class DeletedRecordDto {
+
+	private String type;
+
+	private Long id;
+
+}
@@ -11,6 +11,8 @@ public class FullUserDto {
 	
 	private Long id;
 
+	private long version;
+
 	private ProfileDto profile;
 	
 	private String username;
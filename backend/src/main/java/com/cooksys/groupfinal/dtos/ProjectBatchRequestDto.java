@@ -0,0 +1,14 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class ProjectBatchRequestDto {
+
+	private List<ProjectOperationDto> operations;
+
+}
@@ -9,6 +9,8 @@ public class ProjectDto {
 
 	private Long id;
 
+	private long version;
+
 	private String name;
 
 	private String description;
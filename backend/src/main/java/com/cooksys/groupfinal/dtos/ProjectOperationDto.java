@@ -0,0 +1,20 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ProjectOperationDto {
+
+	private String op;
+
+	private Long id;
+
+	private Long version;
+
+	private ProjectRequestDto project;
+
+}
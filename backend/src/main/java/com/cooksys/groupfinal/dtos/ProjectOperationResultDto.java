@@ -0,0 +1,24 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ProjectOperationResultDto {
+
+	private int index;
+
+	private String op;
+
+	private String status;
+
+	private Long projectId;
+
+	private ProjectDto project;
+
+	private String message;
+
+}
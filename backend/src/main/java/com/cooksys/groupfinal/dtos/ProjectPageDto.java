@@ -0,0 +1,18 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ProjectPageDto {
+
+	private List<ProjectDto> projects;
+
+	private String nextCursor;
+
+}
@@ -0,0 +1,26 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The title and snippet are HTML-escaped with the matched terms wrapped in
+ * mark tags.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SearchHitDto {
+
+	private String type;
+
+	private Long id;
+
+	private String title;
+
+	private String snippet;
+
+	private float score;
+
+}
@@ -0,0 +1,23 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SearchPageDto {
+
+	private List<SearchHitDto> hits;
+
+	/**
+	 * Exact up to 1000 matches, a lower bound beyond that.
+	 */
+	private long total;
+
+	private Integer nextOffset;
+
+}
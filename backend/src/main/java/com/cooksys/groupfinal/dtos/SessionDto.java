@@ -0,0 +1,27 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.time.Instant;
+import java.util.Set;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class SessionDto {
+
+	private String token;
+
+	private Long userId;
+
+	private String username;
+
+	private boolean admin;
+
+	private String status;
+
+	private Set<Long> companyIds;
+
+	private Instant expiresAt;
+
+}
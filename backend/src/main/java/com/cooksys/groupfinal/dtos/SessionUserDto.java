@@ -0,0 +1,30 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.Set;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class SessionUserDto {
+
+	private Long id;
+
+	private ProfileDto profile;
+
+	private String username;
+
+	private boolean admin;
+
+	private boolean active;
+
+	private String status;
+
+	private Set<CompanyRefDto> companies;
+
+	private Set<TeamRefDto> teams;
+
+	private String token;
+
+}
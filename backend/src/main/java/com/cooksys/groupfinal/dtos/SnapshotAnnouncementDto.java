@@ -0,0 +1,26 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class SnapshotAnnouncementDto extends SnapshotRecordDto {
+
+	private Long id;
+
+	private Date date;
+
+	private String title;
+
+	private String message;
+
+	private Long authorId;
+
+}
@@ -0,0 +1,22 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class SnapshotImportResultDto {
+
+	private Long companyId;
+
+	private long users;
+
+	private long teams;
+
+	private long teammates;
+
+	private long projects;
+
+	private long announcements;
+
+}
@@ -0,0 +1,20 @@
+package com.cooksys.groupfinal.dtos;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * One line of a company snapshot. Records are written parents first
+ * (company, users, teams, teammates, projects, announcements) so an import
+ * can resolve every reference from records it has already seen.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({ @JsonSubTypes.Type(value = SnapshotCompanyDto.class, name = "company"),
+		@JsonSubTypes.Type(value = SnapshotUserDto.class, name = "user"),
+		@JsonSubTypes.Type(value = SnapshotTeamDto.class, name = "team"),
+		@JsonSubTypes.Type(value = SnapshotTeammateDto.class, name = "teammate"),
+		@JsonSubTypes.Type(value = SnapshotProjectDto.class, name = "project"),
+		@JsonSubTypes.Type(value = SnapshotAnnouncementDto.class, name = "announcement") })
+public abstract class SnapshotRecordDto {
+
+}
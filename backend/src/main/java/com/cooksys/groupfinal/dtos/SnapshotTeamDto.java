@@ -0,0 +1,20 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class SnapshotTeamDto extends SnapshotRecordDto {
+
+	private Long id;
+
+	private String name;
+
+	private String description;
+
+}
@@ -0,0 +1,18 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class SnapshotTeammateDto extends SnapshotRecordDto {
+
+	private Long teamId;
+
+	private Long userId;
+
+}
@@ -0,0 +1,34 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class SnapshotUserDto extends SnapshotRecordDto {
+
+	private Long id;
+
+	private String username;
+
+	private String password;
+
+	private String firstName;
+
+	private String lastName;
+
+	private String email;
+
+	private String phone;
+
+	private boolean active;
+
+	private boolean admin;
+
+	private String status;
+
+}
@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
 public class TeamDto {
 	
 	private Long id;
+
+	private long version;
     
     private String name;
     
@@ -0,0 +1,14 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.util.Set;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class TeamMembersRequestDto {
+	private Set<Long> addIds;
+
+	private Set<Long> removeIds;
+}
@@ -0,0 +1,14 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class TeamRefDto {
+
+	private Long id;
+
+	private String name;
+
+}
@@ -0,0 +1,14 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@Data
+public class TeamStatsDto {
+
+	private Long teamId;
+
+	private long activeProjects;
+
+}
@@ -0,0 +1,26 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TeamSummaryDto {
+
+	private Long id;
+
+	private String name;
+
+	private String description;
+
+	private long members;
+
+	private long activeProjects;
+
+	public TeamSummaryDto(Long id, String name, String description, long members) {
+		this(id, name, description, members, 0);
+	}
+
+}
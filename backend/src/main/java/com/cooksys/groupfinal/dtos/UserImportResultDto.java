@@ -0,0 +1,22 @@
+package com.cooksys.groupfinal.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class UserImportResultDto {
+
+	private int row;
+
+	private String username;
+
+	private String status;
+
+	private Long userId;
+
+	private String message;
+
+}
@@ -0,0 +1,32 @@
+package com.cooksys.groupfinal.dtos;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class UserPurgeDto {
+
+	private int inactiveDays;
+
+	/**
+	 * Users deactivated before this are purged.
+	 */
+	private Timestamp cutoff;
+
+	/**
+	 * RUNNING, COMPLETED or FAILED.
+	 */
+	private String status;
+
+	private long purged;
+
+	private Timestamp startedAt;
+
+	private Timestamp finishedAt;
+
+}
@@ -6,22 +6,38 @@ import java.time.LocalDateTime;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.springframework.data.annotation.CreatedDate;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = @Index(name = "idx_announcement_company_date_id", columnList = "company_id, date DESC, id DESC"))
 @NoArgsConstructor
 @Data
 public class Announcement {
 	
 	@Id
-	@GeneratedValue
+	@GeneratedValue(generator = "announcement_seq")
+	@GenericGenerator(name = "announcement_seq", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "announcement_seq"))
 	private Long id;
 	
+	@Version
+	@ColumnDefault("0")
+	@EqualsAndHashCode.Exclude
+	private long version;
+	
 	@CreatedDate
     private Timestamp date = Timestamp.valueOf(LocalDateTime.now());
 	
@@ -0,0 +1,49 @@
+package com.cooksys.groupfinal.entities;
+
+import java.sql.Timestamp;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row per record a transaction created, updated or deleted, tagged with
+ * the company revision that transaction committed under. Rows are only ever
+ * appended, and removed once they fall out of the retention window.
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+		@Index(name = "idx_change_log_company_revision", columnList = "companyId, revision"),
+		@Index(name = "idx_change_log_created_at", columnList = "createdAt") })
+@NoArgsConstructor
+@Data
+public class ChangeLogEntry {
+
+	@Id
+	@GeneratedValue(generator = "change_log_seq")
+	@GenericGenerator(name = "change_log_seq", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "change_log_seq"))
+	private Long id;
+
+	private Long companyId;
+
+	private long revision;
+
+	private String type;
+
+	private Long entityId;
+
+	private String op;
+
+	private Timestamp createdAt;
+
+}
@@ -6,35 +6,63 @@ import java.util.Set;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @Data
 public class Company {
 	
 	@Id
-	@GeneratedValue
+	@GeneratedValue(generator = "company_seq")
+	@GenericGenerator(name = "company_seq", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "company_seq"))
 	private Long id;
 	
+	@Version
+	@ColumnDefault("0")
+	@EqualsAndHashCode.Exclude
+	private long version;
+	
 	private String name;
 	
 	private String description;
 	
 	@OneToMany(mappedBy = "company")
+	@BatchSize(size = 50)
 	@EqualsAndHashCode.Exclude
 	private Set<Announcement> announcements = new HashSet<>();
 	
 	@ManyToMany
+	@JoinTable(name = "company_employees", joinColumns = @JoinColumn(name = "companies_id"),
+			inverseJoinColumns = @JoinColumn(name = "employees_id"))
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+	@BatchSize(size = 50)
+	@OptimisticLock(excluded = true)
 	@EqualsAndHashCode.Exclude
 	private Set<User> employees = new HashSet<>();
 	
 	@OneToMany(mappedBy = "company")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+	@BatchSize(size = 50)
 	@EqualsAndHashCode.Exclude
 	private Set<Team> teams = new HashSet<>();
 
@@ -0,0 +1,32 @@
+package com.cooksys.groupfinal.entities;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A counter bumped whenever anything a company's read endpoints return
+ * changes, so clients can revalidate those lists with a single lookup.
+ */
+@Entity
+@NoArgsConstructor
+@Data
+public class CompanyRevision {
+
+	@Id
+	private Long companyId;
+
+	private long revision;
+
+	/**
+	 * The newest revision whose change log entries have been purged. Clients
+	 * holding an older cursor have to resync.
+	 */
+	@ColumnDefault("0")
+	private long purgedRevision;
+
+}
@@ -0,0 +1,200 @@
+package com.cooksys.groupfinal.entities;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Transaction;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * The only writer of {@link CompanyRevision}. Entity writes are seen through
+ * Hibernate's events and set-based writes are reported with
+ * {@link #touch(Long)}. Changes are collected per transaction and each
+ * affected company's revision is bumped once, just before the transaction
+ * commits, so the row lock is only held for the tail of the transaction.
+ */
+@Component
+public class CompanyRevisionListener implements PostInsertEventListener, PostUpdateEventListener,
+		PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+		PostCollectionRemoveEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Map<Transaction, PendingRevisions> pending = new ConcurrentHashMap<>();
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Counts a write the listener cannot see, such as set-based SQL, toward
+	 * the company's revision in the current transaction.
+	 */
+	public void touch(Long companyId) {
+		pending(entityManager.unwrap(EventSource.class)).companyIds.add(companyId);
+	}
+
+	/**
+	 * Flushes the current transaction and bumps the revisions it has pending
+	 * right away instead of at commit, so the caller can read the revisions
+	 * the transaction will commit under. Only writes made after this call are
+	 * left for the commit.
+	 */
+	public void applyPending() {
+		EventSource session = entityManager.unwrap(EventSource.class);
+		session.flush();
+		PendingRevisions revisions = pending.get(session.accessTransaction());
+		if (revisions != null) {
+			revisions.apply(session);
+		}
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof Company) {
+			pending(event.getSession()).createdCompanyIds.add((Long) event.getId());
+		} else if (!(event.getEntity() instanceof User)) {
+			// A new user has no memberships until a company or team collection picks it up
+			touched(event.getSession(), event.getEntity());
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		touched(event.getSession(), event.getEntity());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		touched(event.getSession(), event.getEntity());
+	}
+
+	@Override
+	public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+		collectionTouched(event);
+	}
+
+	@Override
+	public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+		collectionTouched(event);
+	}
+
+	@Override
+	public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+		collectionTouched(event);
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	// Still abstract in Hibernate 5.6, which only calls the correctly spelled method above
+	@Override
+	@Deprecated
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return requiresPostCommitHandling(persister);
+	}
+
+	private void collectionTouched(AbstractCollectionEvent event) {
+		if (event.getAffectedOwnerOrNull() != null) {
+			touched(event.getSession(), event.getAffectedOwnerOrNull());
+		}
+	}
+
+	private void touched(EventSource session, Object entity) {
+		Company company = null;
+		if (entity instanceof Company) {
+			company = (Company) entity;
+		} else if (entity instanceof Team) {
+			company = ((Team) entity).getCompany();
+		} else if (entity instanceof Project && ((Project) entity).getTeam() != null) {
+			company = ((Project) entity).getTeam().getCompany();
+		} else if (entity instanceof Announcement) {
+			company = ((Announcement) entity).getCompany();
+		} else if (entity instanceof User) {
+			pending(session).userIds.add(((User) entity).getId());
+		}
+
+		if (company != null) {
+			pending(session).companyIds.add(company.getId());
+		}
+	}
+
+	private PendingRevisions pending(EventSource session) {
+		Transaction transaction = session.accessTransaction();
+		PendingRevisions revisions = pending.get(transaction);
+		if (revisions == null) {
+			PendingRevisions created = new PendingRevisions();
+			pending.put(transaction, created);
+			session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) created::apply);
+			session.getActionQueue().registerProcess(
+					(AfterTransactionCompletionProcess) (success, completed) -> pending.remove(transaction));
+			revisions = created;
+		}
+		return revisions;
+	}
+
+	private static class PendingRevisions {
+
+		private final Set<Long> createdCompanyIds = new HashSet<>();
+		private final Set<Long> companyIds = new TreeSet<>();
+		private final Set<Long> userIds = new HashSet<>();
+
+		private void apply(SessionImplementor session) {
+			for (Long companyId : createdCompanyIds) {
+				session.createNativeQuery(
+						"insert into company_revision (company_id, revision, purged_revision) values (:companyId, 0, 0)")
+						.setParameter("companyId", companyId).addSynchronizedQuerySpace("company_revision")
+						.executeUpdate();
+			}
+
+			if (!userIds.isEmpty()) {
+				@SuppressWarnings("unchecked")
+				List<Number> userCompanyIds = session
+						.createNativeQuery("select distinct companies_id from company_employees where employees_id in (:userIds)")
+						.setParameterList("userIds", userIds).addSynchronizedQuerySpace("company_employees").getResultList();
+				userCompanyIds.forEach(companyId -> companyIds.add(companyId.longValue()));
+			}
+
+			// New companies start at zero and no client can hold an older revision of them
+			companyIds.removeAll(createdCompanyIds);
+			if (!companyIds.isEmpty()) {
+				session.createNativeQuery(
+						"update company_revision set revision = revision + 1 where company_id in (:companyIds)")
+						.setParameterList("companyIds", companyIds).addSynchronizedQuerySpace("company_revision")
+						.executeUpdate();
+			}
+
+			createdCompanyIds.clear();
+			companyIds.clear();
+			userIds.clear();
+		}
+
+	}
+
+}
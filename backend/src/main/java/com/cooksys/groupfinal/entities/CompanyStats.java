@@ -0,0 +1,32 @@
+package com.cooksys.groupfinal.entities;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters shown on the company pages. Write paths adjust them in the same
+ * transaction as the change they count, and a periodic reconciliation
+ * recounts them from the source tables.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CompanyStats {
+
+	@Id
+	private Long companyId;
+
+	private long activeUsers;
+
+	private long pendingUsers;
+
+	private long teams;
+
+	private long announcements;
+
+}
@@ -0,0 +1,36 @@
+package com.cooksys.groupfinal.entities;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence generator that hands out ids in blocks using the pooled-lo
+ * optimizer. The block size is read from the
+ * {@code groupfinal.id.allocation_size} Hibernate setting (exposed through
+ * {@code spring.jpa.properties}) so it can be tuned without touching the
+ * entity mappings. It must match the increment of the database sequence.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String STRATEGY = "com.cooksys.groupfinal.entities.PooledSequenceGenerator";
+
+	public static final String ALLOCATION_SIZE_SETTING = "groupfinal.id.allocation_size";
+
+	public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE_SETTING,
+				serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+		params.putIfAbsent(INCREMENT_PARAM, String.valueOf(allocationSize));
+		params.putIfAbsent(OPT_PARAM, "pooled-lo");
+		super.configure(type, params, serviceRegistry);
+	}
+
+}
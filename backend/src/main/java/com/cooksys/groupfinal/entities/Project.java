@@ -3,14 +3,24 @@ package com.cooksys.groupfinal.entities;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = @Index(name = "idx_project_team_active", columnList = "team_id, active"))
 @NoArgsConstructor
 @Data
 @Getter
@@ -18,9 +28,16 @@ import lombok.Setter;
 public class Project {
 
 	@Id
-	@GeneratedValue
+	@GeneratedValue(generator = "project_seq")
+	@GenericGenerator(name = "project_seq", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "project_seq"))
 	private Long id;
 
+	@Version
+	@ColumnDefault("0")
+	@EqualsAndHashCode.Exclude
+	private long version;
+
 	private String name;
 
 	private String description;
@@ -7,23 +7,46 @@ import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = @Index(name = "idx_team_company", columnList = "company_id"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @Data
 public class Team {
 
 	@Id
-	@GeneratedValue
+	@GeneratedValue(generator = "team_seq")
+	@GenericGenerator(name = "team_seq", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
 	private Long id;
 
+	@Version
+	@ColumnDefault("0")
+	@EqualsAndHashCode.Exclude
+	private long version;
+
 	private String name;
 
 	private String description;
@@ -32,10 +55,16 @@ public class Team {
 	private Company company;
 
 	@ManyToMany
+	@JoinTable(name = "team_teammates", joinColumns = @JoinColumn(name = "teams_id"),
+			inverseJoinColumns = @JoinColumn(name = "teammates_id"))
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+	@BatchSize(size = 50)
+	@OptimisticLock(excluded = true)
 	@EqualsAndHashCode.Exclude
 	private Set<User> teammates = new HashSet<>();
 
 	@OneToMany(mappedBy = "team", cascade = CascadeType.REMOVE, orphanRemoval = true)
+	@BatchSize(size = 50)
 	@EqualsAndHashCode.Exclude
 	private Set<Project> projects = new HashSet<>();
 
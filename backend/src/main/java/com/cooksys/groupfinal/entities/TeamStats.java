@@ -0,0 +1,26 @@
+package com.cooksys.groupfinal.entities;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(indexes = @Index(name = "idx_team_stats_company", columnList = "companyId"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TeamStats {
+
+	@Id
+	private Long teamId;
+
+	private Long companyId;
+
+	private long activeProjects;
+
+}
@@ -1,5 +1,6 @@
 package com.cooksys.groupfinal.entities;
 
+import java.sql.Timestamp;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -7,24 +8,42 @@ import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "user_table")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "user_table", indexes = @Index(name = "idx_user_deactivated_at", columnList = "deactivatedAt"))
 @NoArgsConstructor
 @Data
 public class User {
 	
 	@Id
-	@GeneratedValue
+	@GeneratedValue(generator = "user_seq")
+	@GenericGenerator(name = "user_seq", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_seq"))
 	private Long id;
 
+	@Version
+	@ColumnDefault("0")
+	@EqualsAndHashCode.Exclude
+	private long version;
+
   @Embedded
   private Credentials credentials;
 	
@@ -32,20 +51,26 @@ public class User {
   private Profile profile;
 	
 	private boolean active;
+
+	// When the user was last deactivated, which starts their purge clock
+	private Timestamp deactivatedAt;
 	
 	private boolean admin;
 	
 	private String status = "PENDING";
 	
 	@OneToMany(mappedBy = "author")
+	@BatchSize(size = 50)
 	@EqualsAndHashCode.Exclude
 	private Set<Announcement> announcements = new HashSet<>();
 	
 	@ManyToMany(mappedBy = "employees")
+	@BatchSize(size = 50)
 	@EqualsAndHashCode.Exclude
 	private Set<Company> companies = new HashSet<>();
 	
 	@ManyToMany(mappedBy = "teammates")
+	@BatchSize(size = 50)
 	@EqualsAndHashCode.Exclude
 	private Set<Team> teams = new HashSet<>();
 
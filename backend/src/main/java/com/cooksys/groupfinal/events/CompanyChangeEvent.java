@@ -0,0 +1,36 @@
+package com.cooksys.groupfinal.events;
+
+import java.util.function.LongSupplier;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by the services when something a company's pages show changes.
+ * Listeners receive it only once the surrounding transaction commits. The
+ * version is read at that point, after the final flush has bumped it.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CompanyChangeEvent {
+
+	public static final String ANNOUNCEMENT = "announcement";
+	public static final String PROJECT = "project";
+	public static final String TEAM = "team";
+	public static final String USER = "user";
+
+	public static final String CREATED = "created";
+	public static final String UPDATED = "updated";
+	public static final String DELETED = "deleted";
+
+	private final Long companyId;
+
+	private final String type;
+
+	private final Long id;
+
+	private final String op;
+
+	private final LongSupplier version;
+
+}
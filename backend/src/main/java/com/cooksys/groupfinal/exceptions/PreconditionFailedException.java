@@ -0,0 +1,18 @@
+package com.cooksys.groupfinal.exceptions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class PreconditionFailedException extends RuntimeException {
+
+	private static final long serialVersionUID = -4158301675502236614L;
+
+	private String message;
+
+}
@@ -1,5 +1,6 @@
 package com.cooksys.groupfinal.mappers;
 
+import java.util.List;
 import java.util.Set;
 
 import org.mapstruct.Mapper;
@@ -14,4 +15,6 @@ public interface AnnouncementMapper {
 
 	Set<AnnouncementDto> entitiesToDtos(Set<Announcement> announcement);
 
+	List<AnnouncementDto> entitiesToDtos(List<Announcement> announcements);
+
 }
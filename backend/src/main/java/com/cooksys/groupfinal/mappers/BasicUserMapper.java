@@ -3,10 +3,12 @@ package com.cooksys.groupfinal.mappers;
 import java.util.Set;
 
 import com.cooksys.groupfinal.dtos.BasicUserDto;
+import com.cooksys.groupfinal.dtos.SnapshotUserDto;
 import com.cooksys.groupfinal.dtos.UserRequestDto;
 import com.cooksys.groupfinal.entities.User;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring", uses = { ProfileMapper.class, CredentialsMapper.class })
 public interface BasicUserMapper {
@@ -14,6 +16,9 @@ public interface BasicUserMapper {
     BasicUserDto entityToBasicUserDto(User user);
     
     Set<BasicUserDto> entitiesToBasicUserDtos(Set<User> users);
+
+    @Mapping(target = "profile", source = "user")
+    BasicUserDto snapshotToBasicUserDto(SnapshotUserDto user);
     
     User requestDtoToEntity(UserRequestDto userRequestDto);
 
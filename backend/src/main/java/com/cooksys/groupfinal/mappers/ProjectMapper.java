@@ -1,5 +1,6 @@
 package com.cooksys.groupfinal.mappers;
 
+import java.util.List;
 import java.util.Set;
 
 import org.mapstruct.Mapper;
@@ -15,6 +16,8 @@ public interface ProjectMapper {
 
 	Set<ProjectDto> entitiesToDtos(Set<Project> projects);
 
+	List<ProjectDto> entitiesToDtos(List<Project> projects);
+
 	Project dtoToEntity(ProjectDto project);
 
 	Project requestDtoToEntity(ProjectRequestDto project);
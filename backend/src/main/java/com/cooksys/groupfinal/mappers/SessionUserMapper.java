@@ -0,0 +1,30 @@
+package com.cooksys.groupfinal.mappers;
+
+import java.util.Set;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.cooksys.groupfinal.dtos.CompanyRefDto;
+import com.cooksys.groupfinal.dtos.SessionUserDto;
+import com.cooksys.groupfinal.dtos.TeamRefDto;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.Team;
+import com.cooksys.groupfinal.entities.User;
+
+@Mapper(componentModel = "spring", uses = { ProfileMapper.class })
+public interface SessionUserMapper {
+
+	@Mapping(source = "credentials.username", target = "username")
+	@Mapping(target = "token", ignore = true)
+	SessionUserDto entityToSessionUserDto(User user);
+
+	CompanyRefDto companyToRefDto(Company company);
+
+	Set<CompanyRefDto> companiesToRefDtos(Set<Company> companies);
+
+	TeamRefDto teamToRefDto(Team team);
+
+	Set<TeamRefDto> teamsToRefDtos(Set<Team> teams);
+
+}
@@ -0,0 +1,21 @@
+package com.cooksys.groupfinal.mappers;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.cooksys.groupfinal.dtos.CompanyStatsDto;
+import com.cooksys.groupfinal.dtos.TeamStatsDto;
+import com.cooksys.groupfinal.entities.CompanyStats;
+import com.cooksys.groupfinal.entities.TeamStats;
+
+@Mapper(componentModel = "spring")
+public interface StatsMapper {
+
+  @Mapping(target = "teamStats", source = "teamStats")
+  CompanyStatsDto entitiesToDto(CompanyStats companyStats, List<TeamStats> teamStats);
+
+  List<TeamStatsDto> entitiesToDtos(List<TeamStats> teamStats);
+
+}
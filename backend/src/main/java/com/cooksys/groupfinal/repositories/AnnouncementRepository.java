@@ -1,12 +1,54 @@
 package com.cooksys.groupfinal.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.cooksys.groupfinal.dtos.SnapshotAnnouncementDto;
 import com.cooksys.groupfinal.entities.Announcement;
 
 @Repository
 public interface AnnouncementRepository extends JpaRepository<Announcement, Long> {
 
+	@Query("select a from Announcement a left join fetch a.author where a.company.id = :companyId "
+			+ "order by a.date desc, a.id desc")
+	List<Announcement> findFeed(@Param("companyId") Long companyId, Pageable pageable);
+
+	@Query("select a from Announcement a left join fetch a.author where a.company.id = :companyId "
+			+ "and (a.date < :date or (a.date = :date and a.id < :id)) order by a.date desc, a.id desc")
+	List<Announcement> findFeedBefore(@Param("companyId") Long companyId, @Param("date") Timestamp date,
+			@Param("id") Long id, Pageable pageable);
+
+	@EntityGraph(attributePaths = "author")
+	Set<Announcement> findWithAuthorByCompanyIdAndIdIn(Long companyId, Collection<Long> ids);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("select new com.cooksys.groupfinal.dtos.SnapshotAnnouncementDto(a.id, a.date, a.title, a.message, au.id) "
+			+ "from Announcement a left join a.author au where a.company.id = :companyId order by a.id")
+	Stream<SnapshotAnnouncementDto> streamSnapshotByCompanyId(@Param("companyId") Long companyId);
+
+	@Query("select new com.cooksys.groupfinal.dtos.SnapshotAnnouncementDto(a.id, a.date, a.title, a.message, au.id) "
+			+ "from Announcement a left join a.author au where a.company.id = :companyId and a.id in :ids")
+	List<SnapshotAnnouncementDto> findSnapshotByCompanyIdAndIdIn(@Param("companyId") Long companyId,
+			@Param("ids") Collection<Long> ids);
+
+	@Modifying
+	@Query("update Announcement a set a.author = null where a.author.id in :authorIds")
+	int clearAuthor(@Param("authorIds") Collection<Long> authorIds);
 
 }
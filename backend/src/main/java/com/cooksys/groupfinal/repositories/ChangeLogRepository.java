@@ -0,0 +1,47 @@
+package com.cooksys.groupfinal.repositories;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.cooksys.groupfinal.entities.ChangeLogEntry;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+	@Query("select c from ChangeLogEntry c where c.companyId = :companyId and c.revision > :since"
+			+ " and c.revision <= :until order by c.revision, c.id")
+	List<ChangeLogEntry> findChanges(@Param("companyId") Long companyId, @Param("since") long since,
+			@Param("until") long until);
+
+	@Query("select distinct c.companyId from ChangeLogEntry c where c.createdAt >= :since")
+	List<Long> findCompanyIdsChangedSince(@Param("since") Timestamp since);
+
+	/**
+	 * Moves each company's purge horizon up to its newest entry older than the
+	 * cutoff. Must run before {@link #deletePurged()} in the same transaction.
+	 */
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "company_revision"))
+	@Query(value = "update company_revision r set purged_revision = (select max(c.revision) from change_log c"
+			+ " where c.company_id = r.company_id and c.created_at < :cutoff) where exists (select 1 from change_log c"
+			+ " where c.company_id = r.company_id and c.created_at < :cutoff)", nativeQuery = true)
+	int advancePurgedRevisions(@Param("cutoff") Timestamp cutoff);
+
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "change_log"))
+	@Query(value = "delete from change_log c where c.revision <= (select r.purged_revision from company_revision r"
+			+ " where r.company_id = c.company_id)", nativeQuery = true)
+	int deletePurged();
+
+}
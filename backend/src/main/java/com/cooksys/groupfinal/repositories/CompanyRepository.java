@@ -1,6 +1,17 @@
 package com.cooksys.groupfinal.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.cooksys.groupfinal.entities.Company;
@@ -8,5 +19,16 @@ import com.cooksys.groupfinal.entities.Company;
 @Repository
 public interface CompanyRepository extends JpaRepository<Company, Long> {
 
+	@Query("select c.id from Company c order by c.id")
+	List<Long> findCompanyIds();
+
+	// Naming only the join table stops Hibernate from clearing the whole second-level cache after
+	// these statements. Callers evict the collections they change.
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "company_employees"))
+	@Query(value = "insert into company_employees (companies_id, employees_id) select :companyId, u.id from user_table u "
+			+ "where u.id in (:userIds) and not exists (select 1 from company_employees ce "
+			+ "where ce.companies_id = :companyId and ce.employees_id = u.id)", nativeQuery = true)
+	int addEmployees(@Param("companyId") Long companyId, @Param("userIds") Collection<Long> userIds);
 
-}
\ No newline at end of file
+}
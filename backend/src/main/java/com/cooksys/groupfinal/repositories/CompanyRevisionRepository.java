@@ -0,0 +1,18 @@
+package com.cooksys.groupfinal.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.cooksys.groupfinal.entities.CompanyRevision;
+
+@Repository
+public interface CompanyRevisionRepository extends JpaRepository<CompanyRevision, Long> {
+
+	@Query("select r.revision from CompanyRevision r where r.companyId = :companyId")
+	Optional<Long> findRevision(@Param("companyId") Long companyId);
+
+}
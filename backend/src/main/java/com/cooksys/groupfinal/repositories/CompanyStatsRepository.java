@@ -0,0 +1,70 @@
+package com.cooksys.groupfinal.repositories;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.cooksys.groupfinal.entities.CompanyStats;
+
+@Repository
+public interface CompanyStatsRepository extends JpaRepository<CompanyStats, Long> {
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select s from CompanyStats s where s.companyId = :companyId")
+	Optional<CompanyStats> findForUpdate(@Param("companyId") Long companyId);
+
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "company_stats"))
+	@Query(value = "update company_stats set active_users = active_users + :active, "
+			+ "pending_users = pending_users + :pending where company_id = :companyId", nativeQuery = true)
+	int adjustUsers(@Param("companyId") Long companyId, @Param("active") long active, @Param("pending") long pending);
+
+	/**
+	 * Adjusts every company the user belongs to. Must run before the user's
+	 * memberships are changed in the same transaction.
+	 */
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "company_stats"))
+	@Query(value = "update company_stats set active_users = active_users + :active, "
+			+ "pending_users = pending_users + :pending where company_id in "
+			+ "(select companies_id from company_employees where employees_id = :userId)", nativeQuery = true)
+	int adjustUsersOfMember(@Param("userId") Long userId, @Param("active") long active,
+			@Param("pending") long pending);
+
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "company_stats"))
+	@Query(value = "update company_stats set teams = teams + :delta where company_id = :companyId", nativeQuery = true)
+	int adjustTeams(@Param("companyId") Long companyId, @Param("delta") long delta);
+
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "company_stats"))
+	@Query(value = "update company_stats set announcements = announcements + :delta where company_id = :companyId",
+			nativeQuery = true)
+	int adjustAnnouncements(@Param("companyId") Long companyId, @Param("delta") long delta);
+
+	@Query("select count(u) from Company c join c.employees u where c.id = :companyId and u.active = true")
+	long countActiveUsers(@Param("companyId") Long companyId);
+
+	@Query("select count(u) from Company c join c.employees u where c.id = :companyId and u.active = true "
+			+ "and u.status = 'PENDING'")
+	long countPendingUsers(@Param("companyId") Long companyId);
+
+	@Query("select count(t) from Team t where t.company.id = :companyId")
+	long countTeams(@Param("companyId") Long companyId);
+
+	@Query("select count(a) from Announcement a where a.company.id = :companyId")
+	long countAnnouncements(@Param("companyId") Long companyId);
+
+}
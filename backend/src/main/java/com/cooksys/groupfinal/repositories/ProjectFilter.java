@@ -0,0 +1,24 @@
+package com.cooksys.groupfinal.repositories;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Narrows a company's projects for {@link ProjectQueryRepository}. Null
+ * fields do not filter.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ProjectFilter {
+
+	private Long companyId;
+
+	private Long teamId;
+
+	private Boolean active;
+
+	private String namePrefix;
+
+}
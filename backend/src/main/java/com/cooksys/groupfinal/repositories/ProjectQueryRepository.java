@@ -0,0 +1,19 @@
+package com.cooksys.groupfinal.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+
+import com.cooksys.groupfinal.entities.Project;
+
+public interface ProjectQueryRepository {
+
+	/**
+	 * Returns the projects matching the filter in sort order, with their team
+	 * fetched. The sort must end on a unique property so it can be used as a
+	 * keyset: when after holds one value per sort property, only projects past
+	 * that position are returned. A limit of 0 returns every match.
+	 */
+	List<Project> findProjects(ProjectFilter filter, Sort sort, List<?> after, int limit);
+
+}
@@ -0,0 +1,105 @@
+package com.cooksys.groupfinal.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Sort;
+
+import com.cooksys.groupfinal.entities.Project;
+import com.cooksys.groupfinal.entities.Team;
+
+/**
+ * Builds the project listing with the criteria API so only the filters in use
+ * end up in the SQL, keeping the (team_id, active) index usable. Spring Data's
+ * specification executor cannot apply a limit without a count query, hence
+ * the fragment.
+ */
+class ProjectQueryRepositoryImpl implements ProjectQueryRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Project> findProjects(ProjectFilter filter, Sort sort, List<?> after, int limit) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Project> query = builder.createQuery(Project.class);
+		Root<Project> project = query.from(Project.class);
+		// The fetch doubles as the join the company filter goes through
+		Join<Project, Team> team = (Join<Project, Team>) project.<Project, Team>fetch("team");
+
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(builder.equal(team.get("company").get("id"), filter.getCompanyId()));
+		if (filter.getTeamId() != null) {
+			predicates.add(builder.equal(project.get("team").get("id"), filter.getTeamId()));
+		}
+		if (filter.getActive() != null) {
+			predicates.add(builder.equal(project.get("active"), filter.getActive()));
+		}
+		if (filter.getNamePrefix() != null) {
+			predicates.add(builder.like(builder.lower(project.get("name")), escape(filter.getNamePrefix()) + "%", '\\'));
+		}
+		if (!after.isEmpty()) {
+			predicates.add(after(builder, project, sort.toList(), after));
+		}
+
+		List<Order> orders = new ArrayList<>();
+		for (Sort.Order order : sort) {
+			Expression<?> key = sortKey(builder, project, order.getProperty());
+			orders.add(order.isAscending() ? builder.asc(key) : builder.desc(key));
+		}
+		query.select(project).where(predicates.toArray(new Predicate[0])).orderBy(orders);
+		TypedQuery<Project> typedQuery = entityManager.createQuery(query);
+		if (limit > 0) {
+			typedQuery.setMaxResults(limit);
+		}
+		return typedQuery.getResultList();
+	}
+
+	/**
+	 * Matches rows ordered after the given values, as in (a, b) > (x, y)
+	 * spelled out per column so each column can have its own direction.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Predicate after(CriteriaBuilder builder, Root<Project> project, List<Sort.Order> orders,
+			List<?> values) {
+		List<Predicate> alternatives = new ArrayList<>();
+		for (int i = 0; i < orders.size(); i++) {
+			List<Predicate> terms = new ArrayList<>();
+			for (int j = 0; j < i; j++) {
+				terms.add(builder.equal(sortKey(builder, project, orders.get(j).getProperty()), values.get(j)));
+			}
+			Expression<Comparable> key = (Expression<Comparable>) sortKey(builder, project,
+					orders.get(i).getProperty());
+			Comparable value = (Comparable) values.get(i);
+			terms.add(orders.get(i).isAscending() ? builder.greaterThan(key, value) : builder.lessThan(key, value));
+			alternatives.add(builder.and(terms.toArray(new Predicate[0])));
+		}
+		return builder.or(alternatives.toArray(new Predicate[0]));
+	}
+
+	/**
+	 * Projects without a name sort as if named "", since a comparison with
+	 * NULL would never let the cursor move past them.
+	 */
+	private static Expression<?> sortKey(CriteriaBuilder builder, Root<Project> project, String property) {
+		return property.equals("name") ? builder.coalesce(project.<String>get("name"), "") : project.get(property);
+	}
+
+	private static String escape(String prefix) {
+		return prefix.toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+}
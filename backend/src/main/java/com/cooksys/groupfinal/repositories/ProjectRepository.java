@@ -1,18 +1,46 @@
 package com.cooksys.groupfinal.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.cooksys.groupfinal.dtos.SnapshotProjectDto;
 import com.cooksys.groupfinal.entities.Project;
 
 @Repository
-public interface ProjectRepository extends JpaRepository<Project, Long> {
+public interface ProjectRepository extends JpaRepository<Project, Long>, ProjectQueryRepository {
   Optional<Project> findByName(String name);
 
   Optional<Project> findById(Long id);
 
   Set<Project> findAllByTeamId(Long teamId);
-}
\ No newline at end of file
+
+  @EntityGraph(attributePaths = { "team", "team.teammates" })
+  Set<Project> findWithTeamByTeamCompanyIdAndIdIn(Long companyId, Collection<Long> ids);
+
+  @EntityGraph(attributePaths = { "team", "team.company", "team.teammates" })
+  Set<Project> findWithTeamByIdIn(Collection<Long> ids);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("select new com.cooksys.groupfinal.dtos.SnapshotProjectDto(p.id, p.name, p.description, p.active, t.id) "
+      + "from Project p join p.team t where t.company.id = :companyId order by p.id")
+  Stream<SnapshotProjectDto> streamSnapshotByCompanyId(@Param("companyId") Long companyId);
+
+  @Query("select new com.cooksys.groupfinal.dtos.SnapshotProjectDto(p.id, p.name, p.description, p.active, t.id) "
+      + "from Project p join p.team t where t.company.id = :companyId and p.id in :ids")
+  List<SnapshotProjectDto> findSnapshotByCompanyIdAndIdIn(@Param("companyId") Long companyId,
+      @Param("ids") Collection<Long> ids);
+}
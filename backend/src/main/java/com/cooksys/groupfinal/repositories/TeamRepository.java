@@ -1,12 +1,106 @@
 package com.cooksys.groupfinal.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.cooksys.groupfinal.dtos.SnapshotTeamDto;
+import com.cooksys.groupfinal.dtos.SnapshotTeammateDto;
+import com.cooksys.groupfinal.dtos.TeamSummaryDto;
 import com.cooksys.groupfinal.entities.Team;
 
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
 
+	Page<Team> findByCompanyId(Long companyId, Pageable pageable);
+
+	@EntityGraph(attributePaths = "teammates")
+	Set<Team> findWithTeammatesByCompanyId(Long companyId);
+
+	@EntityGraph(attributePaths = "teammates")
+	Optional<Team> findWithTeammatesById(Long id);
+
+	@EntityGraph(attributePaths = "teammates")
+	Set<Team> findWithTeammatesByCompanyIdAndIdIn(Long companyId, Collection<Long> ids);
+
+	@EntityGraph(attributePaths = "teammates")
+	Set<Team> findWithTeammatesByIdIn(Collection<Long> ids);
+
+	@EntityGraph(attributePaths = "company")
+	Set<Team> findWithCompanyByIdIn(Collection<Long> ids);
+
+	/**
+	 * Moves the team to its next version if it is still at the given one.
+	 * Callers evict that team from the second-level cache, since the space
+	 * named here keeps Hibernate from dropping every cached team instead.
+	 */
+	@Modifying(clearAutomatically = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team_version"))
+	@Query(value = "update team set version = version + 1 where id = :teamId and version = :version",
+			nativeQuery = true)
+	int incrementVersion(@Param("teamId") Long teamId, @Param("version") long version);
+
+	// Naming only the join table stops Hibernate from clearing the whole second-level cache after
+	// these statements. Callers evict the collections they change.
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team_teammates"))
+	@Query(value = "insert into team_teammates (teams_id, teammates_id) select :teamId, u.id from user_table u "
+			+ "where u.id in (:userIds) and not exists (select 1 from team_teammates tt "
+			+ "where tt.teams_id = :teamId and tt.teammates_id = u.id)", nativeQuery = true)
+	int addTeammates(@Param("teamId") Long teamId, @Param("userIds") Collection<Long> userIds);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team_teammates"))
+	@Query(value = "delete from team_teammates where teams_id = :teamId and teammates_id in (:userIds)",
+			nativeQuery = true)
+	int removeTeammates(@Param("teamId") Long teamId, @Param("userIds") Collection<Long> userIds);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team_teammates"))
+	@Query(value = "delete from team_teammates where teams_id = :teamId and teammates_id not in (:userIds)",
+			nativeQuery = true)
+	int retainTeammates(@Param("teamId") Long teamId, @Param("userIds") Collection<Long> userIds);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team_teammates"))
+	@Query(value = "delete from team_teammates where teams_id = :teamId", nativeQuery = true)
+	int removeAllTeammates(@Param("teamId") Long teamId);
+
+	@Query("select new com.cooksys.groupfinal.dtos.TeamSummaryDto(t.id, t.name, t.description, count(u)) "
+			+ "from Team t left join t.teammates u where t.company.id = :companyId "
+			+ "group by t.id, t.name, t.description order by t.id")
+	List<TeamSummaryDto> findSummariesByCompanyId(@Param("companyId") Long companyId);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("select new com.cooksys.groupfinal.dtos.SnapshotTeamDto(t.id, t.name, t.description) from Team t "
+			+ "where t.company.id = :companyId order by t.id")
+	Stream<SnapshotTeamDto> streamSnapshotByCompanyId(@Param("companyId") Long companyId);
+
+	@Query("select new com.cooksys.groupfinal.dtos.SnapshotTeamDto(t.id, t.name, t.description) from Team t "
+			+ "where t.company.id = :companyId and t.id in :ids")
+	List<SnapshotTeamDto> findSnapshotByCompanyIdAndIdIn(@Param("companyId") Long companyId,
+			@Param("ids") Collection<Long> ids);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("select new com.cooksys.groupfinal.dtos.SnapshotTeammateDto(t.id, u.id) from Team t join t.teammates u "
+			+ "join u.companies c where t.company.id = :companyId and c.id = :companyId order by t.id, u.id")
+	Stream<SnapshotTeammateDto> streamTeammateSnapshotByCompanyId(@Param("companyId") Long companyId);
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.cooksys.groupfinal.repositories;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+import java.util.List;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.cooksys.groupfinal.entities.TeamStats;
+
+@Repository
+public interface TeamStatsRepository extends JpaRepository<TeamStats, Long> {
+
+	List<TeamStats> findByCompanyIdOrderByTeamId(Long companyId);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select s from TeamStats s where s.companyId = :companyId")
+	List<TeamStats> findForUpdate(@Param("companyId") Long companyId);
+
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team_stats"))
+	@Query(value = "update team_stats set active_projects = active_projects + :delta where team_id = :teamId",
+			nativeQuery = true)
+	int adjustActiveProjects(@Param("teamId") Long teamId, @Param("delta") long delta);
+
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "team_stats"))
+	@Query(value = "delete from team_stats where team_id = :teamId", nativeQuery = true)
+	int deleteTeam(@Param("teamId") Long teamId);
+
+	@Query("select new com.cooksys.groupfinal.entities.TeamStats(t.id, t.company.id, count(p)) from Team t "
+			+ "left join t.projects p on p.active = true where t.company.id = :companyId group by t.id, t.company.id")
+	List<TeamStats> countActiveProjects(@Param("companyId") Long companyId);
+
+}
@@ -1,12 +1,29 @@
 package com.cooksys.groupfinal.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.cooksys.groupfinal.dtos.SnapshotUserDto;
 import com.cooksys.groupfinal.entities.User;
 
 @Repository
@@ -14,8 +31,62 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 	Optional<User> findByCredentialsUsernameAndActiveTrue(String username);
 
+	@EntityGraph(attributePaths = { "companies", "teams" })
+	Optional<User> findWithMembershipsByCredentialsUsernameAndActiveTrue(String username);
+
 	Optional<User> findByCredentialsUsername(String username);
 
 	List<User> findByIdInAndActiveTrue(Set<Long> userIds);
 
+	List<User> findByCredentialsUsernameIn(Collection<String> usernames);
+
+	@Query("select u.id from User u join u.companies c where c.id = :companyId and u.id in :userIds")
+	Set<Long> findEmployeeIds(@Param("companyId") Long companyId, @Param("userIds") Collection<Long> userIds);
+
+	@Query("select u.id from User u join u.companies c where c.id = :companyId and u.active = true and u.id in :userIds")
+	Set<Long> findActiveEmployeeIds(@Param("companyId") Long companyId, @Param("userIds") Collection<Long> userIds);
+
+	Page<User> findByCompaniesId(Long companyId, Pageable pageable);
+
+	/**
+	 * Membership is checked in a subquery, since filtering on the fetched join
+	 * would leave each user with only this company in their companies.
+	 */
+	@EntityGraph(attributePaths = { "companies", "teams" })
+	@Query("select u from User u where u.id in (select e.id from Company c join c.employees e where c.id = :companyId)")
+	Set<User> findWithMembershipsByCompaniesId(@Param("companyId") Long companyId);
+
+	@EntityGraph(attributePaths = { "companies", "teams" })
+	@Query("select u from User u where u.id in :ids"
+			+ " and u.id in (select e.id from Company c join c.employees e where c.id = :companyId)")
+	Set<User> findWithMembershipsByCompaniesIdAndIdIn(@Param("companyId") Long companyId,
+			@Param("ids") Collection<Long> ids);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("select new com.cooksys.groupfinal.dtos.SnapshotUserDto(u.id, u.credentials.username, "
+			+ "u.credentials.password, u.profile.firstName, u.profile.lastName, u.profile.email, u.profile.phone, "
+			+ "u.active, u.admin, u.status) from Company c join c.employees u where c.id = :companyId order by u.id")
+	Stream<SnapshotUserDto> streamSnapshotByCompanyId(@Param("companyId") Long companyId);
+
+	@Query("select new com.cooksys.groupfinal.dtos.SnapshotUserDto(u.id, u.credentials.username, "
+			+ "u.credentials.password, u.profile.firstName, u.profile.lastName, u.profile.email, u.profile.phone, "
+			+ "u.active, u.admin, u.status) from Company c join c.employees u where c.id = :companyId and u.id in :ids")
+	List<SnapshotUserDto> findSnapshotByCompanyIdAndIdIn(@Param("companyId") Long companyId,
+			@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Locks the oldest-deactivated users first, so a reinstatement racing a
+	 * purge waits for it and then finds the user gone.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select u from User u where u.active = false and u.deactivatedAt < :cutoff order by u.deactivatedAt, u.id")
+	List<User> findPurgeable(@Param("cutoff") Timestamp cutoff, Pageable pageable);
+
+	@Query("select distinct t.id from Team t join t.teammates u where u.id in :userIds")
+	Set<Long> findTeamIdsByTeammateIds(@Param("userIds") Collection<Long> userIds);
+
+	@Modifying(clearAutomatically = true)
+	@Query("delete from User u where u.id in :userIds")
+	int deleteByIdIn(@Param("userIds") Collection<Long> userIds);
+
 }
@@ -6,10 +6,15 @@ import com.cooksys.groupfinal.dtos.CredentialsDto;
 
 public interface AnnouncementService {
 
-	AnnouncementDto createAnnouncement(Long companyId, AnnouncementRequestDto request);
+	AnnouncementDto createAnnouncement(Long companyId, AnnouncementRequestDto request, String authorization);
 
-	AnnouncementDto updateAnnouncement(Long announcementId, AnnouncementRequestDto request);
+	/**
+	 * Applies the update if the announcement is still at the expected version,
+	 * or unconditionally when none is given.
+	 */
+	AnnouncementDto updateAnnouncement(Long announcementId, AnnouncementRequestDto request, String authorization,
+			Long expectedVersion);
 
-	void deleteAnnouncement(Long announcementId, CredentialsDto credentials);
+	void deleteAnnouncement(Long announcementId, CredentialsDto credentials, String authorization);
 
 }
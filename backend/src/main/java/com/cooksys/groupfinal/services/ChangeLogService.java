@@ -0,0 +1,14 @@
+package com.cooksys.groupfinal.services;
+
+import com.cooksys.groupfinal.dtos.ChangeSetDto;
+
+public interface ChangeLogService {
+
+	/**
+	 * Returns the current state of every record changed after the cursor, or
+	 * a resync marker when the cursor is missing or no longer covered by the
+	 * change log. Either way the result carries the cursor to ask with next.
+	 */
+	ChangeSetDto getChanges(Long companyId, Long since);
+
+}
@@ -0,0 +1,9 @@
+package com.cooksys.groupfinal.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface CompanyEventService {
+
+	SseEmitter subscribe(Long companyId);
+
+}
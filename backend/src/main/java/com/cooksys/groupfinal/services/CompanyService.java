@@ -1,20 +1,44 @@
 package com.cooksys.groupfinal.services;
 
+import java.util.List;
 import java.util.Set;
 
-import com.cooksys.groupfinal.dtos.AnnouncementDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.cooksys.groupfinal.dtos.AnnouncementPageDto;
+import com.cooksys.groupfinal.dtos.BasicUserDto;
 import com.cooksys.groupfinal.dtos.FullUserDto;
 import com.cooksys.groupfinal.dtos.ProjectDto;
+import com.cooksys.groupfinal.dtos.ProjectPageDto;
 import com.cooksys.groupfinal.dtos.TeamDto;
 
 public interface CompanyService {
 
+	/**
+	 * Returns a weak entity tag covering everything the company's list
+	 * endpoints return, or null if the company has no revision yet.
+	 */
+	String getRevisionTag(Long companyId);
+
 	Set<FullUserDto> getAllUsers(Long id);
 
-	Set<AnnouncementDto> getAllAnnouncements(Long id);
+	AnnouncementPageDto getAnnouncementFeed(Long id, String before, int limit);
 
 	Set<TeamDto> getAllTeams(Long id);
 
-	Set<ProjectDto> getAllProjects(Long companyId, Long teamId);
+	List<ProjectDto> getAllProjects(Long companyId, Long teamId);
+
+	/**
+	 * Lists the company's projects matching the optional filters. The sort is
+	 * id or name, optionally followed by ",asc" or ",desc", and after is the
+	 * nextCursor of the previous page.
+	 */
+	ProjectPageDto getProjects(Long companyId, Long teamId, Boolean active, String name, String sort, String after,
+			int limit);
+
+	Page<BasicUserDto> getEmployeesPage(Long companyId, Pageable pageable);
+
+	Page<TeamDto> getTeamsPage(Long companyId, Pageable pageable);
 
 }
@@ -0,0 +1,17 @@
+package com.cooksys.groupfinal.services;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import com.cooksys.groupfinal.dtos.SnapshotImportResultDto;
+import com.cooksys.groupfinal.dtos.SnapshotRecordDto;
+
+public interface CompanySnapshotService {
+
+	void authorizeExport(Long companyId, String authorization);
+
+	void exportCompany(Long companyId, Consumer<SnapshotRecordDto> records);
+
+	SnapshotImportResultDto importCompany(InputStream input, String usernameSuffix, String authorization);
+
+}
@@ -0,0 +1,15 @@
+package com.cooksys.groupfinal.services;
+
+import com.cooksys.groupfinal.dtos.CompanyStatsDto;
+
+public interface CompanyStatsService {
+
+	CompanyStatsDto getStats(Long companyId);
+
+	/**
+	 * Recounts the company's stats from the source tables, creating them if
+	 * they are missing, and returns whether the stored counters had drifted.
+	 */
+	boolean reconcile(Long companyId);
+
+}
@@ -0,0 +1,13 @@
+package com.cooksys.groupfinal.services;
+
+import com.cooksys.groupfinal.dtos.DashboardDto;
+
+public interface DashboardService {
+
+	/**
+	 * Returns the first page of the announcement feed, a summary of every team
+	 * and the company's user counts, read in parallel.
+	 */
+	DashboardDto getDashboard(Long companyId, int announcementLimit);
+
+}
@@ -1,14 +1,26 @@
 package com.cooksys.groupfinal.services;
 
+import com.cooksys.groupfinal.dtos.ProjectBatchRequestDto;
+import com.cooksys.groupfinal.dtos.ProjectBatchResultDto;
 import com.cooksys.groupfinal.dtos.ProjectDto;
 import com.cooksys.groupfinal.dtos.ProjectRequestDto;
 
 public interface ProjectService {
 
-	ProjectDto updateProject(Long id, ProjectRequestDto project);
+	/**
+	 * Applies the update if the project is still at the expected version, or
+	 * unconditionally when none is given.
+	 */
+	ProjectDto updateProject(Long id, ProjectRequestDto project, Long expectedVersion);
 
 	ProjectDto createProject(ProjectRequestDto project);
 
 	void deleteProject(Long id);
 
+	/**
+	 * Applies every operation in one transaction, or none of them when any is
+	 * rejected, and reports the outcome of each in request order.
+	 */
+	ProjectBatchResultDto applyBatch(ProjectBatchRequestDto batch);
+
 }
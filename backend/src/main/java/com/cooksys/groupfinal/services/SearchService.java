@@ -0,0 +1,14 @@
+package com.cooksys.groupfinal.services;
+
+import com.cooksys.groupfinal.dtos.SearchPageDto;
+
+public interface SearchService {
+
+	/**
+	 * Ranks the company's announcements, projects and teams against the query,
+	 * optionally limited to one of those types. The index follows the change
+	 * log, so a write shows up in results shortly after it commits.
+	 */
+	SearchPageDto search(Long companyId, String query, String type, int offset, int limit);
+
+}
@@ -0,0 +1,15 @@
+package com.cooksys.groupfinal.services;
+
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.SessionDto;
+import com.cooksys.groupfinal.entities.User;
+
+public interface SessionService {
+
+	SessionDto openSession(User user);
+
+	SessionDto resolve(String authorization, CredentialsDto credentials);
+
+	void revokeUser(Long userId);
+
+}
@@ -1,13 +1,20 @@
 package com.cooksys.groupfinal.services;
 
 import com.cooksys.groupfinal.dtos.TeamDto;
+import com.cooksys.groupfinal.dtos.TeamMembersRequestDto;
 import com.cooksys.groupfinal.dtos.TeamRequestDto;
 
 public interface TeamService {
 
 	TeamDto createTeam(Long id, TeamRequestDto request);
 
-	TeamDto updateTeam(Long companyId, Long teamId, TeamRequestDto request);
+	/**
+	 * Applies the update if the team is still at the expected version, or
+	 * unconditionally when none is given.
+	 */
+	TeamDto updateTeam(Long companyId, Long teamId, TeamRequestDto request, Long expectedVersion);
+
+	TeamDto updateMembers(Long companyId, Long teamId, TeamMembersRequestDto request, Long expectedVersion);
 
 	void deleteTeam(Long companyId, Long teamId);
 
@@ -0,0 +1,12 @@
+package com.cooksys.groupfinal.services;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import com.cooksys.groupfinal.dtos.UserImportResultDto;
+
+public interface UserImportService {
+
+	void importUsers(Long companyId, String contentType, InputStream input, Consumer<UserImportResultDto> results);
+
+}
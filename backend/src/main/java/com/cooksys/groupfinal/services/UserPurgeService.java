@@ -0,0 +1,20 @@
+package com.cooksys.groupfinal.services;
+
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.UserPurgeDto;
+
+public interface UserPurgeService {
+
+	/**
+	 * Starts permanently deleting every user deactivated more than the given
+	 * number of days ago, in the background and a small batch at a time. Only
+	 * one purge runs at once.
+	 */
+	UserPurgeDto startPurge(int inactiveDays, CredentialsDto credentials, String authorization);
+
+	/**
+	 * The progress of the running purge, or the outcome of the last one.
+	 */
+	UserPurgeDto getPurge(String authorization);
+
+}
@@ -2,21 +2,28 @@ package com.cooksys.groupfinal.services;
 
 import com.cooksys.groupfinal.dtos.CredentialsDto;
 import com.cooksys.groupfinal.dtos.FullUserDto;
+import com.cooksys.groupfinal.dtos.SessionUserDto;
 import com.cooksys.groupfinal.dtos.UserRequestDto;
 import com.cooksys.groupfinal.dtos.UserUpdateRequestDto;
 
 public interface UserService {
 
-	FullUserDto login(CredentialsDto credentialsDto);
+	SessionUserDto login(CredentialsDto credentialsDto);
+
+	FullUserDto loginFull(CredentialsDto credentialsDto);
 
 	FullUserDto addUser(Long companyId, UserRequestDto request);
 
-	FullUserDto updateUser(Long id, UserUpdateRequestDto request);
+	/**
+	 * Applies the update if the user is still at the expected version, or
+	 * unconditionally when none is given.
+	 */
+	FullUserDto updateUser(Long id, UserUpdateRequestDto request, Long expectedVersion);
 
 	void deleteUser(Long id);
 	
 	void deleteUserPermanent(Long id);
 
-	FullUserDto reinstateUser(Long userId, CredentialsDto request);
+	FullUserDto reinstateUser(Long userId, CredentialsDto request, String authorization);
 
 }
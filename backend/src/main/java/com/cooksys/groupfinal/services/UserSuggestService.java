@@ -0,0 +1,16 @@
+package com.cooksys.groupfinal.services;
+
+import java.util.List;
+
+import com.cooksys.groupfinal.dtos.BasicUserDto;
+
+public interface UserSuggestService {
+
+	/**
+	 * Returns active employees whose first name, last name, full name, email
+	 * or username starts with the prefix, ignoring case. Served from memory; a
+	 * committed change shows up shortly after.
+	 */
+	List<BasicUserDto> suggest(Long companyId, String prefix, int limit);
+
+}
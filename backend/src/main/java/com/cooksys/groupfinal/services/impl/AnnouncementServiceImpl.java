@@ -1,24 +1,36 @@
 package com.cooksys.groupfinal.services.impl;
 
-import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import org.hibernate.Hibernate;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.cooksys.groupfinal.config.RetryOnConflict;
 import com.cooksys.groupfinal.dtos.AnnouncementDto;
 import com.cooksys.groupfinal.dtos.AnnouncementRequestDto;
 import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.SessionDto;
 import com.cooksys.groupfinal.entities.Announcement;
 import com.cooksys.groupfinal.entities.Company;
 import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
 import com.cooksys.groupfinal.exceptions.BadRequestException;
 import com.cooksys.groupfinal.exceptions.NotAuthorizedException;
 import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.exceptions.PreconditionFailedException;
 import com.cooksys.groupfinal.mappers.AnnouncementMapper;
 import com.cooksys.groupfinal.repositories.AnnouncementRepository;
 import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.CompanyStatsRepository;
 import com.cooksys.groupfinal.repositories.UserRepository;
 import com.cooksys.groupfinal.services.AnnouncementService;
+import com.cooksys.groupfinal.services.SessionService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -28,21 +40,25 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 	private final AnnouncementRepository announcementRepository;
 	private final UserRepository userRepository;
 	private final CompanyRepository companyRepository;
+	private final CompanyStatsRepository companyStatsRepository;
+	private final SessionService sessionService;
+	private final ApplicationEventPublisher eventPublisher;
 
 	private final AnnouncementMapper announcementMapper;
 
 	@Override
-	public AnnouncementDto createAnnouncement(Long companyId, AnnouncementRequestDto request) {
-		validateAnnouncementRequest(request);
-		Optional<Company> optionalCompany = companyRepository.findById(companyId);
-		if (optionalCompany.isEmpty()) {
+	@RetryOnConflict
+	@Transactional
+	public AnnouncementDto createAnnouncement(Long companyId, AnnouncementRequestDto request, String authorization) {
+		validateAnnouncementRequest(request, authorization);
+		SessionDto requester = sessionService.resolve(authorization, request.getCredentials());
+		if (!requester.getCompanyIds().contains(companyId) && !companyRepository.existsById(companyId)) {
 			throw new NotFoundException("No company found with id: " + companyId);
 		}
 
-		User author = getUserFromCredentials(request.getCredentials());
-		Company company = optionalCompany.get();
-
-		validateAdminForCompany(author, company);
+		Company company = companyRepository.getReferenceById(companyId);
+		validateAdminForCompany(requester, company);
+		User author = userRepository.getReferenceById(requester.getUserId());
 
 		Announcement announcement = new Announcement();
 		announcement.setTitle(request.getTitle());
@@ -50,90 +66,82 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 		announcement.setAuthor(author);
 		announcement.setCompany(company);
 
-		addAnnouncementToRelations(announcement, company, author);
+		mirror(company, company::getAnnouncements, announcements -> announcements.add(announcement));
+		mirror(author, author::getAnnouncements, announcements -> announcements.add(announcement));
+		companyStatsRepository.adjustAnnouncements(companyId, 1);
 
-		return announcementMapper.entityToDto(announcementRepository.saveAndFlush(announcement));
+		Announcement saved = announcementRepository.save(announcement);
+		publish(saved, CompanyChangeEvent.CREATED);
+		return announcementMapper.entityToDto(saved);
 	}
 
 	@Override
-	public AnnouncementDto updateAnnouncement(Long announcementId, AnnouncementRequestDto request) {
-		validateAnnouncementRequest(request);
+	@RetryOnConflict
+	@Transactional
+	public AnnouncementDto updateAnnouncement(Long announcementId, AnnouncementRequestDto request,
+			String authorization, Long expectedVersion) {
+		validateAnnouncementRequest(request, authorization);
 		Announcement announcement = findAnnouncement(announcementId);
-		User author = getUserFromCredentials(request.getCredentials());
-		validateAdminForCompany(author, announcement.getCompany());
+		SessionDto requester = sessionService.resolve(authorization, request.getCredentials());
+		validateAdminForCompany(requester, announcement.getCompany());
+		if (expectedVersion != null && expectedVersion != announcement.getVersion()) {
+			throw new PreconditionFailedException("The announcement has changed since version " + expectedVersion
+					+ "; it is now at " + announcement.getVersion() + ".");
+		}
 
 		User previousAuthor = announcement.getAuthor();
+		User author = userRepository.getReferenceById(requester.getUserId());
+		Company company = announcement.getCompany();
+
+		// Taken out before the edit and put back after, since the sets hash by title and message
+		mirror(company, company::getAnnouncements, announcements -> announcements.remove(announcement));
+		if (previousAuthor != null) {
+			mirror(previousAuthor, previousAuthor::getAnnouncements, announcements -> announcements.remove(announcement));
+		}
 		announcement.setTitle(request.getTitle());
 		announcement.setMessage(request.getMessage());
 		announcement.setAuthor(author);
+		mirror(company, company::getAnnouncements, announcements -> announcements.add(announcement));
+		mirror(author, author::getAnnouncements, announcements -> announcements.add(announcement));
 
-		if (previousAuthor != null && previousAuthor.getAnnouncements() != null
-				&& previousAuthor.getId() != author.getId()) {
-			previousAuthor.getAnnouncements().remove(announcement);
-			userRepository.saveAndFlush(previousAuthor);
-		}
-
-		if (author.getAnnouncements() == null) {
-			author.setAnnouncements(new HashSet<>());
-		}
-		if (!author.getAnnouncements().contains(announcement)) {
-			author.getAnnouncements().add(announcement);
-			userRepository.saveAndFlush(author);
-		}
-
-		return announcementMapper.entityToDto(announcementRepository.saveAndFlush(announcement));
+		// Flushed here so the version returned is the one this update commits
+		Announcement saved = announcementRepository.saveAndFlush(announcement);
+		publish(saved, CompanyChangeEvent.UPDATED);
+		return announcementMapper.entityToDto(saved);
 	}
 
 	@Override
-	public void deleteAnnouncement(Long announcementId, CredentialsDto credentials) {
-		if (credentials == null) {
+	@RetryOnConflict
+	@Transactional
+	public void deleteAnnouncement(Long announcementId, CredentialsDto credentials, String authorization) {
+		if (credentials == null && authorization == null) {
 			throw new BadRequestException("Credentials are required to delete an announcement.");
 		}
 
 		Announcement announcement = findAnnouncement(announcementId);
-		User requester = getUserFromCredentials(credentials);
+		SessionDto requester = sessionService.resolve(authorization, credentials);
 		validateAdminForCompany(requester, announcement.getCompany());
 
 		Company company = announcement.getCompany();
-		if (company.getAnnouncements() != null) {
-			company.getAnnouncements().remove(announcement);
-			companyRepository.saveAndFlush(company);
-		}
-
+		companyStatsRepository.adjustAnnouncements(company.getId(), -1);
+		mirror(company, company::getAnnouncements, announcements -> announcements.remove(announcement));
 		User author = announcement.getAuthor();
-		if (author != null && author.getAnnouncements() != null) {
-			author.getAnnouncements().remove(announcement);
-			userRepository.saveAndFlush(author);
+		if (author != null) {
+			mirror(author, author::getAnnouncements, announcements -> announcements.remove(announcement));
 		}
 
 		announcementRepository.delete(announcement);
+		publish(announcement, CompanyChangeEvent.DELETED);
 	}
 
-	private User getUserFromCredentials(CredentialsDto credentialsDto) {
-		User user;
-
-		if (credentialsDto.getPassword() == null || credentialsDto.getUsername() == null) {
-			throw new BadRequestException("Username and password are required");
-		}
-		String username = credentialsDto.getUsername();
-		Optional<User> optionalUser = userRepository.findByCredentialsUsernameAndActiveTrue(username);
-		if (optionalUser.isEmpty()) {
-			throw new NotFoundException("No active users found with the provided credentials.");
-		} else {
-			user = optionalUser.get();
-			if (!user.getCredentials().getPassword().equals(credentialsDto.getPassword())) {
-				throw new NotAuthorizedException("Invalid credentials for user: " + username);
-			}
-			if (!user.isAdmin() || !user.getStatus().equals("JOINED")) {
-				throw new NotAuthorizedException("Invalid authorization for user: " + username);
-			}
-		}
-		return user;
+	private void publish(Announcement announcement, String op) {
+		eventPublisher.publishEvent(new CompanyChangeEvent(announcement.getCompany().getId(),
+				CompanyChangeEvent.ANNOUNCEMENT, announcement.getId(), op, announcement::getVersion));
 	}
 
-	private void validateAnnouncementRequest(AnnouncementRequestDto request) {
+	private void validateAnnouncementRequest(AnnouncementRequestDto request, String authorization) {
 		if (request == null || request.getTitle() == null || request.getMessage() == null
-				|| request.getCredentials() == null) {
+				|| (request.getCredentials() == null && authorization == null)) {
 			throw new BadRequestException("Missing required parameters in request.");
 		}
 	}
@@ -146,29 +154,31 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 		return optionalAnnouncement.get();
 	}
 
-	private void validateAdminForCompany(User admin, Company company) {
-		if (!admin.getCompanies().contains(company)) {
-			throw new NotAuthorizedException(admin.getCredentials().getUsername()
+	private void validateAdminForCompany(SessionDto admin, Company company) {
+		if (!admin.getCompanyIds().contains(company.getId())) {
+			throw new NotAuthorizedException(admin.getUsername()
 					+ " is not authorized to modify announcements for " + company.getName());
 		}
 		if (!admin.isAdmin() || !admin.getStatus().equals("JOINED")) {
-			throw new NotAuthorizedException(
-					"Insufficient permissions for user: " + admin.getCredentials().getUsername());
+			throw new NotAuthorizedException("Insufficient permissions for user: " + admin.getUsername());
 		}
 	}
 
-	private void addAnnouncementToRelations(Announcement announcement, Company company, User author) {
-		if (company.getAnnouncements() == null) {
-			company.setAnnouncements(new HashSet<>());
+	/**
+	 * Announcement owns both associations, so writing its row is all the
+	 * database needs. An inverse collection is only kept in step when this
+	 * session already holds it loaded; otherwise it would be read in full just
+	 * to append one row, which it will see anyway once something loads it.
+	 */
+	private static void mirror(Object owner, Supplier<Set<Announcement>> announcements,
+			Consumer<Set<Announcement>> change) {
+		if (!Hibernate.isInitialized(owner)) {
+			return;
 		}
-		company.getAnnouncements().add(announcement);
-		companyRepository.saveAndFlush(company);
-
-		if (author.getAnnouncements() == null) {
-			author.setAnnouncements(new HashSet<>());
+		Set<Announcement> loaded = announcements.get();
+		if (loaded != null && Hibernate.isInitialized(loaded)) {
+			change.accept(loaded);
 		}
-		author.getAnnouncements().add(announcement);
-		userRepository.saveAndFlush(author);
 	}
 
 }
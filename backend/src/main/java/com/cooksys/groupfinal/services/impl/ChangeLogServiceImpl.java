@@ -0,0 +1,235 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.dtos.ChangeSetDto;
+import com.cooksys.groupfinal.dtos.DeletedRecordDto;
+import com.cooksys.groupfinal.entities.Announcement;
+import com.cooksys.groupfinal.entities.ChangeLogEntry;
+import com.cooksys.groupfinal.entities.CompanyRevision;
+import com.cooksys.groupfinal.entities.CompanyRevisionListener;
+import com.cooksys.groupfinal.entities.Project;
+import com.cooksys.groupfinal.entities.Team;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.mappers.AnnouncementMapper;
+import com.cooksys.groupfinal.mappers.FullUserMapper;
+import com.cooksys.groupfinal.mappers.ProjectMapper;
+import com.cooksys.groupfinal.mappers.TeamMapper;
+import com.cooksys.groupfinal.repositories.AnnouncementRepository;
+import com.cooksys.groupfinal.repositories.ChangeLogRepository;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.CompanyRevisionRepository;
+import com.cooksys.groupfinal.repositories.ProjectRepository;
+import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.ChangeLogService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the change log behind the delta sync endpoint. Changes published
+ * during a transaction are written just before it commits, tagged with the
+ * company revision it commits under, which the revision listener bumps on
+ * request. The revision row stays locked until the commit, so a company's
+ * entries become visible in revision order and a reader never sees a later
+ * revision while an earlier one is still pending.
+ */
+@Slf4j
+@Service
+public class ChangeLogServiceImpl implements ChangeLogService {
+
+	private final ChangeLogRepository changeLogRepository;
+	private final CompanyRevisionRepository companyRevisionRepository;
+	private final CompanyRevisionListener companyRevisionListener;
+	private final CompanyRepository companyRepository;
+	private final UserRepository userRepository;
+	private final TeamRepository teamRepository;
+	private final ProjectRepository projectRepository;
+	private final AnnouncementRepository announcementRepository;
+	private final FullUserMapper fullUserMapper;
+	private final TeamMapper teamMapper;
+	private final ProjectMapper projectMapper;
+	private final AnnouncementMapper announcementMapper;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration retention;
+	private final int maxRecords;
+
+	public ChangeLogServiceImpl(ChangeLogRepository changeLogRepository,
+			CompanyRevisionRepository companyRevisionRepository, CompanyRevisionListener companyRevisionListener,
+			CompanyRepository companyRepository,
+			UserRepository userRepository, TeamRepository teamRepository, ProjectRepository projectRepository,
+			AnnouncementRepository announcementRepository, FullUserMapper fullUserMapper, TeamMapper teamMapper,
+			ProjectMapper projectMapper, AnnouncementMapper announcementMapper, TransactionTemplate transactionTemplate,
+			@Value("${groupfinal.changes.retention:P7D}") Duration retention,
+			@Value("${groupfinal.changes.max-records:1000}") int maxRecords) {
+		this.changeLogRepository = changeLogRepository;
+		this.companyRevisionRepository = companyRevisionRepository;
+		this.companyRevisionListener = companyRevisionListener;
+		this.companyRepository = companyRepository;
+		this.userRepository = userRepository;
+		this.teamRepository = teamRepository;
+		this.projectRepository = projectRepository;
+		this.announcementRepository = announcementRepository;
+		this.fullUserMapper = fullUserMapper;
+		this.teamMapper = teamMapper;
+		this.projectMapper = projectMapper;
+		this.announcementMapper = announcementMapper;
+		this.transactionTemplate = transactionTemplate;
+		this.retention = retention;
+		this.maxRecords = maxRecords;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public ChangeSetDto getChanges(Long companyId, Long since) {
+		Optional<CompanyRevision> stored = companyRevisionRepository.findById(companyId);
+		if (stored.isEmpty() && !companyRepository.existsById(companyId)) {
+			throw new NotFoundException("A company with the provided id does not exist.");
+		}
+		// A company that predates revision tracking has logged nothing yet
+		long current = stored.map(CompanyRevision::getRevision).orElse(0L);
+		long purged = stored.map(CompanyRevision::getPurgedRevision).orElse(0L);
+		if (since == null || since < purged || since > current) {
+			return resync(current);
+		}
+
+		Map<String, Set<Long>> changedIds = new HashMap<>();
+		changeLogRepository.findChanges(companyId, since, current).forEach(entry -> changedIds
+				.computeIfAbsent(entry.getType(), type -> new LinkedHashSet<>()).add(entry.getEntityId()));
+		if (changedIds.values().stream().mapToInt(Set::size).sum() > maxRecords) {
+			// Past this point refetching the lists is cheaper than replaying the log
+			return resync(current);
+		}
+
+		// Whatever no longer exists within the company is reported as deleted
+		List<DeletedRecordDto> deleted = new ArrayList<>();
+		Set<User> users = findCurrent(CompanyChangeEvent.USER, changedIds,
+				ids -> userRepository.findWithMembershipsByCompaniesIdAndIdIn(companyId, ids), User::getId, deleted);
+		Set<Team> teams = findCurrent(CompanyChangeEvent.TEAM, changedIds,
+				ids -> teamRepository.findWithTeammatesByCompanyIdAndIdIn(companyId, ids), Team::getId, deleted);
+		Set<Project> projects = findCurrent(CompanyChangeEvent.PROJECT, changedIds,
+				ids -> projectRepository.findWithTeamByTeamCompanyIdAndIdIn(companyId, ids), Project::getId, deleted);
+		Set<Announcement> announcements = findCurrent(CompanyChangeEvent.ANNOUNCEMENT, changedIds,
+				ids -> announcementRepository.findWithAuthorByCompanyIdAndIdIn(companyId, ids), Announcement::getId,
+				deleted);
+		return new ChangeSetDto(current, false, fullUserMapper.entitiesToFullUserDtos(users),
+				teamMapper.entitiesToDtos(teams), projectMapper.entitiesToDtos(projects),
+				announcementMapper.entitiesToDtos(announcements), deleted);
+	}
+
+	/**
+	 * Buffers the change for the surrounding transaction. Writes made outside
+	 * a transaction are not logged; every service write path runs in one.
+	 */
+	@EventListener
+	public void onChange(CompanyChangeEvent event) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		PendingChanges pending = TransactionSynchronizationManager.getSynchronizations().stream()
+				.filter(PendingChanges.class::isInstance).map(PendingChanges.class::cast).findFirst().orElse(null);
+		if (pending == null) {
+			pending = new PendingChanges();
+			TransactionSynchronizationManager.registerSynchronization(pending);
+		}
+		pending.add(event);
+	}
+
+	/**
+	 * Drops entries older than the retention window and records how far each
+	 * company's log was cut, so older cursors are answered with a resync.
+	 */
+	@Scheduled(fixedDelayString = "${groupfinal.changes.purge-interval:PT1H}")
+	public void purge() {
+		Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+		int purged = transactionTemplate.execute(status -> {
+			changeLogRepository.advancePurgedRevisions(cutoff);
+			return changeLogRepository.deletePurged();
+		});
+		log.info("Purged {} change log entries older than {}", purged, cutoff);
+	}
+
+	private static ChangeSetDto resync(long cursor) {
+		return new ChangeSetDto(cursor, true, Set.of(), Set.of(), Set.of(), Set.of(), List.of());
+	}
+
+	private static <T> Set<T> findCurrent(String type, Map<String, Set<Long>> changedIds,
+			Function<Set<Long>, Set<T>> finder, Function<T, Long> idOf, List<DeletedRecordDto> deleted) {
+		Set<Long> ids = changedIds.get(type);
+		if (ids == null) {
+			return Set.of();
+		}
+		Set<T> found = finder.apply(ids);
+		Set<Long> foundIds = found.stream().map(idOf).collect(Collectors.toSet());
+		ids.stream().filter(id -> !foundIds.contains(id)).forEach(id -> deleted.add(new DeletedRecordDto(type, id)));
+		return found;
+	}
+
+	private class PendingChanges implements TransactionSynchronization {
+
+		// Sorted so concurrent transactions lock revision rows in the same order
+		private final Map<Long, Map<String, ChangeLogEntry>> byCompany = new TreeMap<>();
+
+		private void add(CompanyChangeEvent event) {
+			Map<String, ChangeLogEntry> changes = byCompany.computeIfAbsent(event.getCompanyId(),
+					companyId -> new LinkedHashMap<>());
+			ChangeLogEntry entry = changes.computeIfAbsent(event.getType() + ":" + event.getId(), key -> {
+				ChangeLogEntry created = new ChangeLogEntry();
+				created.setCompanyId(event.getCompanyId());
+				created.setType(event.getType());
+				created.setEntityId(event.getId());
+				return created;
+			});
+			// A record created in this transaction is still new to readers after later updates
+			boolean createdHere = CompanyChangeEvent.CREATED.equals(entry.getOp());
+			if (!(createdHere && CompanyChangeEvent.UPDATED.equals(event.getOp()))) {
+				entry.setOp(event.getOp());
+			}
+		}
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			// Logged changes always move the revision, even when no entity write was seen
+			byCompany.keySet().forEach(companyRevisionListener::touch);
+			companyRevisionListener.applyPending();
+
+			Timestamp now = Timestamp.from(Instant.now());
+			List<ChangeLogEntry> entries = new ArrayList<>();
+			byCompany.forEach((companyId, changes) -> {
+				long revision = companyRevisionRepository.findRevision(companyId).orElseThrow();
+				changes.values().forEach(entry -> {
+					entry.setRevision(revision);
+					entry.setCreatedAt(now);
+					entries.add(entry);
+				});
+			});
+			changeLogRepository.saveAll(entries);
+		}
+
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.util.Collection;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evicts cached membership collections, and the few entities, whose rows
+ * were written with set-based SQL that Hibernate cannot attribute to them. The
+ * entries are dropped immediately and again once the transaction completes,
+ * so a reader that loaded the old rows in the meantime cannot leave them
+ * cached.
+ */
+@Component
+@RequiredArgsConstructor
+class CollectionCacheEvictor {
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	void evict(Class<?> ownerType, String property, Collection<Long> ownerIds) {
+		String role = ownerType.getName() + "." + property;
+		Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+		evictNowAndAfterCompletion(() -> ownerIds.forEach(ownerId -> cache.evictCollectionData(role, ownerId)));
+	}
+
+	/**
+	 * Evicts entities whose rows were changed with SQL that names no entity
+	 * table, such as a version bump.
+	 */
+	void evictEntities(Class<?> type, Collection<Long> ids) {
+		Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+		evictNowAndAfterCompletion(() -> ids.forEach(id -> cache.evictEntityData(type, id)));
+	}
+
+	private static void evictNowAndAfterCompletion(Runnable eviction) {
+		eviction.run();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					eviction.run();
+				}
+			});
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.cooksys.groupfinal.dtos.CompanyEventDto;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.services.CompanyEventService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fans committed changes out to the company's SSE subscribers. Each
+ * subscriber has a bounded queue drained by a small shared pool, so a slow
+ * connection never holds up the committing thread or other subscribers. When
+ * a queue overflows its pending events are dropped and the subscriber is sent
+ * a resync marker telling it to refetch. Idle connections hold no thread and
+ * only see a heartbeat comment now and then.
+ */
+@Service
+public class CompanyEventServiceImpl implements CompanyEventService {
+
+	static final String CHANGE = "change";
+	static final String RESYNC = "resync";
+
+	private final CompanyRepository companyRepository;
+	private final int bufferSize;
+	private final long timeout;
+	private final ExecutorService executor;
+	private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final AtomicInteger subscriberCount;
+	private final Counter dropped;
+
+	public CompanyEventServiceImpl(CompanyRepository companyRepository, MeterRegistry meterRegistry,
+			@Value("${groupfinal.events.buffer-size:256}") int bufferSize,
+			@Value("${groupfinal.events.timeout:PT30M}") Duration timeout,
+			@Value("${groupfinal.events.senders:4}") int senders) {
+		this.companyRepository = companyRepository;
+		this.bufferSize = bufferSize;
+		this.timeout = timeout.toMillis();
+		this.executor = Executors.newFixedThreadPool(senders, new CustomizableThreadFactory("company-events-"));
+		this.subscriberCount = meterRegistry.gauge("groupfinal.events.subscribers", new AtomicInteger());
+		this.dropped = meterRegistry.counter("groupfinal.events.dropped");
+	}
+
+	@Override
+	public SseEmitter subscribe(Long companyId) {
+		if (!companyRepository.existsById(companyId)) {
+			throw new NotFoundException("A company with the provided id does not exist.");
+		}
+
+		SseEmitter emitter = new SseEmitter(timeout);
+		Subscriber subscriber = new Subscriber(companyId, emitter);
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> remove(subscriber));
+		emitter.onError(error -> remove(subscriber));
+		subscribers.computeIfAbsent(companyId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+		subscriberCount.incrementAndGet();
+
+		// A new connection may have missed changes while it was away
+		subscriber.resync();
+		return emitter;
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+	public void onChange(CompanyChangeEvent event) {
+		Set<Subscriber> companySubscribers = subscribers.get(event.getCompanyId());
+		if (companySubscribers == null || companySubscribers.isEmpty()) {
+			return;
+		}
+		CompanyEventDto change = new CompanyEventDto(event.getType(), event.getId(), event.getOp(),
+				event.getVersion().getAsLong());
+		companySubscribers.forEach(subscriber -> subscriber
+				.offer(SseEmitter.event().name(CHANGE).data(change, MediaType.APPLICATION_JSON)));
+	}
+
+	@Scheduled(fixedDelayString = "${groupfinal.events.heartbeat-interval:PT15S}")
+	public void heartbeat() {
+		subscribers.values().forEach(companySubscribers -> companySubscribers.stream()
+				.filter(Subscriber::isIdle).forEach(subscriber -> subscriber.offer(SseEmitter.event().comment(""))));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+		subscribers.values().forEach(companySubscribers -> companySubscribers.forEach(
+				subscriber -> subscriber.emitter.complete()));
+	}
+
+	private void remove(Subscriber subscriber) {
+		Set<Subscriber> companySubscribers = subscribers.get(subscriber.companyId);
+		if (companySubscribers != null && companySubscribers.remove(subscriber)) {
+			subscriberCount.decrementAndGet();
+		}
+	}
+
+	private class Subscriber {
+
+		private final Long companyId;
+		private final SseEmitter emitter;
+		private final BlockingQueue<SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+		private final AtomicBoolean resyncPending = new AtomicBoolean();
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		private Subscriber(Long companyId, SseEmitter emitter) {
+			this.companyId = companyId;
+			this.emitter = emitter;
+		}
+
+		private boolean isIdle() {
+			return queue.isEmpty() && !resyncPending.get();
+		}
+
+		private void offer(SseEventBuilder event) {
+			if (!queue.offer(event)) {
+				// Everything queued is stale once the client refetches, so drop it all
+				queue.clear();
+				resyncPending.set(true);
+				dropped.increment();
+			}
+			schedule();
+		}
+
+		private void resync() {
+			resyncPending.set(true);
+			schedule();
+		}
+
+		private void schedule() {
+			if (draining.compareAndSet(false, true)) {
+				executor.execute(this::drain);
+			}
+		}
+
+		private void drain() {
+			try {
+				while (true) {
+					if (resyncPending.getAndSet(false)) {
+						emitter.send(SseEmitter.event().name(RESYNC).data(""));
+					}
+					SseEventBuilder event = queue.poll();
+					if (event == null) {
+						break;
+					}
+					emitter.send(event);
+				}
+			} catch (IOException | IllegalStateException e) {
+				remove(this);
+				emitter.completeWithError(e);
+				return;
+			} finally {
+				draining.set(false);
+			}
+
+			// Something may have been offered after the last poll but before the flag was cleared
+			if (!isIdle()) {
+				schedule();
+			}
+		}
+
+	}
+
+}
@@ -1,54 +1,67 @@
 package com.cooksys.groupfinal.services.impl;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.cooksys.groupfinal.dtos.AnnouncementDto;
+import com.cooksys.groupfinal.dtos.AnnouncementPageDto;
+import com.cooksys.groupfinal.dtos.BasicUserDto;
 import com.cooksys.groupfinal.dtos.FullUserDto;
 import com.cooksys.groupfinal.dtos.ProjectDto;
+import com.cooksys.groupfinal.dtos.ProjectPageDto;
 import com.cooksys.groupfinal.dtos.TeamDto;
 import com.cooksys.groupfinal.entities.Announcement;
-import com.cooksys.groupfinal.entities.Company;
 import com.cooksys.groupfinal.entities.Project;
 import com.cooksys.groupfinal.entities.Team;
-import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.exceptions.BadRequestException;
 import com.cooksys.groupfinal.exceptions.NotFoundException;
 import com.cooksys.groupfinal.mappers.AnnouncementMapper;
+import com.cooksys.groupfinal.mappers.BasicUserMapper;
 import com.cooksys.groupfinal.mappers.ProjectMapper;
 import com.cooksys.groupfinal.mappers.TeamMapper;
 import com.cooksys.groupfinal.mappers.FullUserMapper;
+import com.cooksys.groupfinal.repositories.AnnouncementRepository;
 import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.CompanyRevisionRepository;
+import com.cooksys.groupfinal.repositories.ProjectFilter;
+import com.cooksys.groupfinal.repositories.ProjectRepository;
 import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.repositories.UserRepository;
 import com.cooksys.groupfinal.services.CompanyService;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class CompanyServiceImpl implements CompanyService {
+
+	private static final int MAX_FEED_LIMIT = 200;
+	private static final int MAX_PROJECT_LIMIT = 200;
 	
 	private final CompanyRepository companyRepository;
+	private final CompanyRevisionRepository companyRevisionRepository;
+	private final AnnouncementRepository announcementRepository;
 	private final TeamRepository teamRepository;
+	private final ProjectRepository projectRepository;
+	private final UserRepository userRepository;
 	private final FullUserMapper fullUserMapper;
+	private final BasicUserMapper basicUserMapper;
 	private final AnnouncementMapper announcementMapper;
 	private final TeamMapper teamMapper;
 	private final ProjectMapper projectMapper;
 	
-	private Company findCompany(Long id) {
-        Optional<Company> company = companyRepository.findById(id);
-        if (company.isEmpty()) {
-            throw new NotFoundException("A company with the provided id does not exist.");
-        }
-        return company.get();
-    }
-	
 	private Team findTeam(Long id) {
         Optional<Team> team = teamRepository.findById(id);
         if (team.isEmpty()) {
@@ -57,41 +70,135 @@ public class CompanyServiceImpl implements CompanyService {
         return team.get();
     }
 	
+	private void validateCompany(Long id) {
+		if (!companyRepository.existsById(id)) {
+			throw new NotFoundException("A company with the provided id does not exist.");
+		}
+	}
+	
+	@Override
+	public String getRevisionTag(Long companyId) {
+		return companyRevisionRepository.findRevision(companyId).map(revision -> "W/\"" + revision + "\"").orElse(null);
+	}
+
 	@Override
 	public Set<FullUserDto> getAllUsers(Long id) {
-		Company company = findCompany(id);
-		Set<User> companyUsers = new HashSet<>();
-		company.getEmployees().forEach(companyUsers::add);
+		validateCompany(id);
 		// Return both active and inactive so the UI can show deactivated users for reinstatement
-		return fullUserMapper.entitiesToFullUserDtos(companyUsers);
+		return fullUserMapper.entitiesToFullUserDtos(userRepository.findWithMembershipsByCompaniesId(id));
 	}
 
 	@Override
-	public Set<AnnouncementDto> getAllAnnouncements(Long id) {
-		Company company = findCompany(id);
-		List<Announcement> sortedList = new ArrayList<Announcement>(company.getAnnouncements());
-		sortedList.sort(Comparator.comparing(Announcement::getDate).reversed());
-		Set<Announcement> sortedSet = new HashSet<Announcement>(sortedList);
-		return announcementMapper.entitiesToDtos(sortedSet);
+	public AnnouncementPageDto getAnnouncementFeed(Long id, String before, int limit) {
+		if (limit < 1 || limit > MAX_FEED_LIMIT) {
+			throw new BadRequestException("The limit must be between 1 and " + MAX_FEED_LIMIT + ".");
+		}
+		validateCompany(id);
+
+		// Fetch one extra row to find out whether there is an older page without a count query
+		Pageable window = PageRequest.of(0, limit + 1);
+		List<Announcement> announcements;
+		if (before == null) {
+			announcements = announcementRepository.findFeed(id, window);
+		} else {
+			String[] cursor = before.split(",");
+			if (cursor.length != 2) {
+				throw new BadRequestException("The cursor must be in the form <date>,<id>.");
+			}
+			try {
+				announcements = announcementRepository.findFeedBefore(id, Timestamp.from(Instant.parse(cursor[0])),
+						Long.valueOf(cursor[1]), window);
+			} catch (DateTimeParseException | NumberFormatException e) {
+				throw new BadRequestException("The cursor must be in the form <date>,<id>.");
+			}
+		}
+
+		String nextCursor = null;
+		if (announcements.size() > limit) {
+			announcements = announcements.subList(0, limit);
+			Announcement last = announcements.get(limit - 1);
+			nextCursor = last.getDate().toInstant() + "," + last.getId();
+		}
+		return new AnnouncementPageDto(announcementMapper.entitiesToDtos(announcements), nextCursor);
 	}
 
 	@Override
 	public Set<TeamDto> getAllTeams(Long id) {
-		Company company = findCompany(id);
-		return teamMapper.entitiesToDtos(company.getTeams());
+		validateCompany(id);
+		return teamMapper.entitiesToDtos(teamRepository.findWithTeammatesByCompanyId(id));
 	}
 
 	@Override
-	public Set<ProjectDto> getAllProjects(Long companyId, Long teamId) {
-		Company company = findCompany(companyId);
+	public List<ProjectDto> getAllProjects(Long companyId, Long teamId) {
+		validateCompany(companyId);
 		Team team = findTeam(teamId);
-		if (!company.getTeams().contains(team)) {
+		if (!team.getCompany().getId().equals(companyId)) {
 			throw new NotFoundException("A team with id " + teamId + " does not exist at company with id " + companyId + ".");
 		}
-		Set<Project> filteredProjects = new HashSet<>();
-		team.getProjects().forEach(filteredProjects::add);
-		filteredProjects.removeIf(project -> !project.isActive());
-		return projectMapper.entitiesToDtos(filteredProjects);
+		return projectMapper.entitiesToDtos(projectRepository.findProjects(
+				new ProjectFilter(companyId, teamId, true, null), Sort.by("name", "id"), List.of(), 0));
+	}
+
+	@Override
+	public ProjectPageDto getProjects(Long companyId, Long teamId, Boolean active, String name, String sort,
+			String after, int limit) {
+		if (limit < 1 || limit > MAX_PROJECT_LIMIT) {
+			throw new BadRequestException("The limit must be between 1 and " + MAX_PROJECT_LIMIT + ".");
+		}
+		String[] sortParts = sort.split(",");
+		Sort.Direction direction;
+		try {
+			direction = sortParts.length == 2 ? Sort.Direction.fromString(sortParts[1]) : Sort.Direction.ASC;
+		} catch (IllegalArgumentException e) {
+			direction = null;
+		}
+		boolean byName = sortParts[0].equals("name");
+		if (sortParts.length > 2 || direction == null || !byName && !sortParts[0].equals("id")) {
+			throw new BadRequestException("The sort must be id or name, optionally followed by ,asc or ,desc.");
+		}
+		validateCompany(companyId);
+
+		// The id breaks ties between equal names, so the sort can be resumed from a single row
+		Sort order = byName ? Sort.by(direction, "name", "id") : Sort.by(direction, "id");
+		List<Object> position = List.of();
+		if (after != null) {
+			int comma = after.lastIndexOf(',');
+			if (byName != comma >= 0) {
+				throw new BadRequestException(byName ? "The cursor must be in the form <name>,<id>."
+						: "The cursor must be in the form <id>.");
+			}
+			try {
+				Long afterId = Long.valueOf(after.substring(comma + 1));
+				position = byName ? List.of(after.substring(0, comma), afterId) : List.of(afterId);
+			} catch (NumberFormatException e) {
+				throw new BadRequestException("The cursor must end in a project id.");
+			}
+		}
+
+		// Fetch one extra row to find out whether there is another page without a count query
+		List<Project> projects = projectRepository.findProjects(new ProjectFilter(companyId, teamId, active, name),
+				order, position, limit + 1);
+		String nextCursor = null;
+		if (projects.size() > limit) {
+			projects = projects.subList(0, limit);
+			Project last = projects.get(limit - 1);
+			// An unnamed project sorts as an empty name, so that is also how its cursor spells it
+			nextCursor = byName ? Objects.toString(last.getName(), "") + "," + last.getId()
+					: String.valueOf(last.getId());
+		}
+		return new ProjectPageDto(projectMapper.entitiesToDtos(projects), nextCursor);
+	}
+
+	@Override
+	public Page<BasicUserDto> getEmployeesPage(Long companyId, Pageable pageable) {
+		validateCompany(companyId);
+		return userRepository.findByCompaniesId(companyId, pageable).map(basicUserMapper::entityToBasicUserDto);
+	}
+
+	@Override
+	public Page<TeamDto> getTeamsPage(Long companyId, Pageable pageable) {
+		validateCompany(companyId);
+		return teamRepository.findByCompanyId(companyId, pageable).map(teamMapper::entityToDto);
 	}
 
 }
@@ -0,0 +1,351 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cooksys.groupfinal.dtos.SessionDto;
+import com.cooksys.groupfinal.dtos.SnapshotAnnouncementDto;
+import com.cooksys.groupfinal.dtos.SnapshotCompanyDto;
+import com.cooksys.groupfinal.dtos.SnapshotImportResultDto;
+import com.cooksys.groupfinal.dtos.SnapshotProjectDto;
+import com.cooksys.groupfinal.dtos.SnapshotRecordDto;
+import com.cooksys.groupfinal.dtos.SnapshotTeamDto;
+import com.cooksys.groupfinal.dtos.SnapshotTeammateDto;
+import com.cooksys.groupfinal.dtos.SnapshotUserDto;
+import com.cooksys.groupfinal.entities.Announcement;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.Credentials;
+import com.cooksys.groupfinal.entities.Profile;
+import com.cooksys.groupfinal.entities.Project;
+import com.cooksys.groupfinal.entities.Team;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.exceptions.BadRequestException;
+import com.cooksys.groupfinal.exceptions.NotAuthorizedException;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.repositories.AnnouncementRepository;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.ProjectRepository;
+import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.CompanySnapshotService;
+import com.cooksys.groupfinal.services.CompanyStatsService;
+import com.cooksys.groupfinal.services.SessionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Copies a company between environments as a stream of NDJSON records.
+ * Exports read each table through a forward-only cursor into plain DTOs, so
+ * nothing is kept in the persistence context. Imports write in batches,
+ * clearing the persistence context between them, and give every record a
+ * new id. Only the old-to-new id maps for users and teams grow with the
+ * size of the company.
+ */
+@Service
+@RequiredArgsConstructor
+public class CompanySnapshotServiceImpl implements CompanySnapshotService {
+
+	private static final int BATCH_SIZE = 500;
+
+	private final CompanyRepository companyRepository;
+	private final UserRepository userRepository;
+	private final TeamRepository teamRepository;
+	private final ProjectRepository projectRepository;
+	private final AnnouncementRepository announcementRepository;
+	private final SessionService sessionService;
+	private final CompanyStatsService companyStatsService;
+	private final CollectionCacheEvictor collectionCacheEvictor;
+	private final EntityManager entityManager;
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+
+	@Override
+	public void authorizeExport(Long companyId, String authorization) {
+		SessionDto requester = resolveAdmin(authorization);
+		if (!requester.getCompanyIds().contains(companyId)) {
+			if (!companyRepository.existsById(companyId)) {
+				throw new NotFoundException("No company found with id: " + companyId);
+			}
+			throw new NotAuthorizedException(requester.getUsername() + " is not authorized to export this company.");
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportCompany(Long companyId, Consumer<SnapshotRecordDto> records) {
+		Optional<Company> optionalCompany = companyRepository.findById(companyId);
+		if (optionalCompany.isEmpty()) {
+			throw new NotFoundException("No company found with id: " + companyId);
+		}
+		Company company = optionalCompany.get();
+		records.accept(new SnapshotCompanyDto(company.getId(), company.getName(), company.getDescription()));
+		entityManager.clear();
+
+		stream(userRepository.streamSnapshotByCompanyId(companyId), records);
+		stream(teamRepository.streamSnapshotByCompanyId(companyId), records);
+		stream(teamRepository.streamTeammateSnapshotByCompanyId(companyId), records);
+		stream(projectRepository.streamSnapshotByCompanyId(companyId), records);
+		stream(announcementRepository.streamSnapshotByCompanyId(companyId), records);
+	}
+
+	@Override
+	@Transactional
+	public SnapshotImportResultDto importCompany(InputStream input, String usernameSuffix, String authorization) {
+		resolveAdmin(authorization);
+		SnapshotImport snapshotImport = new SnapshotImport(usernameSuffix == null ? "" : usernameSuffix);
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		try {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (!line.isBlank()) {
+					snapshotImport.add(lineNumber, parse(lineNumber, line));
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return snapshotImport.finish();
+	}
+
+	private SessionDto resolveAdmin(String authorization) {
+		if (authorization == null) {
+			throw new NotAuthorizedException("An admin session is required to copy company data.");
+		}
+		SessionDto requester = sessionService.resolve(authorization, null);
+		if (!requester.isAdmin() || !requester.getStatus().equals("JOINED")) {
+			throw new NotAuthorizedException("Insufficient permissions for user: " + requester.getUsername());
+		}
+		return requester;
+	}
+
+	private <T extends SnapshotRecordDto> void stream(Stream<T> rows, Consumer<SnapshotRecordDto> records) {
+		try (rows) {
+			rows.forEach(records);
+		}
+	}
+
+	private SnapshotRecordDto parse(int lineNumber, String line) {
+		try {
+			return objectMapper.readValue(line, SnapshotRecordDto.class);
+		} catch (JsonProcessingException e) {
+			throw new BadRequestException("Malformed snapshot record on line " + lineNumber + ": " + e.getOriginalMessage());
+		}
+	}
+
+	/**
+	 * State for one import. Entities are saved as records arrive and flushed
+	 * in batches. Join table rows are buffered and written with JDBC batch
+	 * inserts after the entities they point at have been flushed.
+	 */
+	private class SnapshotImport {
+		private final String usernameSuffix;
+		private final Map<Long, Long> userIds = new HashMap<>();
+		private final Map<Long, Long> teamIds = new HashMap<>();
+		private final List<SnapshotUserDto> pendingUsers = new ArrayList<>();
+		private final List<Object[]> pendingEmployees = new ArrayList<>();
+		private final List<Object[]> pendingTeammates = new ArrayList<>();
+		private final SnapshotImportResultDto result = new SnapshotImportResultDto();
+		private int unflushed;
+
+		SnapshotImport(String usernameSuffix) {
+			this.usernameSuffix = usernameSuffix;
+		}
+
+		void add(int lineNumber, SnapshotRecordDto record) {
+			if (result.getCompanyId() == null && !(record instanceof SnapshotCompanyDto)) {
+				throw new BadRequestException("A snapshot must start with its company record.");
+			}
+
+			if (record instanceof SnapshotCompanyDto) {
+				addCompany(lineNumber, (SnapshotCompanyDto) record);
+			} else if (record instanceof SnapshotUserDto) {
+				pendingUsers.add((SnapshotUserDto) record);
+				if (pendingUsers.size() == BATCH_SIZE) {
+					saveUsers();
+				}
+			} else {
+				saveUsers();
+				if (record instanceof SnapshotTeamDto) {
+					addTeam((SnapshotTeamDto) record);
+				} else if (record instanceof SnapshotTeammateDto) {
+					addTeammate(lineNumber, (SnapshotTeammateDto) record);
+				} else if (record instanceof SnapshotProjectDto) {
+					addProject(lineNumber, (SnapshotProjectDto) record);
+				} else if (record instanceof SnapshotAnnouncementDto) {
+					addAnnouncement((SnapshotAnnouncementDto) record);
+				}
+			}
+		}
+
+		SnapshotImportResultDto finish() {
+			if (result.getCompanyId() == null) {
+				throw new BadRequestException("The snapshot is empty.");
+			}
+			saveUsers();
+			flush();
+
+			collectionCacheEvictor.evict(Company.class, "employees", List.of(result.getCompanyId()));
+			collectionCacheEvictor.evict(Team.class, "teammates", teamIds.values());
+			companyStatsService.reconcile(result.getCompanyId());
+			return result;
+		}
+
+		private void addCompany(int lineNumber, SnapshotCompanyDto record) {
+			if (result.getCompanyId() != null) {
+				throw new BadRequestException("Unexpected second company record on line " + lineNumber + ".");
+			}
+			Company company = new Company();
+			company.setName(record.getName());
+			company.setDescription(record.getDescription());
+			result.setCompanyId(companyRepository.save(company).getId());
+		}
+
+		/**
+		 * Saves the buffered users after checking their usernames, with the
+		 * suffix applied, against existing accounts in one query.
+		 */
+		private void saveUsers() {
+			if (pendingUsers.isEmpty()) {
+				return;
+			}
+
+			List<String> usernames = pendingUsers.stream().map(record -> record.getUsername() + usernameSuffix)
+					.collect(Collectors.toList());
+			List<String> taken = userRepository.findByCredentialsUsernameIn(usernames).stream()
+					.map(user -> user.getCredentials().getUsername()).collect(Collectors.toList());
+			if (!taken.isEmpty()) {
+				throw new BadRequestException("These usernames already exist, import with a username suffix: " + taken);
+			}
+
+			for (SnapshotUserDto record : pendingUsers) {
+				User user = new User();
+				Credentials credentials = new Credentials();
+				credentials.setUsername(record.getUsername() + usernameSuffix);
+				credentials.setPassword(record.getPassword());
+				user.setCredentials(credentials);
+				Profile profile = new Profile();
+				profile.setFirstName(record.getFirstName());
+				profile.setLastName(record.getLastName());
+				profile.setEmail(record.getEmail());
+				profile.setPhone(record.getPhone());
+				user.setProfile(profile);
+				user.setActive(record.isActive());
+				user.setAdmin(record.isAdmin());
+				user.setStatus(record.getStatus());
+
+				Long userId = userRepository.save(user).getId();
+				userIds.put(record.getId(), userId);
+				pendingEmployees.add(new Object[] { result.getCompanyId(), userId });
+				result.setUsers(result.getUsers() + 1);
+			}
+			unflushed += pendingUsers.size();
+			pendingUsers.clear();
+			flushIfFull();
+		}
+
+		private void addTeam(SnapshotTeamDto record) {
+			Team team = new Team();
+			team.setName(record.getName());
+			team.setDescription(record.getDescription());
+			team.setCompany(companyRepository.getReferenceById(result.getCompanyId()));
+			teamIds.put(record.getId(), teamRepository.save(team).getId());
+			result.setTeams(result.getTeams() + 1);
+			unflushed++;
+			flushIfFull();
+		}
+
+		private void addTeammate(int lineNumber, SnapshotTeammateDto record) {
+			pendingTeammates.add(new Object[] { mapped(teamIds, record.getTeamId(), "team", lineNumber),
+					mapped(userIds, record.getUserId(), "user", lineNumber) });
+			result.setTeammates(result.getTeammates() + 1);
+			unflushed++;
+			flushIfFull();
+		}
+
+		private void addProject(int lineNumber, SnapshotProjectDto record) {
+			Project project = new Project();
+			project.setName(record.getName());
+			project.setDescription(record.getDescription());
+			project.setActive(record.isActive());
+			project.setTeam(teamRepository.getReferenceById(mapped(teamIds, record.getTeamId(), "team", lineNumber)));
+			projectRepository.save(project);
+			result.setProjects(result.getProjects() + 1);
+			unflushed++;
+			flushIfFull();
+		}
+
+		private void addAnnouncement(SnapshotAnnouncementDto record) {
+			Announcement announcement = new Announcement();
+			if (record.getDate() != null) {
+				announcement.setDate(new Timestamp(record.getDate().getTime()));
+			}
+			announcement.setTitle(record.getTitle());
+			announcement.setMessage(record.getMessage());
+			announcement.setCompany(companyRepository.getReferenceById(result.getCompanyId()));
+			Long authorId = record.getAuthorId() == null ? null : userIds.get(record.getAuthorId());
+			if (authorId != null) {
+				announcement.setAuthor(userRepository.getReferenceById(authorId));
+			}
+			announcementRepository.save(announcement);
+			result.setAnnouncements(result.getAnnouncements() + 1);
+			unflushed++;
+			flushIfFull();
+		}
+
+		private Long mapped(Map<Long, Long> ids, Long id, String type, int lineNumber) {
+			Long mappedId = ids.get(id);
+			if (mappedId == null) {
+				throw new BadRequestException(
+						"Line " + lineNumber + " refers to a " + type + " that is not earlier in the snapshot: " + id);
+			}
+			return mappedId;
+		}
+
+		private void flushIfFull() {
+			if (unflushed >= BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		private void flush() {
+			entityManager.flush();
+			entityManager.clear();
+			insertRows("insert into company_employees (companies_id, employees_id) values (?, ?)", pendingEmployees);
+			insertRows("insert into team_teammates (teams_id, teammates_id) values (?, ?)", pendingTeammates);
+			unflushed = 0;
+		}
+
+		private void insertRows(String sql, List<Object[]> rows) {
+			if (!rows.isEmpty()) {
+				jdbcTemplate.batchUpdate(sql, rows);
+				rows.clear();
+			}
+		}
+	}
+
+}
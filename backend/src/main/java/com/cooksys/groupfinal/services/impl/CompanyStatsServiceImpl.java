@@ -0,0 +1,115 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.config.RetryOnConflict;
+import com.cooksys.groupfinal.dtos.CompanyStatsDto;
+import com.cooksys.groupfinal.entities.CompanyStats;
+import com.cooksys.groupfinal.entities.TeamStats;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.mappers.StatsMapper;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.CompanyStatsRepository;
+import com.cooksys.groupfinal.repositories.TeamStatsRepository;
+import com.cooksys.groupfinal.services.CompanyStatsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves the company_stats and team_stats read model. The counters are
+ * adjusted by the write paths themselves; this service only reads them and
+ * periodically recounts them to repair any drift, for example from rows
+ * written outside the application.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CompanyStatsServiceImpl implements CompanyStatsService {
+
+	private final CompanyStatsRepository companyStatsRepository;
+	private final TeamStatsRepository teamStatsRepository;
+	private final CompanyRepository companyRepository;
+	private final StatsMapper statsMapper;
+	private final TransactionTemplate transactionTemplate;
+
+	@Override
+	@Transactional(readOnly = true)
+	public CompanyStatsDto getStats(Long companyId) {
+		Optional<CompanyStats> stats = companyStatsRepository.findById(companyId);
+		if (stats.isPresent()) {
+			return statsMapper.entitiesToDto(stats.get(), teamStatsRepository.findByCompanyIdOrderByTeamId(companyId));
+		}
+
+		// Not reconciled yet, so count directly until the job creates the row
+		if (!companyRepository.existsById(companyId)) {
+			throw new NotFoundException("A company with the provided id does not exist.");
+		}
+		return statsMapper.entitiesToDto(count(companyId), teamStatsRepository.countActiveProjects(companyId));
+	}
+
+	@Override
+	@RetryOnConflict
+	@Transactional
+	public boolean reconcile(Long companyId) {
+		// Locking the stored rows first makes concurrent write paths wait, so
+		// their adjustments land either before the recount or on top of it
+		Optional<CompanyStats> stored = companyStatsRepository.findForUpdate(companyId);
+		Map<Long, TeamStats> storedTeams = teamStatsRepository.findForUpdate(companyId).stream()
+				.collect(Collectors.toMap(TeamStats::getTeamId, Function.identity()));
+
+		boolean drifted = false;
+		CompanyStats actual = count(companyId);
+		if (stored.isEmpty() || !stored.get().equals(actual)) {
+			drifted = stored.isPresent();
+			companyStatsRepository.save(actual);
+		}
+
+		List<TeamStats> actualTeams = teamStatsRepository.countActiveProjects(companyId);
+		for (TeamStats team : actualTeams) {
+			TeamStats storedTeam = storedTeams.remove(team.getTeamId());
+			if (!team.equals(storedTeam)) {
+				drifted |= storedTeam != null;
+				teamStatsRepository.save(team);
+			}
+		}
+		if (!storedTeams.isEmpty()) {
+			drifted = true;
+			teamStatsRepository.deleteAll(storedTeams.values());
+		}
+
+		if (drifted) {
+			log.warn("Repaired drifted stats for company {}: {}", companyId, actual);
+		}
+		return drifted;
+	}
+
+	/**
+	 * Reconciles each company in its own transaction so one failure does not
+	 * hold back the rest.
+	 */
+	@Scheduled(initialDelayString = "${groupfinal.stats.reconcile-delay:PT1M}",
+			fixedDelayString = "${groupfinal.stats.reconcile-interval:PT1H}")
+	public void reconcileAll() {
+		List<Long> companyIds = companyRepository.findCompanyIds();
+		long drifted = companyIds.stream()
+				.filter(companyId -> transactionTemplate.execute(status -> reconcile(companyId))).count();
+		log.info("Reconciled stats for {} companies, {} had drifted", companyIds.size(), drifted);
+	}
+
+	private CompanyStats count(Long companyId) {
+		return new CompanyStats(companyId, companyStatsRepository.countActiveUsers(companyId),
+				companyStatsRepository.countPendingUsers(companyId), companyStatsRepository.countTeams(companyId),
+				companyStatsRepository.countAnnouncements(companyId));
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.dtos.AnnouncementPageDto;
+import com.cooksys.groupfinal.dtos.CompanyStatsDto;
+import com.cooksys.groupfinal.dtos.DashboardDto;
+import com.cooksys.groupfinal.dtos.TeamStatsDto;
+import com.cooksys.groupfinal.dtos.TeamSummaryDto;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.services.CompanyService;
+import com.cooksys.groupfinal.services.CompanyStatsService;
+import com.cooksys.groupfinal.services.DashboardService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+	private final CompanyRepository companyRepository;
+	private final TeamRepository teamRepository;
+	private final CompanyService companyService;
+	private final CompanyStatsService companyStatsService;
+	private final MeterRegistry meterRegistry;
+	private final TransactionTemplate readOnly;
+	private final ThreadPoolExecutor sections;
+
+	public DashboardServiceImpl(CompanyRepository companyRepository, TeamRepository teamRepository,
+			CompanyService companyService, CompanyStatsService companyStatsService, MeterRegistry meterRegistry,
+			PlatformTransactionManager transactionManager,
+			@Value("${groupfinal.dashboard.threads:4}") int threads,
+			@Value("${groupfinal.dashboard.queue-capacity:64}") int queueCapacity) {
+		this.companyRepository = companyRepository;
+		this.teamRepository = teamRepository;
+		this.companyService = companyService;
+		this.companyStatsService = companyStatsService;
+		this.meterRegistry = meterRegistry;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		// Once the queue is full the request thread reads the section itself rather than waiting
+		this.sections = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("dashboard-"),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		sections.shutdownNow();
+	}
+
+	@Override
+	public DashboardDto getDashboard(Long companyId, int announcementLimit) {
+		long started = System.nanoTime();
+		if (!companyRepository.existsById(companyId)) {
+			throw new NotFoundException("A company with the provided id does not exist.");
+		}
+
+		AtomicLong sectionNanos = new AtomicLong();
+		CompletableFuture<AnnouncementPageDto> announcements = section("announcements", sectionNanos,
+				() -> companyService.getAnnouncementFeed(companyId, null, announcementLimit));
+		CompletableFuture<List<TeamSummaryDto>> teams = section("teams", sectionNanos,
+				() -> teamRepository.findSummariesByCompanyId(companyId));
+		CompletableFuture<CompanyStatsDto> stats = section("stats", sectionNanos,
+				() -> companyStatsService.getStats(companyId));
+
+		DashboardDto dashboard;
+		try {
+			CompletableFuture.allOf(announcements, teams, stats).join();
+			Map<Long, Long> activeProjects = stats.join().getTeamStats().stream()
+					.collect(Collectors.toMap(TeamStatsDto::getTeamId, TeamStatsDto::getActiveProjects));
+			teams.join().forEach(team -> team.setActiveProjects(activeProjects.getOrDefault(team.getId(), 0L)));
+			dashboard = new DashboardDto(companyId, announcements.join(), teams.join(), stats.join().getActiveUsers(),
+					stats.join().getPendingUsers());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+
+		// The section total is what the page paid when it fetched each of these separately
+		Timer.builder("groupfinal.dashboard.time").description("Time to assemble the company dashboard")
+				.publishPercentileHistogram().register(meterRegistry)
+				.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		Timer.builder("groupfinal.dashboard.sections.time")
+				.description("Summed time of the dashboard sections, as if read one after another")
+				.publishPercentileHistogram().register(meterRegistry)
+				.record(sectionNanos.get(), TimeUnit.NANOSECONDS);
+		return dashboard;
+	}
+
+	private <T> CompletableFuture<T> section(String name, AtomicLong sectionNanos, Supplier<T> read) {
+		Timer timer = Timer.builder("groupfinal.dashboard.section.time")
+				.description("Time to read one section of the company dashboard").tag("section", name)
+				.register(meterRegistry);
+		return CompletableFuture.supplyAsync(() -> {
+			long started = System.nanoTime();
+			try {
+				return readOnly.execute(status -> read.get());
+			} finally {
+				long elapsed = System.nanoTime() - started;
+				sectionNanos.addAndGet(elapsed);
+				timer.record(elapsed, TimeUnit.NANOSECONDS);
+			}
+		}, sections);
+	}
+
+}
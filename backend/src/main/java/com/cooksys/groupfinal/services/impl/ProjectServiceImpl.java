@@ -1,19 +1,39 @@
 package com.cooksys.groupfinal.services.impl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.cooksys.groupfinal.config.RetryOnConflict;
+import com.cooksys.groupfinal.dtos.ProjectBatchRequestDto;
+import com.cooksys.groupfinal.dtos.ProjectBatchResultDto;
 import com.cooksys.groupfinal.dtos.ProjectDto;
+import com.cooksys.groupfinal.dtos.ProjectOperationDto;
+import com.cooksys.groupfinal.dtos.ProjectOperationResultDto;
 import com.cooksys.groupfinal.dtos.ProjectRequestDto;
 import com.cooksys.groupfinal.entities.Project;
 import com.cooksys.groupfinal.entities.Team;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
 import com.cooksys.groupfinal.exceptions.BadRequestException;
 import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.exceptions.PreconditionFailedException;
 import com.cooksys.groupfinal.mappers.ProjectMapper;
 import com.cooksys.groupfinal.mappers.TeamMapper;
 import com.cooksys.groupfinal.repositories.ProjectRepository;
 import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.repositories.TeamStatsRepository;
 import com.cooksys.groupfinal.services.ProjectService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,9 +42,23 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ProjectServiceImpl implements ProjectService {
 
+	static final int MAX_BATCH_OPERATIONS = 500;
+
+	static final String CREATE = "create";
+	static final String UPDATE = "update";
+	static final String DELETE = "delete";
+
+	static final String CREATED = "CREATED";
+	static final String UPDATED = "UPDATED";
+	static final String DELETED = "DELETED";
+	static final String REJECTED = "REJECTED";
+	static final String SKIPPED = "SKIPPED";
+
 	private final ProjectRepository projectRepository;
 	private final ProjectMapper projectMapper;
 	private final TeamRepository teamRepository;
+	private final TeamStatsRepository teamStatsRepository;
+	private final ApplicationEventPublisher eventPublisher;
 
 	private final TeamMapper teamMapper;
 
@@ -37,7 +71,9 @@ public class ProjectServiceImpl implements ProjectService {
 	}
 
 	@Override
-	public ProjectDto updateProject(Long id, ProjectRequestDto project) {
+	@RetryOnConflict
+	@Transactional
+	public ProjectDto updateProject(Long id, ProjectRequestDto project, Long expectedVersion) {
 		if (id == null) {
 			throw new BadRequestException("Invalid project ID");
 		}
@@ -46,6 +82,12 @@ public class ProjectServiceImpl implements ProjectService {
 			throw new NotFoundException("Project not found");
 		}
 		Project storeProject = tempProject.get();
+		if (expectedVersion != null && expectedVersion != storeProject.getVersion()) {
+			throw new PreconditionFailedException("The project has changed since version " + expectedVersion
+					+ "; it is now at " + storeProject.getVersion() + ".");
+		}
+		boolean wasActive = storeProject.isActive();
+		Long previousTeamId = storeProject.getTeam().getId();
 		if (project.getName() != null) {
 			storeProject.setName(project.getName());
 		}
@@ -65,11 +107,24 @@ public class ProjectServiceImpl implements ProjectService {
 			storeProject.setTeam(newTeam);
 		}
 
-		Project updatedProject = projectRepository.save(storeProject);
+		// Flushed here so the version returned is the one this update commits
+		Project updatedProject = projectRepository.saveAndFlush(storeProject);
+		Long teamId = updatedProject.getTeam().getId();
+		if (wasActive != updatedProject.isActive() || !previousTeamId.equals(teamId)) {
+			if (wasActive) {
+				teamStatsRepository.adjustActiveProjects(previousTeamId, -1);
+			}
+			if (updatedProject.isActive()) {
+				teamStatsRepository.adjustActiveProjects(teamId, 1);
+			}
+		}
+		publish(updatedProject, CompanyChangeEvent.UPDATED);
 		return projectMapper.entityToDto(updatedProject);
 	}
 
 	@Override
+	@RetryOnConflict
+	@Transactional
 	public ProjectDto createProject(ProjectRequestDto project) {
 		if (project == null || project.getTeamId() == null) {
 			throw new BadRequestException("Invalid team ID");
@@ -77,10 +132,16 @@ public class ProjectServiceImpl implements ProjectService {
 		Project tempProject = projectMapper.requestDtoToEntity(project);
 		tempProject.setTeam(findTeam(project.getTeamId()));
 		Project savedProject = projectRepository.save(tempProject);
+		if (savedProject.isActive()) {
+			teamStatsRepository.adjustActiveProjects(savedProject.getTeam().getId(), 1);
+		}
+		publish(savedProject, CompanyChangeEvent.CREATED);
 		return projectMapper.entityToDto(savedProject);
 	}
 
 	@Override
+	@RetryOnConflict
+	@Transactional
 	public void deleteProject(Long id) {
 		if (id == null) {
 			throw new BadRequestException("Invalid project ID");
@@ -89,6 +150,198 @@ public class ProjectServiceImpl implements ProjectService {
 		if (project.isEmpty()) {
 			throw new NotFoundException("Project not found");
 		}
+		if (project.get().isActive()) {
+			teamStatsRepository.adjustActiveProjects(project.get().getTeam().getId(), -1);
+		}
 		projectRepository.delete(project.get());
+		publish(project.get(), CompanyChangeEvent.DELETED);
+	}
+
+	@Override
+	@RetryOnConflict
+	@Transactional
+	public ProjectBatchResultDto applyBatch(ProjectBatchRequestDto batch) {
+		if (batch == null || batch.getOperations() == null || batch.getOperations().isEmpty()) {
+			throw new BadRequestException("A batch needs at least one operation.");
+		}
+		List<ProjectOperationDto> operations = batch.getOperations();
+		if (operations.size() > MAX_BATCH_OPERATIONS) {
+			throw new BadRequestException("A batch can hold at most " + MAX_BATCH_OPERATIONS + " operations.");
+		}
+
+		// Every project and team the batch names is loaded up front, one query each
+		Set<Long> projectIds = new HashSet<>();
+		Set<Long> teamIds = new HashSet<>();
+		for (ProjectOperationDto operation : operations) {
+			if (operation != null && operation.getId() != null && !CREATE.equalsIgnoreCase(operation.getOp())) {
+				projectIds.add(operation.getId());
+			}
+			if (operation != null && operation.getProject() != null && operation.getProject().getTeamId() != null) {
+				teamIds.add(operation.getProject().getTeamId());
+			}
+		}
+		Map<Long, Project> projects = projectIds.isEmpty() ? Map.of()
+				: projectRepository.findWithTeamByIdIn(projectIds).stream()
+						.collect(Collectors.toMap(Project::getId, Function.identity()));
+		Map<Long, Team> teams = teamIds.isEmpty() ? Map.of()
+				: teamRepository.findWithCompanyByIdIn(teamIds).stream()
+						.collect(Collectors.toMap(Team::getId, Function.identity()));
+
+		List<ProjectOperationResultDto> results = new ArrayList<>(operations.size());
+		Set<Long> seen = new HashSet<>();
+		boolean rejected = false;
+		for (int index = 0; index < operations.size(); index++) {
+			ProjectOperationDto operation = operations.get(index);
+			String op = operation == null || operation.getOp() == null ? null
+					: operation.getOp().toLowerCase(Locale.ROOT);
+			ProjectOperationResultDto result = new ProjectOperationResultDto(index, op, null,
+					operation == null || CREATE.equals(op) ? null : operation.getId(), null, null);
+			results.add(result);
+			String problem = validate(operation, op, projects, teams);
+			if (problem == null && !CREATE.equals(op) && !seen.add(operation.getId())) {
+				problem = "The project appears more than once in the batch.";
+			}
+			if (problem != null) {
+				result.setStatus(REJECTED);
+				result.setMessage(problem);
+				rejected = true;
+			}
+		}
+		if (rejected) {
+			for (ProjectOperationResultDto result : results) {
+				if (result.getStatus() == null) {
+					result.setStatus(SKIPPED);
+					result.setMessage("Not applied because another operation in the batch was rejected.");
+				}
+			}
+			return new ProjectBatchResultDto(false, results);
+		}
+
+		List<Project> created = new ArrayList<>();
+		List<Project> deleted = new ArrayList<>();
+		Map<Long, Long> activeDeltas = new HashMap<>();
+		Project[] touched = new Project[operations.size()];
+		for (int index = 0; index < operations.size(); index++) {
+			ProjectOperationDto operation = operations.get(index);
+			ProjectOperationResultDto result = results.get(index);
+			ProjectRequestDto request = operation.getProject();
+			if (CREATE.equals(result.getOp())) {
+				Project project = projectMapper.requestDtoToEntity(request);
+				project.setTeam(teams.get(request.getTeamId()));
+				created.add(project);
+				touched[index] = project;
+				adjust(activeDeltas, project, 1);
+				result.setStatus(CREATED);
+			} else if (UPDATE.equals(result.getOp())) {
+				Project project = projects.get(operation.getId());
+				adjust(activeDeltas, project, -1);
+				if (request.getName() != null) {
+					project.setName(request.getName());
+				}
+				if (request.getDescription() != null) {
+					project.setDescription(request.getDescription());
+				}
+				if (request.getActive() != null) {
+					project.setActive(request.getActive());
+				}
+				if (request.getTeamId() != null) {
+					project.setTeam(teams.get(request.getTeamId()));
+				}
+				adjust(activeDeltas, project, 1);
+				touched[index] = project;
+				result.setStatus(UPDATED);
+			} else {
+				Project project = projects.get(operation.getId());
+				adjust(activeDeltas, project, -1);
+				deleted.add(project);
+				touched[index] = project;
+				result.setStatus(DELETED);
+			}
+		}
+
+		// Inserts, updates and deletes all go out in JDBC batches on this flush,
+		// which also settles the versions returned below
+		projectRepository.saveAll(created);
+		projectRepository.deleteAll(deleted);
+		projectRepository.flush();
+		activeDeltas.forEach((teamId, delta) -> {
+			if (delta != 0) {
+				teamStatsRepository.adjustActiveProjects(teamId, delta);
+			}
+		});
+		// Validation only needs each team's company; the rosters are read for the response, so they
+		// are fetched in one query once the batch is accepted and fill in the teams already loaded
+		if (!teams.isEmpty()) {
+			teamRepository.findWithTeammatesByIdIn(teams.keySet());
+		}
+
+		for (int index = 0; index < operations.size(); index++) {
+			ProjectOperationResultDto result = results.get(index);
+			Project project = touched[index];
+			result.setProjectId(project.getId());
+			if (DELETED.equals(result.getStatus())) {
+				publish(project, CompanyChangeEvent.DELETED);
+			} else {
+				publish(project, CREATED.equals(result.getStatus()) ? CompanyChangeEvent.CREATED
+						: CompanyChangeEvent.UPDATED);
+				result.setProject(projectMapper.entityToDto(project));
+			}
+		}
+		return new ProjectBatchResultDto(true, results);
+	}
+
+	private String validate(ProjectOperationDto operation, String op, Map<Long, Project> projects,
+			Map<Long, Team> teams) {
+		if (operation == null) {
+			return "Missing operation.";
+		}
+		ProjectRequestDto request = operation.getProject();
+		if (CREATE.equals(op)) {
+			if (request == null || request.getTeamId() == null) {
+				return "Invalid team ID";
+			}
+			return teams.containsKey(request.getTeamId()) ? null
+					: "A team with the provided id does not exist.";
+		}
+		if (!UPDATE.equals(op) && !DELETE.equals(op)) {
+			return "Every operation needs an op of create, update or delete.";
+		}
+		if (operation.getId() == null) {
+			return "Invalid project ID";
+		}
+		Project project = projects.get(operation.getId());
+		if (project == null) {
+			return "Project not found";
+		}
+		if (operation.getVersion() != null && operation.getVersion() != project.getVersion()) {
+			return "The project has changed since version " + operation.getVersion() + "; it is now at "
+					+ project.getVersion() + ".";
+		}
+		if (UPDATE.equals(op)) {
+			if (request == null) {
+				return "An update needs a project.";
+			}
+			if (request.getTeamId() != null) {
+				Team newTeam = teams.get(request.getTeamId());
+				if (newTeam == null) {
+					return "A team with the provided id does not exist.";
+				}
+				if (!Objects.equals(project.getTeam().getCompany().getId(), newTeam.getCompany().getId())) {
+					return "Project cannot be reassigned across companies.";
+				}
+			}
+		}
+		return null;
+	}
+
+	private static void adjust(Map<Long, Long> activeDeltas, Project project, long delta) {
+		if (project.isActive()) {
+			activeDeltas.merge(project.getTeam().getId(), delta, Long::sum);
+		}
+	}
+
+	private void publish(Project project, String op) {
+		eventPublisher.publishEvent(new CompanyChangeEvent(project.getTeam().getCompany().getId(),
+				CompanyChangeEvent.PROJECT, project.getId(), op, project::getVersion));
 	}
 }
@@ -0,0 +1,425 @@
+package com.cooksys.groupfinal.services.impl;
+
+import static com.cooksys.groupfinal.events.CompanyChangeEvent.ANNOUNCEMENT;
+import static com.cooksys.groupfinal.events.CompanyChangeEvent.PROJECT;
+import static com.cooksys.groupfinal.events.CompanyChangeEvent.TEAM;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.dtos.SearchHitDto;
+import com.cooksys.groupfinal.dtos.SearchPageDto;
+import com.cooksys.groupfinal.dtos.SnapshotAnnouncementDto;
+import com.cooksys.groupfinal.dtos.SnapshotProjectDto;
+import com.cooksys.groupfinal.dtos.SnapshotTeamDto;
+import com.cooksys.groupfinal.entities.ChangeLogEntry;
+import com.cooksys.groupfinal.entities.CompanyRevision;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
+import com.cooksys.groupfinal.exceptions.BadRequestException;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.repositories.AnnouncementRepository;
+import com.cooksys.groupfinal.repositories.ChangeLogRepository;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.CompanyRevisionRepository;
+import com.cooksys.groupfinal.repositories.ProjectRepository;
+import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.services.SearchService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a Lucene index of announcement, project and team text and answers
+ * searches from it. The index is another consumer of the change log: a
+ * single indexer thread replays each company's changes since the revision it
+ * last indexed, reloading only the touched rows, and falls back to rebuilding
+ * the company when its cursor has been purged. Indexed revisions are stored
+ * with each Lucene commit, so a persistent index resumes where it stopped
+ * instead of being rebuilt after a restart.
+ */
+@Slf4j
+@Service
+public class SearchServiceImpl implements SearchService {
+
+	private static final String KEY = "key";
+	private static final String COMPANY = "company";
+	private static final String TYPE = "type";
+	private static final String ID = "id";
+	private static final String TITLE = "title";
+	private static final String BODY = "body";
+	private static final String REVISION_PREFIX = "revision.";
+
+	private static final int MAX_LIMIT = 50;
+	private static final int MAX_WINDOW = 1000;
+	private static final int RELOAD_CHUNK = 500;
+
+	private static final Analyzer ANALYZER = new EnglishAnalyzer();
+	private static final FieldType TEXT = textFieldType();
+
+	private final CompanyRepository companyRepository;
+	private final CompanyRevisionRepository companyRevisionRepository;
+	private final ChangeLogRepository changeLogRepository;
+	private final AnnouncementRepository announcementRepository;
+	private final ProjectRepository projectRepository;
+	private final TeamRepository teamRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration catchUpInterval;
+	private final IndexWriter writer;
+	private final SearcherManager searcherManager;
+	private final ExecutorService indexer = Executors
+			.newSingleThreadExecutor(new CustomizableThreadFactory("search-indexer-"));
+	private final Map<Long, Long> indexedRevisions = new ConcurrentHashMap<>();
+	private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+	private volatile Instant lastSweep = Instant.now();
+	private volatile boolean uncommitted;
+	private volatile boolean closing;
+
+	public SearchServiceImpl(CompanyRepository companyRepository,
+			CompanyRevisionRepository companyRevisionRepository, ChangeLogRepository changeLogRepository, AnnouncementRepository announcementRepository,
+			ProjectRepository projectRepository, TeamRepository teamRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${groupfinal.search.catch-up-interval:PT1M}") Duration catchUpInterval,
+			@Value("${groupfinal.search.directory:}") String directory) throws IOException {
+		this.companyRepository = companyRepository;
+		this.companyRevisionRepository = companyRevisionRepository;
+		this.changeLogRepository = changeLogRepository;
+		this.announcementRepository = announcementRepository;
+		this.projectRepository = projectRepository;
+		this.teamRepository = teamRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		this.catchUpInterval = catchUpInterval;
+
+		// Without a directory the index lives in memory and is rebuilt on every start
+		writer = new IndexWriter(directory.isEmpty() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(directory)),
+				new IndexWriterConfig(ANALYZER));
+		Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+		if (commitData != null) {
+			for (Map.Entry<String, String> entry : commitData) {
+				if (entry.getKey().startsWith(REVISION_PREFIX)) {
+					indexedRevisions.put(Long.valueOf(entry.getKey().substring(REVISION_PREFIX.length())),
+							Long.valueOf(entry.getValue()));
+				}
+			}
+		}
+		searcherManager = new SearcherManager(writer, null);
+	}
+
+	@Override
+	public SearchPageDto search(Long companyId, String query, String type, int offset, int limit) {
+		if (query == null || query.isBlank()) {
+			throw new BadRequestException("A search query is required.");
+		}
+		if (type != null && !List.of(ANNOUNCEMENT, PROJECT, TEAM).contains(type)) {
+			throw new BadRequestException("The type must be announcement, project or team.");
+		}
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new BadRequestException("The limit must be between 1 and " + MAX_LIMIT + ".");
+		}
+		if (offset < 0 || offset + limit > MAX_WINDOW) {
+			throw new BadRequestException("Only the first " + MAX_WINDOW + " results can be paged through.");
+		}
+		if (!companyRepository.existsById(companyId)) {
+			throw new NotFoundException("A company with the provided id does not exist.");
+		}
+
+		SimpleQueryParser parser = new SimpleQueryParser(ANALYZER, Map.of(TITLE, 2f, BODY, 1f));
+		parser.setDefaultOperator(Occur.MUST);
+		BooleanQuery.Builder builder = new BooleanQuery.Builder().add(parser.parse(query), Occur.MUST)
+				.add(new TermQuery(new Term(COMPANY, companyId.toString())), Occur.FILTER);
+		if (type != null) {
+			builder.add(new TermQuery(new Term(TYPE, type)), Occur.FILTER);
+		}
+		Query search = builder.build();
+
+		try {
+			IndexSearcher searcher = searcherManager.acquire();
+			try {
+				TopDocs top = searcher.search(search, offset + limit);
+				ScoreDoc[] page = Arrays.copyOfRange(top.scoreDocs, Math.min(offset, top.scoreDocs.length),
+						top.scoreDocs.length);
+				UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, ANALYZER)
+						.withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", " … ", true)).build();
+				Map<String, String[]> highlights = highlighter.highlightFields(new String[] { TITLE, BODY }, search,
+						new TopDocs(top.totalHits, page), new int[] { 1, 2 });
+
+				List<SearchHitDto> hits = new ArrayList<>(page.length);
+				for (int i = 0; i < page.length; i++) {
+					Document document = searcher.doc(page[i].doc);
+					hits.add(new SearchHitDto(document.get(TYPE), document.getField(ID).numericValue().longValue(),
+							highlights.get(TITLE)[i], highlights.get(BODY)[i], page[i].score));
+				}
+				Integer nextOffset = top.totalHits.value > offset + limit && offset + limit < MAX_WINDOW
+						? offset + limit
+						: null;
+				return new SearchPageDto(hits, top.totalHits.value, nextOffset);
+			} finally {
+				searcherManager.release(searcher);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+	public void onChange(CompanyChangeEvent event) {
+		if (!CompanyChangeEvent.USER.equals(event.getType())) {
+			request(event.getCompanyId());
+		}
+	}
+
+	/**
+	 * Brings every company up to date once the application is ready, so data
+	 * loaded by runners at startup is picked up.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void catchUpAll() {
+		companyRepository.findCompanyIds().forEach(this::request);
+	}
+
+	/**
+	 * Picks up changes committed without an event here, such as by another
+	 * instance, from the companies with change log entries since the last
+	 * sweep. Entries are stamped just before their transaction commits, and
+	 * possibly by another instance's clock, so the window reaches back a
+	 * further interval.
+	 */
+	@Scheduled(initialDelayString = "${groupfinal.search.catch-up-interval:PT1M}",
+			fixedDelayString = "${groupfinal.search.catch-up-interval:PT1M}")
+	public void sweep() {
+		Instant now = Instant.now();
+		changeLogRepository.findCompanyIdsChangedSince(Timestamp.from(lastSweep.minus(catchUpInterval)))
+				.forEach(this::request);
+		lastSweep = now;
+	}
+
+	@Scheduled(fixedDelayString = "${groupfinal.search.commit-interval:PT30S}")
+	public void commit() {
+		if (uncommitted && !closing) {
+			indexer.execute(this::commitIndex);
+		}
+	}
+
+	@PreDestroy
+	public void close() throws IOException, InterruptedException {
+		closing = true;
+		indexer.shutdown();
+		if (indexer.awaitTermination(30, TimeUnit.SECONDS)) {
+			commitIndex();
+		} else {
+			// The last commit and its revisions are still consistent, so resume from there
+			writer.rollback();
+		}
+		searcherManager.close();
+		writer.close();
+		writer.getDirectory().close();
+	}
+
+	private void request(Long companyId) {
+		// Coalesce bursts of commits into one catch-up per company
+		if (!closing && pending.add(companyId)) {
+			indexer.execute(() -> {
+				pending.remove(companyId);
+				catchUp(companyId);
+			});
+		}
+	}
+
+	private void catchUp(Long companyId) {
+		try {
+			Optional<CompanyRevision> stored = companyRevisionRepository.findById(companyId);
+			long revision = stored.map(CompanyRevision::getRevision).orElse(0L);
+			long purged = stored.map(CompanyRevision::getPurgedRevision).orElse(0L);
+			Long indexed = indexedRevisions.get(companyId);
+			if (indexed != null && indexed == revision) {
+				return;
+			}
+			if (indexed == null || indexed < purged || indexed > revision) {
+				rebuild(companyId);
+			} else {
+				apply(companyId, changeLogRepository.findChanges(companyId, indexed, revision));
+			}
+			indexedRevisions.put(companyId, revision);
+			uncommitted = true;
+			searcherManager.maybeRefresh();
+		} catch (IOException | RuntimeException e) {
+			log.error("Could not bring the search index up to date for company {}", companyId, e);
+		}
+	}
+
+	/**
+	 * Reindexes everything the company has. The revision has to be read before
+	 * this runs, so changes committed meanwhile are replayed on the next pass.
+	 */
+	private void rebuild(Long companyId) throws IOException {
+		// Dropped first so a commit taken midway never claims the company is indexed
+		indexedRevisions.remove(companyId);
+		writer.deleteDocuments(new Term(COMPANY, companyId.toString()));
+		transactionTemplate.executeWithoutResult(status -> {
+			addAll(announcementRepository.streamSnapshotByCompanyId(companyId),
+					announcement -> announcementDocument(companyId, announcement));
+			addAll(projectRepository.streamSnapshotByCompanyId(companyId), project -> projectDocument(companyId, project));
+			addAll(teamRepository.streamSnapshotByCompanyId(companyId), team -> teamDocument(companyId, team));
+		});
+	}
+
+	private <T> void addAll(Stream<T> rows, Function<T, Document> document) {
+		try (rows) {
+			rows.forEach(row -> {
+				try {
+					writer.addDocument(document.apply(row));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+	}
+
+	private void apply(Long companyId, List<ChangeLogEntry> changes) throws IOException {
+		Map<String, Set<Long>> ids = changes.stream().collect(Collectors.groupingBy(ChangeLogEntry::getType,
+				Collectors.mapping(ChangeLogEntry::getEntityId, Collectors.toSet())));
+		reindex(companyId, ANNOUNCEMENT, ids.get(ANNOUNCEMENT), announcementRepository::findSnapshotByCompanyIdAndIdIn,
+				announcement -> announcementDocument(companyId, announcement));
+		reindex(companyId, PROJECT, ids.get(PROJECT), projectRepository::findSnapshotByCompanyIdAndIdIn,
+				project -> projectDocument(companyId, project));
+		reindex(companyId, TEAM, ids.get(TEAM), teamRepository::findSnapshotByCompanyIdAndIdIn,
+				team -> teamDocument(companyId, team));
+	}
+
+	/**
+	 * Replaces the documents of the changed records that still exist and drops
+	 * the rest, since deleted rows can no longer be loaded.
+	 */
+	private <T> void reindex(Long companyId, String type, Set<Long> ids,
+			BiFunction<Long, Collection<Long>, List<T>> loader, Function<T, Document> document) throws IOException {
+		if (ids == null) {
+			return;
+		}
+		Set<Long> missing = new HashSet<>(ids);
+		List<Long> remaining = new ArrayList<>(ids);
+		for (int from = 0; from < remaining.size(); from += RELOAD_CHUNK) {
+			for (T row : loader.apply(companyId, remaining.subList(from, Math.min(from + RELOAD_CHUNK, remaining.size())))) {
+				Document doc = document.apply(row);
+				writer.updateDocument(new Term(KEY, doc.get(KEY)), doc);
+				missing.remove(doc.getField(ID).numericValue().longValue());
+			}
+		}
+		for (Long id : missing) {
+			writer.deleteDocuments(new Term(KEY, key(type, id)));
+		}
+	}
+
+	private void commitIndex() {
+		if (!uncommitted) {
+			return;
+		}
+		uncommitted = false;
+		try {
+			writer.setLiveCommitData(indexedRevisions.entrySet().stream()
+					.collect(Collectors.toMap(entry -> REVISION_PREFIX + entry.getKey(), entry -> entry.getValue().toString()))
+					.entrySet());
+			writer.commit();
+		} catch (IOException e) {
+			uncommitted = true;
+			log.error("Could not commit the search index", e);
+		}
+	}
+
+	private static Document announcementDocument(Long companyId, SnapshotAnnouncementDto announcement) {
+		return document(companyId, ANNOUNCEMENT, announcement.getId(), announcement.getTitle(),
+				announcement.getMessage());
+	}
+
+	private static Document projectDocument(Long companyId, SnapshotProjectDto project) {
+		return document(companyId, PROJECT, project.getId(), project.getName(), project.getDescription());
+	}
+
+	private static Document teamDocument(Long companyId, SnapshotTeamDto team) {
+		return document(companyId, TEAM, team.getId(), team.getName(), team.getDescription());
+	}
+
+	private static Document document(Long companyId, String type, Long id, String title, String body) {
+		Document document = new Document();
+		document.add(new StringField(KEY, key(type, id), Store.NO));
+		document.add(new StringField(COMPANY, companyId.toString(), Store.NO));
+		document.add(new StringField(TYPE, type, Store.YES));
+		document.add(new StoredField(ID, id));
+		document.add(new Field(TITLE, title == null ? "" : title, TEXT));
+		document.add(new Field(BODY, body == null ? "" : body, TEXT));
+		return document;
+	}
+
+	private static String key(String type, Long id) {
+		return type + ":" + id;
+	}
+
+	/**
+	 * Stored text with offsets in the postings, so highlighting does not have
+	 * to re-analyze each hit.
+	 */
+	private static FieldType textFieldType() {
+		FieldType type = new FieldType(TextField.TYPE_STORED);
+		type.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+		type.freeze();
+		return type;
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.SessionDto;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.exceptions.BadRequestException;
+import com.cooksys.groupfinal.exceptions.NotAuthorizedException;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.SessionService;
+
+/**
+ * In-memory session store. Login issues an opaque token that carries
+ * everything the authorization checks need, so requests holding a token
+ * are authorized without touching the database. Sessions expire after a
+ * fixed time to live and are dropped as soon as the user they belong to
+ * is changed or deactivated. Every session lives equally long, so the
+ * sessions are kept in the order they were issued, which is also the order
+ * they expire in, and both the sweep and eviction at capacity only ever
+ * look at the oldest ones.
+ */
+@Service
+public class SessionServiceImpl implements SessionService {
+
+	private static final String BEARER_PREFIX = "Bearer ";
+
+	private final UserRepository userRepository;
+	private final Duration timeToLive;
+	private final int maxSessions;
+
+	private final SecureRandom random = new SecureRandom();
+	// Both maps are guarded by the sessions map
+	private final LinkedHashMap<String, SessionDto> sessions = new LinkedHashMap<>();
+	private final Map<Long, Set<String>> tokensByUser = new HashMap<>();
+
+	public SessionServiceImpl(UserRepository userRepository,
+			@Value("${groupfinal.session.time-to-live:PT8H}") Duration timeToLive,
+			@Value("${groupfinal.session.max-sessions:100000}") int maxSessions) {
+		this.userRepository = userRepository;
+		this.timeToLive = timeToLive;
+		this.maxSessions = maxSessions;
+	}
+
+	@Override
+	public SessionDto openSession(User user) {
+		SessionDto session = describe(user);
+		session.setToken(newToken());
+
+		synchronized (sessions) {
+			session.setExpiresAt(Instant.now().plus(timeToLive));
+			Iterator<SessionDto> oldest = sessions.values().iterator();
+			while (sessions.size() >= maxSessions && oldest.hasNext()) {
+				untrack(oldest.next());
+				oldest.remove();
+			}
+			sessions.put(session.getToken(), session);
+			tokensByUser.computeIfAbsent(user.getId(), id -> new HashSet<>()).add(session.getToken());
+		}
+		return session;
+	}
+
+	@Override
+	public SessionDto resolve(String authorization, CredentialsDto credentials) {
+		if (authorization != null) {
+			return findSession(authorization);
+		}
+		if (credentials == null || credentials.getUsername() == null || credentials.getPassword() == null) {
+			throw new BadRequestException("Username and password are required");
+		}
+
+		String username = credentials.getUsername();
+		Optional<User> optionalUser = userRepository.findWithMembershipsByCredentialsUsernameAndActiveTrue(username);
+		if (optionalUser.isEmpty()) {
+			throw new NotFoundException("No active users found with the provided credentials.");
+		}
+		User user = optionalUser.get();
+		if (!user.getCredentials().getPassword().equals(credentials.getPassword())) {
+			throw new NotAuthorizedException("Invalid credentials for user: " + username);
+		}
+		return describe(user);
+	}
+
+	@Override
+	public void revokeUser(Long userId) {
+		synchronized (sessions) {
+			Set<String> tokens = tokensByUser.remove(userId);
+			if (tokens != null) {
+				tokens.forEach(sessions::remove);
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${groupfinal.session.sweep-interval:PT5M}")
+	public void evictExpired() {
+		Instant now = Instant.now();
+		synchronized (sessions) {
+			Iterator<SessionDto> oldest = sessions.values().iterator();
+			while (oldest.hasNext()) {
+				SessionDto session = oldest.next();
+				if (!session.getExpiresAt().isBefore(now)) {
+					break;
+				}
+				untrack(session);
+				oldest.remove();
+			}
+		}
+	}
+
+	private SessionDto findSession(String authorization) {
+		if (!authorization.startsWith(BEARER_PREFIX)) {
+			throw new NotAuthorizedException("The authorization header must contain a bearer token.");
+		}
+		String token = authorization.substring(BEARER_PREFIX.length()).trim();
+		synchronized (sessions) {
+			SessionDto session = sessions.get(token);
+			if (session == null) {
+				throw new NotAuthorizedException("The session is invalid or has been revoked. Please log in again.");
+			}
+			if (session.getExpiresAt().isBefore(Instant.now())) {
+				untrack(session);
+				sessions.remove(token);
+				throw new NotAuthorizedException("The session has expired. Please log in again.");
+			}
+			return session;
+		}
+	}
+
+	private void untrack(SessionDto session) {
+		Set<String> tokens = tokensByUser.get(session.getUserId());
+		if (tokens != null && tokens.remove(session.getToken()) && tokens.isEmpty()) {
+			tokensByUser.remove(session.getUserId());
+		}
+	}
+
+	private SessionDto describe(User user) {
+		SessionDto session = new SessionDto();
+		session.setUserId(user.getId());
+		session.setUsername(user.getCredentials().getUsername());
+		session.setAdmin(user.isAdmin());
+		session.setStatus(user.getStatus());
+		session.setCompanyIds(user.getCompanies().stream().map(Company::getId).collect(Collectors.toUnmodifiableSet()));
+		return session;
+	}
+
+	private String newToken() {
+		byte[] bytes = new byte[32];
+		random.nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+}
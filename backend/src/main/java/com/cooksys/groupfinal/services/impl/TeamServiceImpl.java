@@ -1,22 +1,34 @@
 package com.cooksys.groupfinal.services.impl;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.cooksys.groupfinal.config.RetryOnConflict;
 import com.cooksys.groupfinal.dtos.TeamDto;
+import com.cooksys.groupfinal.dtos.TeamMembersRequestDto;
 import com.cooksys.groupfinal.dtos.TeamRequestDto;
 import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.CompanyRevisionListener;
 import com.cooksys.groupfinal.entities.Team;
-import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.entities.TeamStats;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
 import com.cooksys.groupfinal.exceptions.BadRequestException;
 import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.exceptions.PreconditionFailedException;
 import com.cooksys.groupfinal.mappers.TeamMapper;
 import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.CompanyStatsRepository;
 import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.repositories.TeamStatsRepository;
 import com.cooksys.groupfinal.repositories.UserRepository;
 import com.cooksys.groupfinal.services.TeamService;
 
@@ -27,11 +39,18 @@ import lombok.RequiredArgsConstructor;
 public class TeamServiceImpl implements TeamService {
 	private final TeamRepository teamRepository;
 	private final CompanyRepository companyRepository;
+	private final CompanyRevisionListener companyRevisionListener;
+	private final CompanyStatsRepository companyStatsRepository;
+	private final TeamStatsRepository teamStatsRepository;
+	private final ApplicationEventPublisher eventPublisher;
 	private final UserRepository userRepository;
+	private final CollectionCacheEvictor collectionCacheEvictor;
 
 	private final TeamMapper teamMapper;
 
 	@Override
+	@RetryOnConflict
+	@Transactional
 	public TeamDto createTeam(Long companyId, TeamRequestDto request) {
 		if (request == null || request.getName() == null || request.getDescription() == null
 				|| request.getTeammateIds() == null) {
@@ -39,28 +58,35 @@ public class TeamServiceImpl implements TeamService {
 		}
 
 		Company company = findCompany(companyId);
+		validateTeammates(request.getTeammateIds(), companyId);
 
 		Team team = new Team();
 		team.setName(request.getName());
 		team.setDescription(request.getDescription());
 		team.setCompany(company);
+		Long teamId = teamRepository.save(team).getId();
+		companyStatsRepository.adjustTeams(companyId, 1);
+		teamStatsRepository.save(new TeamStats(teamId, companyId, 0));
+		publish(team, CompanyChangeEvent.CREATED);
+
+		if (!request.getTeammateIds().isEmpty()) {
+			teamRepository.addTeammates(teamId, request.getTeammateIds());
+			teammatesChanged(companyId, teamId);
+		}
 
-		Set<User> teammates = resolveTeammates(request.getTeammateIds(), company);
-		attachMembers(team, teammates);
-
-		return teamMapper.entityToDto(teamRepository.saveAndFlush(team));
+		return teamMapper.entityToDto(findTeamWithTeammates(teamId));
 	}
 
 	@Override
-	public TeamDto updateTeam(Long companyId, Long teamId, TeamRequestDto request) {
+	@RetryOnConflict
+	@Transactional
+	public TeamDto updateTeam(Long companyId, Long teamId, TeamRequestDto request, Long expectedVersion) {
 		if (request == null) {
 			throw new BadRequestException("A team update request is required.");
 		}
 
-		Team team = findTeam(teamId);
-		if (!team.getCompany().getId().equals(companyId)) {
-			throw new BadRequestException("The requested team does not belong to the provided company.");
-		}
+		Team team = findTeamInCompany(companyId, teamId);
+		checkVersion(team, expectedVersion);
 
 		if (request.getName() != null) {
 			team.setName(request.getName());
@@ -69,21 +95,66 @@ public class TeamServiceImpl implements TeamService {
 			team.setDescription(request.getDescription());
 		}
 		if (request.getTeammateIds() != null) {
-			Set<User> teammates = resolveTeammates(request.getTeammateIds(), team.getCompany());
-			replaceMembers(team, teammates);
+			validateTeammates(request.getTeammateIds(), companyId);
+			claimVersion(team);
+			if (request.getTeammateIds().isEmpty()) {
+				teamRepository.removeAllTeammates(teamId);
+			} else {
+				teamRepository.retainTeammates(teamId, request.getTeammateIds());
+				teamRepository.addTeammates(teamId, request.getTeammateIds());
+			}
+			teammatesChanged(companyId, teamId);
 		}
 
-		return teamMapper.entityToDto(teamRepository.saveAndFlush(team));
+		Team updated = findTeamWithTeammates(teamId);
+		publish(updated, CompanyChangeEvent.UPDATED);
+		return teamMapper.entityToDto(updated);
 	}
 
 	@Override
-	public void deleteTeam(Long companyId, Long teamId) {
-		Team team = findTeam(teamId);
-		if (!team.getCompany().getId().equals(companyId)) {
-			throw new BadRequestException("The requested team does not belong to the provided company.");
+	@RetryOnConflict
+	@Transactional
+	public TeamDto updateMembers(Long companyId, Long teamId, TeamMembersRequestDto request, Long expectedVersion) {
+		if (request == null || (request.getAddIds() == null && request.getRemoveIds() == null)) {
+			throw new BadRequestException("A list of members to add or remove is required.");
+		}
+
+		Set<Long> addIds = request.getAddIds() == null ? Collections.<Long>emptySet() : request.getAddIds();
+		Set<Long> removeIds = request.getRemoveIds() == null ? Collections.<Long>emptySet() : request.getRemoveIds();
+		if (addIds.stream().anyMatch(Objects::isNull) || removeIds.stream().anyMatch(Objects::isNull)) {
+			throw new BadRequestException("Member IDs cannot be null.");
+		}
+		if (!Collections.disjoint(addIds, removeIds)) {
+			throw new BadRequestException("A member cannot be both added and removed in the same request.");
+		}
+
+		Team team = findTeamInCompany(companyId, teamId);
+		checkVersion(team, expectedVersion);
+		validateTeammates(addIds, companyId);
+		claimVersion(team);
+
+		if (!removeIds.isEmpty()) {
+			teamRepository.removeTeammates(teamId, removeIds);
+		}
+		if (!addIds.isEmpty()) {
+			teamRepository.addTeammates(teamId, addIds);
 		}
-		clearMembers(team);
+		teammatesChanged(companyId, teamId);
+
+		Team updated = findTeamWithTeammates(teamId);
+		publish(updated, CompanyChangeEvent.UPDATED);
+		return teamMapper.entityToDto(updated);
+	}
+
+	@Override
+	@RetryOnConflict
+	@Transactional
+	public void deleteTeam(Long companyId, Long teamId) {
+		Team team = findTeamInCompany(companyId, teamId);
+		companyStatsRepository.adjustTeams(companyId, -1);
+		teamStatsRepository.deleteTeam(teamId);
 		teamRepository.delete(team);
+		publish(team, CompanyChangeEvent.DELETED);
 	}
 
 	private Company findCompany(Long companyId) {
@@ -94,54 +165,71 @@ public class TeamServiceImpl implements TeamService {
 		return optionalCompany.get();
 	}
 
-	private Team findTeam(Long teamId) {
+	private Team findTeamInCompany(Long companyId, Long teamId) {
 		Optional<Team> optionalTeam = teamRepository.findById(teamId);
 		if (optionalTeam.isEmpty()) {
 			throw new NotFoundException("No team found with id: " + teamId);
 		}
+		if (!optionalTeam.get().getCompany().getId().equals(companyId)) {
+			throw new BadRequestException("The requested team does not belong to the provided company.");
+		}
 		return optionalTeam.get();
 	}
 
-	private Set<User> resolveTeammates(Set<Long> teammateIds, Company company) {
-		Set<User> teammates = new HashSet<>();
-		if (teammateIds == null || teammateIds.isEmpty()) {
-			return teammates;
+	private Team findTeamWithTeammates(Long teamId) {
+		Optional<Team> optionalTeam = teamRepository.findWithTeammatesById(teamId);
+		if (optionalTeam.isEmpty()) {
+			throw new NotFoundException("No team found with id: " + teamId);
 		}
+		return optionalTeam.get();
+	}
 
-		List<User> users = userRepository.findByIdInAndActiveTrue(teammateIds);
-		if (users.size() != teammateIds.size()) {
-			throw new BadRequestException("One or more teammate IDs are invalid or inactive.");
-		}
+	private void publish(Team team, String op) {
+		eventPublisher.publishEvent(new CompanyChangeEvent(team.getCompany().getId(), CompanyChangeEvent.TEAM,
+				team.getId(), op, team::getVersion));
+	}
 
-		for (User user : users) {
-			if (!user.getCompanies().contains(company)) {
-				throw new BadRequestException("User with id " + user.getId() + " is not assigned to this company.");
-			}
-			teammates.add(user);
+	private void checkVersion(Team team, Long expectedVersion) {
+		if (expectedVersion != null && expectedVersion != team.getVersion()) {
+			throw new PreconditionFailedException(
+					"The team has changed since version " + expectedVersion + "; it is now at " + team.getVersion() + ".");
 		}
-		return teammates;
 	}
 
-	private void attachMembers(Team team, Set<User> members) {
-		for (User user : members) {
-			user.getTeams().add(team);
-			userRepository.saveAndFlush(user);
+	/**
+	 * Bumps the team's version for a membership change, which is written with
+	 * set-based SQL and would otherwise leave it alone. Fails like a stale
+	 * update if another writer moved the team on since it was read.
+	 */
+	private void claimVersion(Team team) {
+		// Any pending edit goes first, so the version compared is the one it wrote
+		teamRepository.flush();
+		if (teamRepository.incrementVersion(team.getId(), team.getVersion()) == 0) {
+			throw new ObjectOptimisticLockingFailureException(Team.class, team.getId());
 		}
-		team.setTeammates(members);
+		collectionCacheEvictor.evictEntities(Team.class, List.of(team.getId()));
 	}
 
-	private void replaceMembers(Team team, Set<User> newMembers) {
-		clearMembers(team);
-		attachMembers(team, newMembers);
+	private void teammatesChanged(Long companyId, Long teamId) {
+		collectionCacheEvictor.evict(Team.class, "teammates", List.of(teamId));
+		companyRevisionListener.touch(companyId);
 	}
 
-	private void clearMembers(Team team) {
-		Set<User> existingMembers = new HashSet<>(team.getTeammates());
-		for (User user : existingMembers) {
-			user.getTeams().remove(team);
-			userRepository.saveAndFlush(user);
+	private void validateTeammates(Set<Long> teammateIds, Long companyId) {
+		if (teammateIds.isEmpty()) {
+			return;
+		}
+		if (teammateIds.stream().anyMatch(Objects::isNull)) {
+			throw new BadRequestException("Teammate IDs cannot be null.");
+		}
+
+		Set<Long> validIds = userRepository.findActiveEmployeeIds(companyId, teammateIds);
+		if (validIds.size() != teammateIds.size()) {
+			Set<Long> invalidIds = new TreeSet<>(teammateIds);
+			invalidIds.removeAll(validIds);
+			throw new BadRequestException(
+					"Teammate IDs are invalid, inactive, or not assigned to this company: " + invalidIds);
 		}
-		team.getTeammates().clear();
 	}
 
 }
@@ -0,0 +1,206 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.http.MediaType;
+
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.ProfileDto;
+import com.cooksys.groupfinal.dtos.UserRequestDto;
+import com.cooksys.groupfinal.exceptions.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads user import rows one line at a time from an NDJSON or CSV upload so
+ * the whole upload never has to be held in memory. NDJSON lines use the same
+ * shape as the single user creation request. CSV uploads start with a header
+ * row naming the columns username, password, firstName, lastName, email,
+ * phone and admin, in any order.
+ */
+class UserImportReader implements Iterator<UserImportReader.Row> {
+
+	static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+	static class Row {
+		final int number;
+		final UserRequestDto request;
+		final String error;
+
+		Row(int number, UserRequestDto request, String error) {
+			this.number = number;
+			this.request = request;
+			this.error = error;
+		}
+	}
+
+	private final BufferedReader reader;
+	private final ObjectMapper objectMapper;
+	private final boolean csv;
+	private Map<String, Integer> columns;
+	private int lineNumber;
+	private String nextLine;
+
+	private UserImportReader(BufferedReader reader, ObjectMapper objectMapper, boolean csv) {
+		this.reader = reader;
+		this.objectMapper = objectMapper;
+		this.csv = csv;
+	}
+
+	static UserImportReader open(InputStream input, String contentType, ObjectMapper objectMapper) {
+		MediaType mediaType;
+		try {
+			mediaType = MediaType.parseMediaType(contentType);
+		} catch (RuntimeException e) {
+			throw new BadRequestException("Imports must be sent as NDJSON or CSV.");
+		}
+
+		boolean csv;
+		if (MediaType.APPLICATION_NDJSON.includes(mediaType)) {
+			csv = false;
+		} else if (TEXT_CSV.includes(mediaType)) {
+			csv = true;
+		} else {
+			throw new BadRequestException("Imports must be sent as NDJSON or CSV.");
+		}
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		UserImportReader importReader = new UserImportReader(reader, objectMapper, csv);
+		if (csv) {
+			importReader.readHeader();
+		}
+		return importReader;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (nextLine != null) {
+			return true;
+		}
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (!line.isBlank()) {
+					nextLine = line;
+					return true;
+				}
+			}
+			return false;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public Row next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		String line = nextLine;
+		nextLine = null;
+		return csv ? parseCsv(line) : parseJson(line);
+	}
+
+	private void readHeader() {
+		if (!hasNext()) {
+			throw new BadRequestException("CSV imports must start with a header row.");
+		}
+		List<String> header = splitCsv(nextLine);
+		nextLine = null;
+		columns = new HashMap<>();
+		for (int i = 0; i < header.size(); i++) {
+			columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+		}
+		if (!columns.containsKey("username") || !columns.containsKey("password") || !columns.containsKey("email")) {
+			throw new BadRequestException("CSV imports must include username, password and email columns.");
+		}
+	}
+
+	private Row parseJson(String line) {
+		try {
+			return new Row(lineNumber, objectMapper.readValue(line, UserRequestDto.class), null);
+		} catch (JsonProcessingException e) {
+			return new Row(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+		}
+	}
+
+	private Row parseCsv(String line) {
+		List<String> values = splitCsv(line);
+		if (values == null) {
+			return new Row(lineNumber, null, "Malformed CSV: unterminated quoted value.");
+		}
+
+		CredentialsDto credentials = new CredentialsDto();
+		credentials.setUsername(column(values, "username"));
+		credentials.setPassword(column(values, "password"));
+
+		ProfileDto profile = new ProfileDto();
+		profile.setFirstName(column(values, "firstname"));
+		profile.setLastName(column(values, "lastname"));
+		profile.setEmail(column(values, "email"));
+		profile.setPhone(column(values, "phone"));
+
+		UserRequestDto request = new UserRequestDto();
+		request.setCredentials(credentials);
+		request.setProfile(profile);
+		request.setAdmin(Boolean.parseBoolean(column(values, "admin")));
+		return new Row(lineNumber, request, null);
+	}
+
+	private String column(List<String> values, String name) {
+		Integer index = columns.get(name);
+		if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+			return null;
+		}
+		return values.get(index);
+	}
+
+	/**
+	 * Splits one CSV record, honouring double-quoted values and doubled quotes
+	 * inside them. Returns null when a quoted value is not closed on the line.
+	 */
+	private static List<String> splitCsv(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					value.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					value.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(value.toString().trim());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		if (quoted) {
+			return null;
+		}
+		values.add(value.toString().trim());
+		return values;
+	}
+
+}
@@ -0,0 +1,229 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.dtos.UserImportResultDto;
+import com.cooksys.groupfinal.dtos.UserRequestDto;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.CompanyRevisionListener;
+import com.cooksys.groupfinal.entities.Credentials;
+import com.cooksys.groupfinal.entities.Profile;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.CompanyStatsRepository;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.SessionService;
+import com.cooksys.groupfinal.services.UserImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Onboards users into a company from a streamed upload. Rows are read and
+ * written in fixed-size chunks, each in its own transaction, so memory use
+ * depends on the chunk size rather than the size of the upload. Each chunk
+ * looks up existing usernames and memberships with one query apiece, inserts
+ * new users in JDBC batches and adds the company_employees rows with a single
+ * statement, without loading Company.employees.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+	static final String CREATED = "CREATED";
+	static final String ADDED = "ADDED";
+	static final String ALREADY_MEMBER = "ALREADY_MEMBER";
+	static final String REJECTED = "REJECTED";
+	static final String FAILED = "FAILED";
+
+	private final UserRepository userRepository;
+	private final CompanyRepository companyRepository;
+	private final CompanyRevisionListener companyRevisionListener;
+	private final CompanyStatsRepository companyStatsRepository;
+	private final SessionService sessionService;
+	private final CollectionCacheEvictor collectionCacheEvictor;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+	private final int chunkSize;
+
+	public UserImportServiceImpl(UserRepository userRepository, CompanyRepository companyRepository,
+			CompanyRevisionListener companyRevisionListener, CompanyStatsRepository companyStatsRepository,
+			SessionService sessionService,
+			CollectionCacheEvictor collectionCacheEvictor, ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+			ApplicationEventPublisher eventPublisher, @Value("${groupfinal.import.chunk-size:500}") int chunkSize) {
+		this.userRepository = userRepository;
+		this.companyRepository = companyRepository;
+		this.companyRevisionListener = companyRevisionListener;
+		this.companyStatsRepository = companyStatsRepository;
+		this.sessionService = sessionService;
+		this.collectionCacheEvictor = collectionCacheEvictor;
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = transactionTemplate;
+		this.eventPublisher = eventPublisher;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public void importUsers(Long companyId, String contentType, InputStream input,
+			Consumer<UserImportResultDto> results) {
+		if (!companyRepository.existsById(companyId)) {
+			throw new NotFoundException("No company found with id: " + companyId);
+		}
+
+		UserImportReader reader = UserImportReader.open(input, contentType, objectMapper);
+		List<UserImportReader.Row> chunk = new ArrayList<>(chunkSize);
+		while (reader.hasNext()) {
+			chunk.add(reader.next());
+			if (chunk.size() == chunkSize) {
+				importChunk(companyId, chunk).forEach(results);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			importChunk(companyId, chunk).forEach(results);
+		}
+	}
+
+	private List<UserImportResultDto> importChunk(Long companyId, List<UserImportReader.Row> chunk) {
+		List<UserImportResultDto> report = new ArrayList<>(chunk.size());
+		Map<String, UserImportResultDto> pending = new LinkedHashMap<>();
+		Map<String, UserRequestDto> requests = new LinkedHashMap<>();
+
+		for (UserImportReader.Row row : chunk) {
+			String username = row.request == null || row.request.getCredentials() == null ? null
+					: row.request.getCredentials().getUsername();
+			UserImportResultDto result = new UserImportResultDto(row.number, username, null, null, null);
+			report.add(result);
+
+			String problem = row.error != null ? row.error : validate(row.request);
+			if (problem == null && pending.containsKey(username)) {
+				problem = "Username appears more than once in the upload.";
+			}
+			if (problem != null) {
+				result.setStatus(REJECTED);
+				result.setMessage(problem);
+			} else {
+				pending.put(username, result);
+				requests.put(username, row.request);
+			}
+		}
+
+		if (!pending.isEmpty()) {
+			try {
+				List<Long> joinedIds = transactionTemplate.execute(status -> writeChunk(companyId, pending, requests));
+				joinedIds.forEach(sessionService::revokeUser);
+			} catch (DataAccessException | TransactionException e) {
+				for (UserImportResultDto result : pending.values()) {
+					result.setStatus(FAILED);
+					result.setUserId(null);
+					result.setMessage("The rows around this one could not be saved and were rolled back.");
+				}
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Writes one chunk and returns the ids of existing users that joined the
+	 * company, whose sessions no longer reflect their memberships.
+	 */
+	private List<Long> writeChunk(Long companyId, Map<String, UserImportResultDto> pending,
+			Map<String, UserRequestDto> requests) {
+		Map<String, User> existing = userRepository.findByCredentialsUsernameIn(pending.keySet()).stream()
+				.collect(Collectors.toMap(user -> user.getCredentials().getUsername(), Function.identity()));
+		Set<Long> members = existing.isEmpty() ? Collections.emptySet()
+				: userRepository.findEmployeeIds(companyId,
+						existing.values().stream().map(User::getId).collect(Collectors.toList()));
+
+		List<User> created = new ArrayList<>();
+		List<User> added = new ArrayList<>();
+		List<Long> joinedIds = new ArrayList<>();
+		long activeJoined = 0;
+		long pendingJoined = 0;
+		for (Map.Entry<String, UserImportResultDto> entry : pending.entrySet()) {
+			UserImportResultDto result = entry.getValue();
+			User user = existing.get(entry.getKey());
+			if (user == null) {
+				created.add(newUser(requests.get(entry.getKey())));
+				result.setStatus(CREATED);
+			} else if (members.contains(user.getId())) {
+				result.setStatus(ALREADY_MEMBER);
+				result.setUserId(user.getId());
+			} else {
+				result.setStatus(ADDED);
+				result.setUserId(user.getId());
+				joinedIds.add(user.getId());
+				added.add(user);
+				if (user.isActive()) {
+					activeJoined++;
+					pendingJoined += user.getStatus().equals("PENDING") ? 1 : 0;
+				}
+			}
+		}
+
+		List<Long> addIds = new ArrayList<>(joinedIds);
+		for (User user : userRepository.saveAll(created)) {
+			pending.get(user.getCredentials().getUsername()).setUserId(user.getId());
+			addIds.add(user.getId());
+			added.add(user);
+		}
+		if (!addIds.isEmpty()) {
+			companyRepository.addEmployees(companyId, addIds);
+			collectionCacheEvictor.evict(Company.class, "employees", List.of(companyId));
+			companyRevisionListener.touch(companyId);
+			// Created users are always active and pending
+			companyStatsRepository.adjustUsers(companyId, activeJoined + created.size(),
+					pendingJoined + created.size());
+			added.forEach(user -> eventPublisher.publishEvent(new CompanyChangeEvent(companyId,
+					CompanyChangeEvent.USER, user.getId(), CompanyChangeEvent.CREATED, user::getVersion)));
+		}
+		return joinedIds;
+	}
+
+	private String validate(UserRequestDto request) {
+		if (request == null || request.getCredentials() == null || request.getProfile() == null
+				|| request.getCredentials().getUsername() == null || request.getCredentials().getPassword() == null
+				|| request.getProfile().getEmail() == null) {
+			return "Missing required parameters in creation request.";
+		}
+		return null;
+	}
+
+	private User newUser(UserRequestDto request) {
+		User user = new User();
+
+		Credentials credentials = new Credentials();
+		credentials.setUsername(request.getCredentials().getUsername());
+		credentials.setPassword(request.getCredentials().getPassword());
+		user.setCredentials(credentials);
+
+		Profile profile = new Profile();
+		profile.setEmail(request.getProfile().getEmail());
+		profile.setLastName(request.getProfile().getLastName());
+		profile.setFirstName(request.getProfile().getFirstName());
+		profile.setPhone(request.getProfile().getPhone());
+		user.setProfile(profile);
+
+		user.setActive(true);
+		user.setAdmin(request.isAdmin());
+		user.setStatus("PENDING");
+		return user;
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.SessionDto;
+import com.cooksys.groupfinal.dtos.UserPurgeDto;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.exceptions.BadRequestException;
+import com.cooksys.groupfinal.exceptions.NotAuthorizedException;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.SessionService;
+import com.cooksys.groupfinal.services.UserPurgeService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Purges long-deactivated users on a background thread. Each batch is locked,
+ * purged and committed in its own short transaction, and the thread pauses
+ * between batches, so live requests only ever wait on a batch's worth of rows.
+ */
+@Slf4j
+@Service
+public class UserPurgeServiceImpl implements UserPurgeService {
+
+	private static final String RUNNING = "RUNNING";
+	private static final String COMPLETED = "COMPLETED";
+	private static final String FAILED = "FAILED";
+
+	private final UserRepository userRepository;
+	private final SessionService sessionService;
+	private final UserPurger userPurger;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final Duration pause;
+	private final ExecutorService purger = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("user-purge-"));
+	private Job current;
+
+	public UserPurgeServiceImpl(UserRepository userRepository, SessionService sessionService, UserPurger userPurger,
+			PlatformTransactionManager transactionManager,
+			@Value("${groupfinal.purge.batch-size:200}") int batchSize,
+			@Value("${groupfinal.purge.pause:PT0.2S}") Duration pause) {
+		this.userRepository = userRepository;
+		this.sessionService = sessionService;
+		this.userPurger = userPurger;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		this.pause = pause;
+	}
+
+	@Override
+	public synchronized UserPurgeDto startPurge(int inactiveDays, CredentialsDto credentials, String authorization) {
+		validateAdmin(sessionService.resolve(authorization, credentials));
+		if (inactiveDays < 1) {
+			throw new BadRequestException("Users must have been inactive for at least one day to be purged.");
+		}
+		if (current != null && current.status.equals(RUNNING)) {
+			throw new BadRequestException("A purge is already running.");
+		}
+		Instant now = Instant.now();
+		Job job = new Job(inactiveDays, Timestamp.from(now.minus(Duration.ofDays(inactiveDays))),
+				Timestamp.from(now));
+		current = job;
+		purger.execute(() -> run(job));
+		return job.toDto();
+	}
+
+	@Override
+	public synchronized UserPurgeDto getPurge(String authorization) {
+		validateAdmin(sessionService.resolve(authorization, null));
+		if (current == null) {
+			throw new NotFoundException("No purge has been started.");
+		}
+		return current.toDto();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		purger.shutdownNow();
+	}
+
+	private void run(Job job) {
+		try {
+			int purged;
+			do {
+				purged = transactionTemplate.execute(status -> {
+					List<User> users = userRepository.findPurgeable(job.cutoff, PageRequest.of(0, batchSize));
+					userPurger.purge(users);
+					return users.size();
+				});
+				job.purged.addAndGet(purged);
+				if (purged == batchSize) {
+					Thread.sleep(pause.toMillis());
+				}
+			} while (purged == batchSize);
+			job.finish(COMPLETED);
+			log.info("Purged {} users deactivated before {}", job.purged, job.cutoff);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			job.finish(FAILED);
+		} catch (RuntimeException e) {
+			job.finish(FAILED);
+			log.error("Purge of users deactivated before {} failed after {} users", job.cutoff, job.purged, e);
+		}
+	}
+
+	private void validateAdmin(SessionDto admin) {
+		if (!admin.isAdmin() || !admin.getStatus().equals("JOINED")) {
+			throw new NotAuthorizedException("Insufficient permissions for user: " + admin.getUsername());
+		}
+	}
+
+	/**
+	 * Written by the purge thread and read by requests.
+	 */
+	private static class Job {
+
+		private final int inactiveDays;
+		private final Timestamp cutoff;
+		private final Timestamp startedAt;
+		private final AtomicLong purged = new AtomicLong();
+		private volatile String status = RUNNING;
+		private volatile Timestamp finishedAt;
+
+		private Job(int inactiveDays, Timestamp cutoff, Timestamp startedAt) {
+			this.inactiveDays = inactiveDays;
+			this.cutoff = cutoff;
+			this.startedAt = startedAt;
+		}
+
+		private void finish(String outcome) {
+			finishedAt = Timestamp.from(Instant.now());
+			status = outcome;
+		}
+
+		private UserPurgeDto toDto() {
+			return new UserPurgeDto(inactiveDays, cutoff, status, purged.get(), startedAt, finishedAt);
+		}
+
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.CompanyRevisionListener;
+import com.cooksys.groupfinal.entities.Team;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
+import com.cooksys.groupfinal.repositories.AnnouncementRepository;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.SessionService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Deletes users along with their memberships and authorship using a fixed
+ * number of set-based statements, however many teams, companies and
+ * announcements they have, rather than loading and rewriting each parent's
+ * collection. Runs in the caller's transaction and leaves statistics to it.
+ */
+@Component
+@RequiredArgsConstructor
+class UserPurger {
+
+	private final UserRepository userRepository;
+	private final AnnouncementRepository announcementRepository;
+	private final SessionService sessionService;
+	private final CompanyRevisionListener companyRevisionListener;
+	private final CollectionCacheEvictor collectionCacheEvictor;
+	private final ApplicationEventPublisher eventPublisher;
+
+	void purge(Collection<User> users) {
+		if (users.isEmpty()) {
+			return;
+		}
+		List<Long> userIds = users.stream().map(User::getId).collect(Collectors.toList());
+		Set<Long> companyIds = new HashSet<>();
+		for (User user : users) {
+			sessionService.revokeUser(user.getId());
+			// Published while the memberships still say which companies to tell
+			user.getCompanies().forEach(company -> {
+				companyIds.add(company.getId());
+				eventPublisher.publishEvent(new CompanyChangeEvent(company.getId(), CompanyChangeEvent.USER,
+						user.getId(), CompanyChangeEvent.DELETED, user::getVersion));
+			});
+		}
+		// The bulk statements below fire no entity events, so the revisions are bumped by hand
+		companyIds.forEach(companyRevisionListener::touch);
+		collectionCacheEvictor.evict(Team.class, "teammates", userRepository.findTeamIdsByTeammateIds(userIds));
+		collectionCacheEvictor.evict(Company.class, "employees", companyIds);
+
+		announcementRepository.clearAuthor(userIds);
+		// Hibernate's bulk delete also removes the users' team and company join rows
+		userRepository.deleteByIdIn(userIds);
+	}
+
+}
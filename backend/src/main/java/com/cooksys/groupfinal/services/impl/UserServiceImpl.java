@@ -1,26 +1,40 @@
 package com.cooksys.groupfinal.services.impl;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.cooksys.groupfinal.config.RetryOnConflict;
 import com.cooksys.groupfinal.dtos.CredentialsDto;
 import com.cooksys.groupfinal.dtos.FullUserDto;
 import com.cooksys.groupfinal.dtos.ProfileDto;
+import com.cooksys.groupfinal.dtos.SessionDto;
+import com.cooksys.groupfinal.dtos.SessionUserDto;
 import com.cooksys.groupfinal.dtos.UserRequestDto;
 import com.cooksys.groupfinal.dtos.UserUpdateRequestDto;
 import com.cooksys.groupfinal.entities.Company;
 import com.cooksys.groupfinal.entities.Credentials;
 import com.cooksys.groupfinal.entities.Profile;
 import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
 import com.cooksys.groupfinal.exceptions.BadRequestException;
 import com.cooksys.groupfinal.exceptions.NotAuthorizedException;
 import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.exceptions.PreconditionFailedException;
 import com.cooksys.groupfinal.mappers.CredentialsMapper;
 import com.cooksys.groupfinal.mappers.FullUserMapper;
+import com.cooksys.groupfinal.mappers.SessionUserMapper;
 import com.cooksys.groupfinal.repositories.CompanyRepository;
-import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.repositories.CompanyStatsRepository;
 import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.SessionService;
 import com.cooksys.groupfinal.services.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -31,13 +45,17 @@ public class UserServiceImpl implements UserService {
 
 	private final UserRepository userRepository;
 	private final CompanyRepository companyRepository;
-	private final TeamRepository teamRepository;
+	private final CompanyStatsRepository companyStatsRepository;
+	private final SessionService sessionService;
+	private final UserPurger userPurger;
+	private final ApplicationEventPublisher eventPublisher;
 
 	private final FullUserMapper fullUserMapper;
+	private final SessionUserMapper sessionUserMapper;
 	private final CredentialsMapper credentialsMapper;
 
 	private User findActiveUser(String username) {
-		Optional<User> user = userRepository.findByCredentialsUsernameAndActiveTrue(username);
+		Optional<User> user = userRepository.findWithMembershipsByCredentialsUsernameAndActiveTrue(username);
 		if (user.isEmpty()) {
 			throw new NotFoundException("The credentials provided do not belong to an active user.");
 		}
@@ -53,7 +71,29 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
-	public FullUserDto login(CredentialsDto credentialsDto) {
+	@RetryOnConflict
+	@Transactional
+	public SessionUserDto login(CredentialsDto credentialsDto) {
+		User user = authenticate(credentialsDto);
+		SessionUserDto sessionUser = sessionUserMapper.entityToSessionUserDto(user);
+		// Opened only once the login commits, so a rolled back or retried attempt leaves no live session
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				sessionUser.setToken(sessionService.openSession(user).getToken());
+			}
+		});
+		return sessionUser;
+	}
+
+	@Override
+	@RetryOnConflict
+	@Transactional
+	public FullUserDto loginFull(CredentialsDto credentialsDto) {
+		return fullUserMapper.entityToFullUserDto(authenticate(credentialsDto));
+	}
+
+	private User authenticate(CredentialsDto credentialsDto) {
 		if (credentialsDto == null || credentialsDto.getUsername() == null || credentialsDto.getPassword() == null) {
 			throw new BadRequestException("A username and password are required.");
 		}
@@ -63,13 +103,16 @@ public class UserServiceImpl implements UserService {
 			throw new NotAuthorizedException("The provided credentials are invalid.");
 		}
 		if (userToValidate.getStatus().equals("PENDING")) {
+			companyStatsRepository.adjustUsersOfMember(userToValidate.getId(), 0, -1);
 			userToValidate.setStatus("JOINED");
-			userRepository.saveAndFlush(userToValidate);
+			publish(userToValidate, CompanyChangeEvent.UPDATED);
 		}
-		return fullUserMapper.entityToFullUserDto(userToValidate);
+		return userToValidate;
 	}
 
 	@Override
+	@RetryOnConflict
+	@Transactional
 	public FullUserDto addUser(Long companyId, UserRequestDto request) {
 		// Validate request
 		if (request == null || request.getProfile() == null || request.getCredentials() == null
@@ -106,129 +149,141 @@ public class UserServiceImpl implements UserService {
 			user.setStatus("PENDING");
 		} else {
 			user = optionalUser.get();
+			sessionService.revokeUser(user.getId());
 		}
 
+		boolean joined = !user.getCompanies().contains(company);
+		if (joined && user.isActive()) {
+			companyStatsRepository.adjustUsers(companyId, 1, user.getStatus().equals("PENDING") ? 1 : 0);
+		}
 		user.getCompanies().add(company);
-		user = userRepository.saveAndFlush(user);
+		User added = userRepository.save(user);
 
-		// save user to company
-		company.getEmployees().add(user);
-		companyRepository.saveAndFlush(company);
+		// The company owns the membership, so this is what writes it at commit
+		company.getEmployees().add(added);
 
-		return fullUserMapper.entityToFullUserDto(user);
+		eventPublisher.publishEvent(new CompanyChangeEvent(companyId, CompanyChangeEvent.USER, added.getId(),
+				joined ? CompanyChangeEvent.CREATED : CompanyChangeEvent.UPDATED, added::getVersion));
+		return fullUserMapper.entityToFullUserDto(added);
 
 	}
 
 	@Override
-	public FullUserDto updateUser(Long id, UserUpdateRequestDto request) {
+	@RetryOnConflict
+	@Transactional
+	public FullUserDto updateUser(Long id, UserUpdateRequestDto request, Long expectedVersion) {
 		if (request == null || (request.getProfile() == null && request.getCredentials() == null)) {
 			throw new BadRequestException("A profile or credential update must be provided.");
 		}
 
 		User userToUpdate = findUserById(id);
+		if (expectedVersion != null && expectedVersion != userToUpdate.getVersion()) {
+			throw new PreconditionFailedException("The user has changed since version " + expectedVersion
+					+ "; it is now at " + userToUpdate.getVersion() + ".");
+		}
+		boolean changed = false;
 
 		if (request.getProfile() != null) {
-			applyProfileUpdates(userToUpdate, request.getProfile());
+			changed |= applyProfileUpdates(userToUpdate, request.getProfile());
 		}
 
 		if (request.getCredentials() != null) {
-			applyCredentialUpdates(userToUpdate, request.getCredentials());
+			changed |= applyCredentialUpdates(userToUpdate, request.getCredentials());
 		}
 
-		return fullUserMapper.entityToFullUserDto(userRepository.saveAndFlush(userToUpdate));
+		if (changed) {
+			// Sessions carry a snapshot of the user, so any change invalidates them
+			sessionService.revokeUser(id);
+			publish(userToUpdate, CompanyChangeEvent.UPDATED);
+			// Flushed here so the version returned is the one this update commits
+			userRepository.flush();
+		}
+		return fullUserMapper.entityToFullUserDto(userToUpdate);
 	}
 
 	@Override
+	@RetryOnConflict
+	@Transactional
 	public void deleteUser(Long id) {
 		User user = findUserById(id);
+		if (user.isActive()) {
+			adjustStats(user, -1);
+			user.setDeactivatedAt(Timestamp.from(Instant.now()));
+		}
 		user.setActive(false);
-		userRepository.saveAndFlush(user);
+		sessionService.revokeUser(id);
+		publish(user, CompanyChangeEvent.UPDATED);
 	}
 	
 	@Override
+	@RetryOnConflict
+	@Transactional
 	public void deleteUserPermanent(Long id) {
 		User user = findUserById(id);
-		
-		// detach from teams
-		if (user.getTeams() != null && !user.getTeams().isEmpty()) {
-			user.getTeams().forEach(team -> team.getTeammates().remove(user));
-			teamRepository.saveAll(user.getTeams());
-		}
-		
-		// detach from companies
-		if (user.getCompanies() != null && !user.getCompanies().isEmpty()) {
-			user.getCompanies().forEach(company -> company.getEmployees().remove(user));
-			companyRepository.saveAll(user.getCompanies());
-		}
-		
-		userRepository.delete(user);
+		if (user.isActive()) {
+			adjustStats(user, -1);
+		}
+		userPurger.purge(List.of(user));
 	}
 
 	@Override
-	public FullUserDto reinstateUser(Long userId, CredentialsDto request) {
-		User requester = getUserFromCredentials(request);
-		validateAdminForCompany(requester);
+	@RetryOnConflict
+	@Transactional
+	public FullUserDto reinstateUser(Long userId, CredentialsDto request, String authorization) {
+		SessionDto requester = sessionService.resolve(authorization, request);
+		validateAdmin(requester);
 
 		User userToReinstate = findUserById(userId);
+		if (!userToReinstate.isActive()) {
+			adjustStats(userToReinstate, 1);
+		}
 		userToReinstate.setActive(true);
+		userToReinstate.setDeactivatedAt(null);
+		publish(userToReinstate, CompanyChangeEvent.UPDATED);
+		return fullUserMapper.entityToFullUserDto(userToReinstate);
+	}
 
-		return fullUserMapper.entityToFullUserDto(userRepository.saveAndFlush(userToReinstate));
+	/**
+	 * Tells every company the user belongs to about the change. Must run before
+	 * the user's memberships are removed.
+	 */
+	private void publish(User user, String op) {
+		user.getCompanies().forEach(company -> eventPublisher.publishEvent(new CompanyChangeEvent(company.getId(),
+				CompanyChangeEvent.USER, user.getId(), op, user::getVersion)));
 	}
 
-	private void applyProfileUpdates(User user, ProfileDto profileDto) {
-		Profile profile = user.getProfile();
-		if (profile == null) {
-			profile = new Profile();
-		}
-		if (profileDto.getFirstName() != null) {
-			profile.setFirstName(profileDto.getFirstName());
-		}
-		if (profileDto.getLastName() != null) {
-			profile.setLastName(profileDto.getLastName());
-		}
-		if (profileDto.getEmail() != null) {
-			profile.setEmail(profileDto.getEmail());
-		}
-		if (profileDto.getPhone() != null) {
-			profile.setPhone(profileDto.getPhone());
-		}
-		user.setProfile(profile);
+	/**
+	 * Counts an active user in or out of every company they belong to.
+	 */
+	private void adjustStats(User user, long sign) {
+		companyStatsRepository.adjustUsersOfMember(user.getId(), sign, user.getStatus().equals("PENDING") ? sign : 0);
 	}
 
-	private void applyCredentialUpdates(User user, CredentialsDto credentialsDto) {
-		Credentials credentials = user.getCredentials();
-		if (credentials == null) {
-			credentials = new Credentials();
-		}
-		if (credentialsDto.getUsername() != null) {
-			credentials.setUsername(credentialsDto.getUsername());
-		}
-		if (credentialsDto.getPassword() != null) {
-			credentials.setPassword(credentialsDto.getPassword());
-		}
-		user.setCredentials(credentials);
+	private boolean applyProfileUpdates(User user, ProfileDto profileDto) {
+		Profile profile = user.getProfile() == null ? new Profile() : user.getProfile();
+		Profile updated = new Profile();
+		updated.setFirstName(profileDto.getFirstName() != null ? profileDto.getFirstName() : profile.getFirstName());
+		updated.setLastName(profileDto.getLastName() != null ? profileDto.getLastName() : profile.getLastName());
+		updated.setEmail(profileDto.getEmail() != null ? profileDto.getEmail() : profile.getEmail());
+		updated.setPhone(profileDto.getPhone() != null ? profileDto.getPhone() : profile.getPhone());
+		user.setProfile(updated);
+		return !updated.equals(profile);
 	}
 
-	private User getUserFromCredentials(CredentialsDto credentialsDto) {
-		if (credentialsDto.getPassword() == null || credentialsDto.getUsername() == null) {
-			throw new BadRequestException("Username and password are required");
-		}
-		String username = credentialsDto.getUsername();
-		Optional<User> optionalUser = userRepository.findByCredentialsUsernameAndActiveTrue(username);
-		if (optionalUser.isEmpty()) {
-			throw new NotFoundException("No active users found with the provided credentials.");
-		}
-		User user = optionalUser.get();
-		if (!user.getCredentials().getPassword().equals(credentialsDto.getPassword())) {
-			throw new NotAuthorizedException("Invalid credentials for user: " + username);
-		}
-		return user;
+	private boolean applyCredentialUpdates(User user, CredentialsDto credentialsDto) {
+		Credentials credentials = user.getCredentials() == null ? new Credentials() : user.getCredentials();
+		Credentials updated = new Credentials();
+		updated.setUsername(
+				credentialsDto.getUsername() != null ? credentialsDto.getUsername() : credentials.getUsername());
+		updated.setPassword(
+				credentialsDto.getPassword() != null ? credentialsDto.getPassword() : credentials.getPassword());
+		user.setCredentials(updated);
+		return !updated.equals(credentials);
 	}
 
-	private void validateAdminForCompany(User admin) {
+	private void validateAdmin(SessionDto admin) {
 		if (!admin.isAdmin() || !admin.getStatus().equals("JOINED")) {
-			throw new NotAuthorizedException(
-					"Insufficient permissions for user: " + admin.getCredentials().getUsername());
+			throw new NotAuthorizedException("Insufficient permissions for user: " + admin.getUsername());
 		}
 	}
 
@@ -0,0 +1,234 @@
+package com.cooksys.groupfinal.services.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.dtos.BasicUserDto;
+import com.cooksys.groupfinal.dtos.SnapshotUserDto;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
+import com.cooksys.groupfinal.exceptions.BadRequestException;
+import com.cooksys.groupfinal.exceptions.NotFoundException;
+import com.cooksys.groupfinal.mappers.BasicUserMapper;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.UserSuggestService;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers teammate typeahead from memory. Each company keeps its active
+ * users' search keys as "key\0id" entries in a sorted set, so a prefix lookup
+ * is a range scan. A single indexer thread builds each company once the
+ * application is ready and then applies committed user changes by reloading
+ * only the users involved, so lookups never wait on the database.
+ */
+@Slf4j
+@Service
+public class UserSuggestServiceImpl implements UserSuggestService {
+
+	private static final int MAX_LIMIT = 50;
+	private static final int RELOAD_CHUNK = 500;
+	private static final char SEPARATOR = '\0';
+
+	private final UserRepository userRepository;
+	private final CompanyRepository companyRepository;
+	private final BasicUserMapper basicUserMapper;
+	private final TransactionTemplate transactionTemplate;
+	private final ExecutorService indexer = Executors
+			.newSingleThreadExecutor(new CustomizableThreadFactory("user-suggest-"));
+	private final Map<Long, CompanyIndex> companies = new ConcurrentHashMap<>();
+	private final Queue<CompanyChangeEvent> changes = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	public UserSuggestServiceImpl(UserRepository userRepository, CompanyRepository companyRepository,
+			BasicUserMapper basicUserMapper,
+			PlatformTransactionManager transactionManager) {
+		this.userRepository = userRepository;
+		this.companyRepository = companyRepository;
+		this.basicUserMapper = basicUserMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+	}
+
+	@Override
+	public List<BasicUserDto> suggest(Long companyId, String prefix, int limit) {
+		if (prefix == null || prefix.isBlank()) {
+			throw new BadRequestException("A prefix is required.");
+		}
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new BadRequestException("The limit must be between 1 and " + MAX_LIMIT + ".");
+		}
+		CompanyIndex index = companies.get(companyId);
+		if (index == null) {
+			if (!companyRepository.existsById(companyId)) {
+				throw new NotFoundException("A company with the provided id does not exist.");
+			}
+			// Not built yet, for example right after startup
+			indexer.execute(() -> build(companyId));
+			return List.of();
+		}
+		return index.suggest(normalize(prefix), limit);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildAll() {
+		companyRepository.findCompanyIds().forEach(companyId -> indexer.execute(() -> build(companyId)));
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+	public void onChange(CompanyChangeEvent event) {
+		if (CompanyChangeEvent.USER.equals(event.getType())) {
+			changes.add(event);
+			if (draining.compareAndSet(false, true)) {
+				indexer.execute(this::drain);
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		indexer.shutdownNow();
+	}
+
+	private void build(Long companyId) {
+		if (companies.containsKey(companyId)) {
+			return;
+		}
+		CompanyIndex index = new CompanyIndex();
+		transactionTemplate.executeWithoutResult(status -> {
+			try (Stream<SnapshotUserDto> users = userRepository.streamSnapshotByCompanyId(companyId)) {
+				users.filter(SnapshotUserDto::isActive)
+						.forEach(user -> index.put(user, basicUserMapper.snapshotToBasicUserDto(user)));
+			}
+		});
+		companies.put(companyId, index);
+	}
+
+	/**
+	 * Reloads the users named by the queued events, a chunk per company at a
+	 * time so a bulk import costs a handful of queries rather than one per user.
+	 */
+	private void drain() {
+		draining.set(false);
+		List<CompanyChangeEvent> batch = new ArrayList<>();
+		for (CompanyChangeEvent event = changes.poll(); event != null; event = changes.poll()) {
+			batch.add(event);
+		}
+		Map<Long, Set<Long>> userIds = batch.stream().collect(Collectors.groupingBy(CompanyChangeEvent::getCompanyId,
+				Collectors.mapping(CompanyChangeEvent::getId, Collectors.toCollection(LinkedHashSet::new))));
+		userIds.forEach((companyId, ids) -> {
+			try {
+				reload(companyId, new ArrayList<>(ids));
+			} catch (RuntimeException e) {
+				// Drop the company so the next lookup rebuilds it rather than serving stale entries
+				companies.remove(companyId);
+				log.error("Could not update user suggestions for company {}", companyId, e);
+			}
+		});
+	}
+
+	private void reload(Long companyId, List<Long> ids) {
+		CompanyIndex index = companies.get(companyId);
+		if (index == null) {
+			// Building reads the users' current state anyway
+			build(companyId);
+			return;
+		}
+		for (int from = 0; from < ids.size(); from += RELOAD_CHUNK) {
+			List<Long> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK, ids.size()));
+			Map<Long, SnapshotUserDto> users = userRepository.findSnapshotByCompanyIdAndIdIn(companyId, chunk).stream()
+					.collect(Collectors.toMap(SnapshotUserDto::getId, user -> user));
+			for (Long id : chunk) {
+				SnapshotUserDto user = users.get(id);
+				if (user != null && user.isActive()) {
+					index.put(user, basicUserMapper.snapshotToBasicUserDto(user));
+				} else {
+					index.remove(id);
+				}
+			}
+		}
+	}
+
+	private static String normalize(String text) {
+		return text.strip().toLowerCase(Locale.ROOT);
+	}
+
+	@AllArgsConstructor
+	private static class Entry {
+
+		private final BasicUserDto user;
+		private final List<String> keys;
+
+	}
+
+	/**
+	 * Written only by the indexer thread and read concurrently by requests. A
+	 * user being replaced may briefly be missing from results, never doubled.
+	 */
+	private static class CompanyIndex {
+
+		private final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+		private final Map<Long, Entry> users = new ConcurrentHashMap<>();
+
+		private void put(SnapshotUserDto snapshot, BasicUserDto user) {
+			remove(user.getId());
+			// Either name may be missing, so the full name only joins the parts that are there
+			String fullName = Stream.of(snapshot.getFirstName(), snapshot.getLastName()).filter(Objects::nonNull)
+					.collect(Collectors.joining(" "));
+			List<String> userKeys = Stream.of(snapshot.getFirstName(), snapshot.getLastName(), fullName,
+					snapshot.getEmail(), snapshot.getUsername())
+					.filter(Objects::nonNull).map(UserSuggestServiceImpl::normalize).filter(key -> !key.isEmpty())
+					.distinct().map(key -> key + SEPARATOR + user.getId()).collect(Collectors.toList());
+			users.put(user.getId(), new Entry(user, userKeys));
+			keys.addAll(userKeys);
+		}
+
+		private void remove(Long id) {
+			Entry entry = users.remove(id);
+			if (entry != null) {
+				// One by one, since the set's size() that removeAll consults is a full scan
+				entry.keys.forEach(keys::remove);
+			}
+		}
+
+		private List<BasicUserDto> suggest(String prefix, int limit) {
+			Set<Long> ids = new LinkedHashSet<>();
+			for (String key : keys.subSet(prefix, prefix + Character.MAX_VALUE)) {
+				ids.add(Long.valueOf(key.substring(key.lastIndexOf(SEPARATOR) + 1)));
+				if (ids.size() == limit) {
+					break;
+				}
+			}
+			return ids.stream().map(users::get).filter(Objects::nonNull).map(entry -> entry.user)
+					.collect(Collectors.toList());
+		}
+
+	}
+
+}
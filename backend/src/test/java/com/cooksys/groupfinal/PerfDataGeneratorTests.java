@@ -0,0 +1,76 @@
+package com.cooksys.groupfinal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.TeamRequestDto;
+import com.cooksys.groupfinal.services.CompanyStatsService;
+import com.cooksys.groupfinal.services.TeamService;
+import com.cooksys.groupfinal.services.UserService;
+
+/**
+ * Generates a small skewed dataset with the perf profile and checks that the
+ * application can work on top of it.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:${random.uuid};DB_CLOSE_ON_EXIT=FALSE;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"groupfinal.perf.companies=3", "groupfinal.perf.users=500", "groupfinal.perf.teams=50",
+		"groupfinal.perf.projects=100", "groupfinal.perf.announcements=200", "groupfinal.perf.batch-size=64" })
+@ActiveProfiles("perf")
+class PerfDataGeneratorTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private CompanyStatsService companyStatsService;
+
+	@Test
+	void generatesASkewedDatasetTheApplicationCanUse() {
+		assertThat(count("company")).isEqualTo(3);
+		assertThat(count("user_table")).isEqualTo(500);
+		assertThat(count("company_employees")).isEqualTo(500);
+		assertThat(count("team_teammates")).isEqualTo(500);
+		assertThat(count("team")).isEqualTo(50);
+		assertThat(count("project")).isEqualTo(100);
+		assertThat(count("announcement")).isEqualTo(200);
+
+		List<Long> employees = jdbcTemplate.queryForList(
+				"select count(*) from company_employees group by companies_id order by companies_id", Long.class);
+		assertThat(employees).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+		assertThat(employees.get(0)).isGreaterThan(employees.get(2) * 2);
+
+		CredentialsDto credentials = new CredentialsDto();
+		credentials.setUsername("user1");
+		credentials.setPassword("password");
+		assertThat(userService.login(credentials)).isNotNull();
+		assertThat(companyStatsService.reconcile(1L)).isFalse();
+
+		// Ids handed out by the application must not collide with generated ones
+		TeamRequestDto request = new TeamRequestDto();
+		request.setName("After Generation");
+		request.setDescription("Uses the restarted sequence");
+		request.setTeammateIds(Set.of(1L));
+		assertThat(teamService.createTeam(1L, request).getId()).isGreaterThan(50);
+	}
+
+	private long count(String table) {
+		return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+	}
+
+}
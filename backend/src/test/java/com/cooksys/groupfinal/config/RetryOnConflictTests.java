@@ -0,0 +1,84 @@
+package com.cooksys.groupfinal.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Checks that a conflicting write is retried around its transaction rather
+ * than inside it: each attempt must complete its own transaction.
+ */
+@SpringBootTest
+class RetryOnConflictTests {
+
+	@Autowired
+	private ConflictingWriter writer;
+
+	@Test
+	void eachAttemptRunsInItsOwnTransaction() {
+		assertThat(writer.write(2)).isEqualTo(3);
+		assertThat(writer.completions()).containsExactly(TransactionSynchronization.STATUS_ROLLED_BACK,
+				TransactionSynchronization.STATUS_ROLLED_BACK, TransactionSynchronization.STATUS_COMMITTED);
+
+		writer.completions().clear();
+		assertThatThrownBy(() -> writer.write(Integer.MAX_VALUE)).isInstanceOf(ConcurrencyFailureException.class);
+		assertThat(writer.completions()).hasSize(3).containsOnly(TransactionSynchronization.STATUS_ROLLED_BACK);
+	}
+
+	@TestConfiguration
+	static class Writers {
+
+		@Bean
+		ConflictingWriter conflictingWriter() {
+			return new ConflictingWriter();
+		}
+
+	}
+
+	static class ConflictingWriter {
+
+		private final List<Integer> completions = new ArrayList<>();
+		private int attempts;
+
+		// Read through a method, since the fields of the proxy itself stay unset
+		public List<Integer> completions() {
+			return completions;
+		}
+
+		@RetryOnConflict
+		@Transactional
+		public int write(int conflicts) {
+			if (completions.isEmpty()) {
+				attempts = 0;
+			}
+			attempts++;
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					completions.add(status);
+				}
+
+			});
+			if (attempts <= conflicts) {
+				throw new ObjectOptimisticLockingFailureException("Conflicting", attempts);
+			}
+			return attempts;
+		}
+
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.dtos.AnnouncementDto;
+import com.cooksys.groupfinal.dtos.AnnouncementPageDto;
+import com.cooksys.groupfinal.entities.Announcement;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.repositories.AnnouncementRepository;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Walks the announcement feed of a company whose announcements mostly share
+ * one timestamp and checks that the pages join up newest first, and that bad
+ * cursors and limits are turned away.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AnnouncementFeedTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CompanyRepository companyRepository;
+
+	@Autowired
+	private AnnouncementRepository announcementRepository;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void pagesWalkTiedTimestampsNewestFirst() throws Exception {
+		Company company = new Company();
+		company.setName("Feed Ties");
+		company.setDescription("Announcements posted at the same instant");
+		company = companyRepository.save(company);
+		String url = "/company/" + company.getId() + "/announcements";
+
+		assertThat(page(url)).isEqualTo(new AnnouncementPageDto(List.of(), null));
+
+		Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+		List<Instant> dates = List.of(now, now, now.minusSeconds(60), now, now, now.minusSeconds(60), now);
+		for (Instant date : dates) {
+			Announcement announcement = new Announcement();
+			announcement.setDate(Timestamp.from(date));
+			announcement.setTitle("Tie");
+			announcement.setMessage("Posted at " + date);
+			announcement.setCompany(company);
+			announcementRepository.save(announcement);
+		}
+
+		List<AnnouncementDto> paged = new ArrayList<>();
+		AnnouncementPageDto page = page(url + "?limit=2");
+		paged.addAll(page.getAnnouncements());
+		while (page.getNextCursor() != null) {
+			assertThat(page.getAnnouncements()).hasSize(2);
+			page = page(url + "?limit=2&before=" + page.getNextCursor());
+			paged.addAll(page.getAnnouncements());
+		}
+		assertThat(paged).hasSize(dates.size()).doesNotHaveDuplicates().isSortedAccordingTo(
+				Comparator.comparing(AnnouncementDto::getDate).thenComparing(AnnouncementDto::getId).reversed());
+		assertThat(page(url + "?limit=200").getAnnouncements()).isEqualTo(paged);
+
+		// A cursor at the oldest announcement is a valid, empty last page
+		AnnouncementDto oldest = paged.get(paged.size() - 1);
+		assertThat(page(url + "?before=" + oldest.getDate().toInstant() + "," + oldest.getId()))
+				.isEqualTo(new AnnouncementPageDto(List.of(), null));
+		AnnouncementPageDto exact = page(url + "?limit=" + dates.size());
+		assertThat(exact.getAnnouncements()).isEqualTo(paged);
+		assertThat(exact.getNextCursor()).isNull();
+	}
+
+	@Test
+	void badCursorsAndLimitsAreRejected() throws Exception {
+		String url = client.copyWaystar().getUrl() + "/announcements";
+
+		for (String before : List.of("yesterday,1", "2020-01-01T00:00:00Z", "2020-01-01T00:00:00Z,x",
+				"2020-01-01T00:00:00Z,1,2", "1,2020-01-01T00:00:00Z")) {
+			mockMvc.perform(get(url).param("before", before)).andExpect(status().isBadRequest());
+		}
+		for (String limit : List.of("0", "-1", "201")) {
+			mockMvc.perform(get(url).param("limit", limit)).andExpect(status().isBadRequest());
+		}
+		assertThat(page(url + "?limit=1").getAnnouncements()).hasSize(1);
+		assertThat(page(url + "?limit=200").getAnnouncements()).hasSizeLessThanOrEqualTo(200);
+	}
+
+	private AnnouncementPageDto page(String url) throws Exception {
+		return client.read(url, AnnouncementPageDto.class);
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.dtos.ChangeSetDto;
+import com.cooksys.groupfinal.dtos.DeletedRecordDto;
+import com.cooksys.groupfinal.dtos.TeamDto;
+import com.cooksys.groupfinal.dtos.TeamRequestDto;
+import com.cooksys.groupfinal.events.CompanyChangeEvent;
+import com.cooksys.groupfinal.services.TeamService;
+import com.cooksys.groupfinal.services.impl.ChangeLogServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Walks a client through the delta sync: an initial resync, the changes
+ * since its cursor, a deletion, and a resync once the log has been purged
+ * past the cursor.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeSyncTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private ChangeLogServiceImpl changeLogService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void clientsCatchUpFromTheirCursor() throws Exception {
+		long companyId = client.copyWaystar().getId();
+		ChangeSetDto initial = changes(companyId, null);
+		assertThat(initial.isResync()).isTrue();
+
+		TeamRequestDto request = new TeamRequestDto();
+		request.setName("Delta Team");
+		request.setDescription("Synced incrementally");
+		request.setTeammateIds(Set.of());
+		TeamDto team = teamService.createTeam(companyId, request);
+
+		ChangeSetDto created = changes(companyId, initial.getCursor());
+		assertThat(created.isResync()).isFalse();
+		// Entity writes and logged changes share one bump per transaction
+		assertThat(created.getCursor()).isEqualTo(initial.getCursor() + 1);
+		assertThat(created.getTeams()).extracting(TeamDto::getName).containsExactly("Delta Team");
+		assertThat(created.getUsers()).isEmpty();
+		assertThat(created.getDeleted()).isEmpty();
+		assertThat(changes(companyId, created.getCursor()).getTeams()).isEmpty();
+
+		teamService.deleteTeam(companyId, team.getId());
+		ChangeSetDto deleted = changes(companyId, created.getCursor());
+		assertThat(deleted.getCursor()).isEqualTo(created.getCursor() + 1);
+		assertThat(deleted.getTeams()).isEmpty();
+		assertThat(deleted.getDeleted()).containsExactly(new DeletedRecordDto(CompanyChangeEvent.TEAM, team.getId()));
+
+		jdbcTemplate.update("update change_log set created_at = created_at - interval '30' day where company_id = ?",
+				companyId);
+		changeLogService.purge();
+		assertThat(changes(companyId, created.getCursor()).isResync()).isTrue();
+		ChangeSetDto current = changes(companyId, deleted.getCursor());
+		assertThat(current.isResync()).isFalse();
+		assertThat(current.getDeleted()).isEmpty();
+	}
+
+	private ChangeSetDto changes(long companyId, Long since) throws Exception {
+		String url = "/company/" + companyId + "/changes" + (since == null ? "" : "?since=" + since);
+		return client.read(url, ChangeSetDto.class);
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.dtos.TeamDto;
+import com.cooksys.groupfinal.dtos.TeamRequestDto;
+import com.cooksys.groupfinal.exceptions.BadRequestException;
+import com.cooksys.groupfinal.services.TeamService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Subscribes to a company's event stream over HTTP and checks that committed
+ * team changes arrive as compact change events and rolled back ones do not.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+class CompanyEventsTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Test
+	void committedChangesAreStreamedToSubscribers() throws Exception {
+		long companyId = new TestClient(mockMvc, objectMapper).copyWaystar().getId();
+
+		HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(HttpRequest
+				.newBuilder(URI.create("http://localhost:" + port + "/company/" + companyId + "/events")).build(),
+				BodyHandlers.ofLines());
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+				type -> assertThat(type).startsWith("text/event-stream"));
+
+		// Closing the body cancels the exchange, which ends the read and drops the connection
+		try (Stream<String> body = response.body()) {
+			streamChanges(companyId, body);
+		}
+	}
+
+	private void streamChanges(long companyId, Stream<String> body) throws Exception {
+		BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+		Thread reader = new Thread(() -> {
+			try {
+				body.filter(line -> !line.isEmpty()).forEach(lines::add);
+			} catch (Exception e) {
+				// Ends when the test closes the body
+			}
+		});
+		reader.setDaemon(true);
+		reader.start();
+
+		assertThat(next(lines)).isEqualTo("event:resync");
+		next(lines);
+
+		TeamRequestDto invalid = new TeamRequestDto();
+		invalid.setName("Never Committed");
+		invalid.setDescription("Has an unknown teammate");
+		invalid.setTeammateIds(Set.of(-1L));
+		assertThatThrownBy(() -> teamService.createTeam(companyId, invalid)).isInstanceOf(BadRequestException.class);
+
+		TeamRequestDto request = new TeamRequestDto();
+		request.setName("Streamed Team");
+		request.setDescription("Announced over SSE");
+		request.setTeammateIds(Set.of());
+		TeamDto team = teamService.createTeam(companyId, request);
+
+		assertThat(next(lines)).isEqualTo("event:change");
+		assertThat(next(lines)).isEqualTo(
+				"data:{\"type\":\"team\",\"id\":" + team.getId() + ",\"op\":\"created\",\"version\":0}");
+	}
+
+	private static String next(BlockingQueue<String> lines) throws InterruptedException {
+		String line = lines.poll(5, TimeUnit.SECONDS);
+		assertThat(line).as("an event line within 5 seconds").isNotNull();
+		return line;
+	}
+
+}
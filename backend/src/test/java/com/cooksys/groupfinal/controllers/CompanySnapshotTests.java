@@ -0,0 +1,101 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.dtos.SnapshotImportResultDto;
+import com.cooksys.groupfinal.dtos.SnapshotRecordDto;
+import com.cooksys.groupfinal.dtos.SnapshotUserDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Round-trips the Seeder's waystar company through export and import and
+ * checks that the copy, and a second copy of the same snapshot, hold the same
+ * records as the original.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CompanySnapshotTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void exportedCompanyCanBeImportedAsACopy() throws Exception {
+		String authorization = client.login(TestClient.ADMIN, TestClient.PASSWORD);
+		long companyId = client.waystarId();
+
+		String snapshot = client.export(companyId, authorization);
+		Map<String, Long> counts = countByType(snapshot);
+		assertThat(counts).containsKeys("company", "user", "team", "teammate", "project", "announcement");
+
+		SnapshotImportResultDto copy = client.importSnapshot(snapshot, "-copy", authorization);
+		assertThat(copy.getCompanyId()).isNotEqualTo(companyId);
+		assertThat(copy.getUsers()).isEqualTo(counts.get("user"));
+		assertThat(copy.getTeammates()).isEqualTo(counts.get("teammate"));
+		assertThat(copy.getAnnouncements()).isEqualTo(counts.get("announcement"));
+
+		// The importing admin is not a member of the copy, so read it back as the copied admin
+		String copied = client.export(copy.getCompanyId(),
+				client.login(TestClient.ADMIN + "-copy", TestClient.PASSWORD));
+		assertThat(countByType(copied)).isEqualTo(counts);
+		assertThat(usernames(copied)).isEqualTo(usernames(snapshot).stream().map(username -> username + "-copy")
+				.collect(Collectors.toSet()));
+
+		// Exporting is read-only and importing the same snapshot again yields a second, independent copy
+		assertThat(client.export(companyId, authorization)).isEqualTo(snapshot);
+		SnapshotImportResultDto again = client.importSnapshot(snapshot, "-again", authorization);
+		assertThat(again.getCompanyId()).isNotIn(companyId, copy.getCompanyId());
+		assertThat(again).usingRecursiveComparison().ignoringFields("companyId").isEqualTo(copy);
+	}
+
+	private Map<String, Long> countByType(String snapshot) {
+		return Arrays.stream(snapshot.split("\n")).map(this::readTree)
+				.collect(Collectors.groupingBy(node -> node.get("type").asText(), TreeMap::new, Collectors.counting()));
+	}
+
+	private Set<String> usernames(String snapshot) {
+		return Arrays.stream(snapshot.split("\n")).map(this::readRecord).filter(SnapshotUserDto.class::isInstance)
+				.map(record -> ((SnapshotUserDto) record).getUsername()).collect(Collectors.toSet());
+	}
+
+	private JsonNode readTree(String line) {
+		try {
+			return objectMapper.readTree(line);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private SnapshotRecordDto readRecord(String line) {
+		try {
+			return objectMapper.readValue(line, SnapshotRecordDto.class);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.controllers.TestClient.CompanyCopy;
+import com.cooksys.groupfinal.dtos.AnnouncementRequestDto;
+import com.cooksys.groupfinal.dtos.CompanyStatsDto;
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.ProfileDto;
+import com.cooksys.groupfinal.dtos.ProjectDto;
+import com.cooksys.groupfinal.dtos.ProjectRequestDto;
+import com.cooksys.groupfinal.dtos.TeamDto;
+import com.cooksys.groupfinal.dtos.TeamRequestDto;
+import com.cooksys.groupfinal.dtos.TeamStatsDto;
+import com.cooksys.groupfinal.dtos.UserRequestDto;
+import com.cooksys.groupfinal.services.AnnouncementService;
+import com.cooksys.groupfinal.services.CompanyStatsService;
+import com.cooksys.groupfinal.services.ProjectService;
+import com.cooksys.groupfinal.services.TeamService;
+import com.cooksys.groupfinal.services.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives each write path that maintains the stats read model and checks that
+ * the counters match a full recount afterwards, then that reconciliation
+ * repairs counters changed behind the application's back.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CompanyStatsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CompanyStatsService companyStatsService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private ProjectService projectService;
+
+	@Autowired
+	private AnnouncementService announcementService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void writePathsKeepStatsInStepWithARecount() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+		long companyId = company.getId();
+		companyStatsService.reconcile(companyId);
+		CompanyStatsDto before = stats(companyId);
+
+		CredentialsDto admin = credentials(company.getAdmin(), TestClient.PASSWORD);
+		userService.login(admin);
+
+		UserRequestDto newUser = new UserRequestDto();
+		newUser.setCredentials(credentials("statsuser", "password"));
+		ProfileDto profile = new ProfileDto();
+		profile.setEmail("statsuser@email.com");
+		newUser.setProfile(profile);
+		Long userId = userService.addUser(companyId, newUser).getId();
+
+		TeamRequestDto teamRequest = new TeamRequestDto();
+		teamRequest.setName("Stats Team");
+		teamRequest.setDescription("Counts projects");
+		teamRequest.setTeammateIds(Set.of());
+		TeamDto team = teamService.createTeam(companyId, teamRequest);
+
+		ProjectRequestDto projectRequest = new ProjectRequestDto();
+		projectRequest.setName("Stats Project");
+		projectRequest.setActive(true);
+		projectRequest.setTeamId(team.getId());
+		ProjectDto project = projectService.createProject(projectRequest);
+		projectService.createProject(projectRequest);
+		ProjectRequestDto deactivate = new ProjectRequestDto();
+		deactivate.setActive(false);
+		projectService.updateProject(project.getId(), deactivate, null);
+
+		AnnouncementRequestDto announcement = new AnnouncementRequestDto();
+		announcement.setTitle("Stats");
+		announcement.setMessage("Counted");
+		announcement.setCredentials(admin);
+		Long announcementId = announcementService.createAnnouncement(companyId, announcement, null).getId();
+		announcementService.createAnnouncement(companyId, announcement, null);
+		announcementService.deleteAnnouncement(announcementId, admin, null);
+
+		userService.deleteUser(userId);
+		userService.reinstateUser(userId, admin, null);
+
+		CompanyStatsDto after = stats(companyId);
+		assertThat(companyStatsService.reconcile(companyId)).isFalse();
+		assertThat(after.getActiveUsers()).isEqualTo(before.getActiveUsers() + 1);
+		assertThat(after.getTeams()).isEqualTo(before.getTeams() + 1);
+		assertThat(after.getAnnouncements()).isEqualTo(before.getAnnouncements() + 1);
+		assertThat(after.getTeamStats()).filteredOn(stats -> stats.getTeamId().equals(team.getId()))
+				.extracting(TeamStatsDto::getActiveProjects).containsExactly(1L);
+
+		jdbcTemplate.update("update company_stats set teams = teams + 5, pending_users = 0 where company_id = ?",
+				companyId);
+		jdbcTemplate.update("update team_stats set active_projects = 7 where team_id = ?", team.getId());
+		assertThat(companyStatsService.reconcile(companyId)).isTrue();
+		assertThat(stats(companyId)).isEqualTo(after);
+	}
+
+	private CompanyStatsDto stats(long companyId) throws Exception {
+		return client.read("/company/" + companyId + "/stats", CompanyStatsDto.class);
+	}
+
+	private static CredentialsDto credentials(String username, String password) {
+		CredentialsDto credentials = new CredentialsDto();
+		credentials.setUsername(username);
+		credentials.setPassword(password);
+		return credentials;
+	}
+
+}
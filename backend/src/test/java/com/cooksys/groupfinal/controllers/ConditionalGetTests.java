@@ -0,0 +1,125 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.config.SchemaUpgrade;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks that the company list endpoints answer a matching If-None-Match
+ * with 304 and hand out a new tag once an entity write or a set-based roster
+ * change commits, that user lists, which span companies, are never tagged,
+ * and that a company predating revision tracking is served untagged until
+ * its revision row is seeded.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private SchemaUpgrade schemaUpgrade;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void companyListsRevalidateAgainstTheCompanyRevision() throws Exception {
+		long companyId = client.copyWaystar().getId();
+		String teamsUrl = "/company/" + companyId + "/teams";
+
+		String body = mockMvc.perform(get(teamsUrl)).andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG)).andReturn().getResponse().getContentAsString();
+		String eTag = eTag(teamsUrl);
+		mockMvc.perform(get(teamsUrl).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+
+		JsonNode team = objectMapper.readTree(body).get(0);
+		long teamId = team.get("id").asLong();
+		long teammateId = team.get("teammates").get(0).get("id").asLong();
+		client.send(patch(teamsUrl + "/" + teamId + "/members"), Map.of("removeIds", List.of(teammateId)))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get(teamsUrl).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isOk());
+		String rosterETag = eTag(teamsUrl);
+		assertThat(rosterETag).isNotEqualTo(eTag);
+
+		client.send(patch(teamsUrl + "/" + teamId), Map.of("name", "Renamed")).andExpect(status().isOk());
+
+		mockMvc.perform(get(teamsUrl).header(HttpHeaders.IF_NONE_MATCH, rosterETag)).andExpect(status().isOk());
+		assertThat(eTag(teamsUrl)).isNotIn(eTag, rosterETag);
+	}
+
+	@Test
+	void userListsFollowChangesToTheOtherCompaniesTheirUsersBelongTo() throws Exception {
+		long companyId = client.copyWaystar().getId();
+		long otherId = client.copyWaystar().getId();
+		Map<String, Object> user = Map.of("credentials", Map.of("username", "twocompanies", "password", "password"),
+				"profile", Map.of("email", "two@email.com"));
+		client.send(post("/company/" + companyId + "/user"), user).andExpect(status().isCreated());
+		client.send(post("/company/" + otherId + "/user"), user).andExpect(status().isCreated());
+
+		String teamsUrl = "/company/" + companyId + "/teams";
+		String usersUrl = "/company/" + companyId + "/users";
+		String eTag = eTag(teamsUrl);
+		mockMvc.perform(get(usersUrl)).andExpect(status().isOk()).andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+		long otherTeamId = client.read("/company/" + otherId + "/teams").get(0).get("id").asLong();
+		client.send(patch("/company/" + otherId + "/teams/" + otherTeamId), Map.of("name", "Renamed Elsewhere"))
+				.andExpect(status().isOk());
+
+		// The edit leaves this company's revision alone, yet its user list shows the new name
+		mockMvc.perform(get(teamsUrl).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+		mockMvc.perform(get(usersUrl).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isOk())
+				.andExpect(content().string(containsString("Renamed Elsewhere")));
+	}
+
+	@Test
+	void companiesWithoutARevisionAreServedUntaggedUntilSeeded() throws Exception {
+		long companyId = client.copyWaystar().getId();
+		String teamsUrl = "/company/" + companyId + "/teams";
+		jdbcTemplate.update("delete from company_revision where company_id = ?", companyId);
+
+		mockMvc.perform(get(teamsUrl)).andExpect(status().isOk()).andExpect(header().doesNotExist(HttpHeaders.ETAG));
+		mockMvc.perform(get("/company/-1/teams")).andExpect(status().isNotFound());
+
+		schemaUpgrade.upgrade();
+		mockMvc.perform(get(teamsUrl)).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "W/\"0\""));
+	}
+
+	private String eTag(String url) throws Exception {
+		return mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.repositories.ProjectRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sends a burst of concurrent, unconditional edits to one project. Every
+ * edit is valid on its own, so a 409 is only ever a write that lost a race to
+ * a concurrent commit of the same version. With as many attempts as there are
+ * writers nearly every edit lands; {@link UnretriedContendedWriteTests} runs
+ * the same burst with retries off, where most are refused.
+ */
+@SpringBootTest(properties = "groupfinal.retry.max-attempts=" + ContendedWriteTests.ATTEMPTS)
+@AutoConfigureMockMvc
+class ContendedWriteTests {
+
+	static final int THREADS = 8;
+	static final int EDITS_PER_THREAD = 10;
+	static final int EDITS = THREADS * EDITS_PER_THREAD;
+	static final int ATTEMPTS = THREADS + 2;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProjectRepository projectRepository;
+
+	private TestClient client;
+	private long projectId;
+	private long version;
+
+	@BeforeEach
+	void createProject() throws Exception {
+		client = new TestClient(mockMvc, objectMapper);
+		long companyId = client.copyWaystar().getId();
+		long teamId = client.read(client.send(post("/company/" + companyId + "/teams"),
+				Map.of("name", "Contended", "description", "Edited at once", "teammateIds", List.of()))
+				.andExpect(status().isCreated())).get("id").asLong();
+		JsonNode project = client.read(client.send(post("/projects"),
+				Map.of("name", "Contended", "description", "Unedited", "active", true, "teamId", teamId))
+				.andExpect(status().isCreated()));
+		projectId = project.get("id").asLong();
+		version = project.get("version").asLong();
+	}
+
+	@Test
+	void concurrentUnconditionalEdits() throws Exception {
+		int refused = editConcurrently();
+		long landed = projectRepository.findById(projectId).orElseThrow().getVersion() - version;
+		assertThat(landed + refused).isEqualTo(EDITS);
+		assertRefused(refused);
+	}
+
+	void assertRefused(int refused) {
+		assertThat(refused).as("edits refused with 409").isLessThanOrEqualTo(EDITS / 10);
+	}
+
+	/**
+	 * Edits the project from every thread at once and returns how many edits
+	 * were refused as conflicts. Anything other than 200 or 409 fails the
+	 * test.
+	 */
+	private int editConcurrently() throws Exception {
+		ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Integer>> conflicts = new ArrayList<>();
+			for (int thread = 0; thread < THREADS; thread++) {
+				int number = thread;
+				conflicts.add(threads.submit(() -> {
+					start.await();
+					int refused = 0;
+					for (int edit = 0; edit < EDITS_PER_THREAD; edit++) {
+						int code = client.send(patch("/projects/" + projectId),
+								Map.of("description", "Edit " + edit + " from thread " + number)).andReturn()
+								.getResponse().getStatus();
+						assertThat(code).isIn(200, 409);
+						refused += code == 409 ? 1 : 0;
+					}
+					return refused;
+				}));
+			}
+			start.countDown();
+			int refused = 0;
+			for (Future<Integer> conflict : conflicts) {
+				refused += conflict.get(60, TimeUnit.SECONDS);
+			}
+			return refused;
+		} finally {
+			threads.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Checks the dashboard against the separate announcement, team and stats
+ * endpoints it replaces, and that it honours the company's entity tag.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class DashboardTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void dashboardMatchesTheSeparateCalls() throws Exception {
+		String base = client.copyWaystar().getUrl();
+		MvcResult result = mockMvc.perform(get(base + "/dashboard?announcementLimit=5")).andExpect(status().isOk())
+				.andReturn();
+		JsonNode dashboard = objectMapper.readTree(result.getResponse().getContentAsString());
+		JsonNode announcements = client.read(base + "/announcements?limit=5");
+		JsonNode teams = client.read(base + "/teams");
+		JsonNode stats = client.read(base + "/stats");
+
+		assertThat(dashboard.get("announcements")).isEqualTo(announcements);
+		assertThat(dashboard.get("activeUsers")).isEqualTo(stats.get("activeUsers"));
+		assertThat(dashboard.get("pendingUsers")).isEqualTo(stats.get("pendingUsers"));
+
+		Map<Long, Long> activeProjects = new HashMap<>();
+		stats.get("teamStats").forEach(team -> activeProjects.put(team.get("teamId").asLong(),
+				team.get("activeProjects").asLong()));
+		Map<Long, Integer> members = new HashMap<>();
+		teams.forEach(team -> members.put(team.get("id").asLong(), team.get("teammates").size()));
+		assertThat(dashboard.get("teams")).hasSize(members.size()).allSatisfy(team -> {
+			assertThat(team.get("members").asInt()).isEqualTo(members.get(team.get("id").asLong()));
+			assertThat(team.get("activeProjects").asLong())
+					.isEqualTo(activeProjects.getOrDefault(team.get("id").asLong(), 0L));
+		});
+
+		mockMvc.perform(get(base + "/dashboard?announcementLimit=5").header(HttpHeaders.IF_NONE_MATCH,
+				result.getResponse().getHeader(HttpHeaders.ETAG))).andExpect(status().isNotModified());
+		assertThat(meterRegistry.find("groupfinal.dashboard.sections.time").timer().count()).isPositive();
+	}
+
+}
@@ -0,0 +1,161 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.cooksys.groupfinal.controllers.TestClient.CompanyCopy;
+import com.cooksys.groupfinal.dtos.CompanyStatsDto;
+import com.cooksys.groupfinal.dtos.UserImportResultDto;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.cooksys.groupfinal.services.CompanyStatsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams NDJSON and CSV uploads, two rows to a chunk, into a company copy
+ * and checks the per-row report, the users it created or added, the stats
+ * and the company revision.
+ */
+@SpringBootTest(properties = "groupfinal.import.chunk-size=2")
+@AutoConfigureMockMvc
+class ImportUsersTests {
+
+	private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CompanyStatsService companyStatsService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void importsNdjsonRowsChunkByChunk() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+		CompanyCopy other = client.copyWaystar();
+		String teamsETag = mockMvc.perform(get(company.getUrl() + "/teams")).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		CompanyStatsDto before = client.read(company.getUrl() + "/stats", CompanyStatsDto.class);
+
+		List<UserImportResultDto> report = results(importUsers(company, MediaType.APPLICATION_NDJSON,
+				user("import-a", "a@example.com", "Ada"),
+				"{\"credentials\":",
+				user("import-b", "b@example.com", "Bea"),
+				user("import-b", "b2@example.com", "Bea"),
+				user(company.getAdmin(), "admin@example.com", "Admin"),
+				user(other.getAdmin(), "other@example.com", "Other"),
+				user("import-a", "a@example.com", "Ada"),
+				"{\"credentials\":{\"username\":\"import-noemail\",\"password\":\"import\"},\"profile\":{}}",
+				user("import-long", "long@example.com", "x".repeat(300)),
+				user("import-c", "c@example.com", "Cy")).andExpect(status().isOk()));
+
+		assertThat(report).extracting(UserImportResultDto::getRow).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+		assertThat(report).extracting(UserImportResultDto::getStatus).containsExactly("CREATED", "REJECTED",
+				"CREATED", "REJECTED", "ALREADY_MEMBER", "ADDED", "ALREADY_MEMBER", "REJECTED", "FAILED", "FAILED");
+		assertThat(report.get(1).getMessage()).startsWith("Malformed JSON");
+		assertThat(report.get(3).getMessage()).isEqualTo("Username appears more than once in the upload.");
+		assertThat(report.get(7).getMessage()).isEqualTo("Missing required parameters in creation request.");
+		// A user created by an earlier chunk is already a member when a later chunk names it again
+		assertThat(report.get(6).getUserId()).isEqualTo(report.get(0).getUserId()).isNotNull();
+		// A failed chunk rolls back every row in it, including the valid one
+		assertThat(report.subList(8, 10)).allSatisfy(result -> assertThat(result.getUserId()).isNull());
+		assertThat(userRepository.findByCredentialsUsernameIn(List.of("import-long", "import-c"))).isEmpty();
+
+		JsonNode users = client.read(company.getUrl() + "/users");
+		assertThat(users.findValuesAsText("username")).contains("import-a", "import-b", other.getAdmin())
+				.doesNotContain("import-c");
+
+		CompanyStatsDto after = client.read(company.getUrl() + "/stats", CompanyStatsDto.class);
+		assertThat(companyStatsService.reconcile(company.getId())).isFalse();
+		assertThat(after.getActiveUsers()).isEqualTo(before.getActiveUsers() + 3);
+		mockMvc.perform(get(company.getUrl() + "/teams").header(HttpHeaders.IF_NONE_MATCH, teamsETag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void importsCsvWithColumnsInAnyOrder() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+
+		List<UserImportResultDto> report = results(importUsers(company, TEXT_CSV,
+				"Email,lastName,username,password,admin",
+				"csv-a@example.com,\"Smith, \"\"Jr.\"\"\",csv-a,import,true",
+				"csv-b@example.com,\"Unterminated,csv-b,import,false",
+				"csv-c@example.com,,csv-c,import,").andExpect(status().isOk()));
+
+		assertThat(report).extracting(UserImportResultDto::getRow).containsExactly(2, 3, 4);
+		assertThat(report).extracting(UserImportResultDto::getStatus).containsExactly("CREATED", "REJECTED",
+				"CREATED");
+		assertThat(report.get(1).getMessage()).isEqualTo("Malformed CSV: unterminated quoted value.");
+
+		JsonNode created = client.read(company.getUrl() + "/users").findParents("username").stream()
+				.filter(user -> user.get("username").asText().equals("csv-a")).findFirst().orElseThrow();
+		assertThat(created.get("profile").get("lastName").asText()).isEqualTo("Smith, \"Jr.\"");
+		assertThat(created.get("admin").asBoolean()).isTrue();
+		assertThat(created.get("status").asText()).isEqualTo("PENDING");
+	}
+
+	@Test
+	void rejectsUploadsItCannotRead() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+
+		importUsers(company, TEXT_CSV, "username,password").andExpect(status().isBadRequest());
+		importUsers(company, TEXT_CSV).andExpect(status().isBadRequest());
+		importUsers(company, MediaType.APPLICATION_JSON, user("import-json", "json@example.com", "Jay"))
+				.andExpect(status().isUnsupportedMediaType());
+		mockMvc.perform(post("/company/" + Long.MAX_VALUE + "/users/import")
+				.contentType(MediaType.APPLICATION_NDJSON).content(user("import-none", "none@example.com", "No")))
+				.andExpect(status().isNotFound());
+	}
+
+	private ResultActions importUsers(CompanyCopy company, MediaType contentType, String... lines)
+			throws Exception {
+		return mockMvc.perform(post(company.getUrl() + "/users/import").contentType(contentType)
+				.content(String.join("\n", lines)));
+	}
+
+	private String user(String username, String email, String firstName) throws Exception {
+		return objectMapper.writeValueAsString(Map.of("credentials", Map.of("username", username, "password", "import"),
+				"profile", Map.of("firstName", firstName, "email", email)));
+	}
+
+	private List<UserImportResultDto> results(ResultActions result) throws Exception {
+		String body = result.andReturn().getResponse().getContentAsString();
+		return Arrays.stream(body.split("\n")).filter(line -> !line.isBlank()).map(line -> {
+			try {
+				return objectMapper.readValue(line, UserImportResultDto.class);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}).collect(Collectors.toList());
+	}
+
+}
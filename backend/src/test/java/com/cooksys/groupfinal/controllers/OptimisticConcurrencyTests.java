@@ -0,0 +1,108 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.controllers.TestClient.CompanyCopy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Edits a team, project, user and announcement with and without If-Match,
+ * checking that a stale version is refused with 412 and that every edit,
+ * including a membership-only one, moves the entity tag on.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OptimisticConcurrencyTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void staleVersionsAreRefused() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+		long companyId = company.getId();
+		String authorization = client.login(company.getAdmin(), TestClient.PASSWORD);
+
+		long userId = client.read(client.send(post("/company/" + companyId + "/user"),
+				Map.of("credentials", Map.of("username", "if-match", "password", "etag"), "profile",
+						Map.of("firstName", "If", "lastName", "Match", "email", "if-match@example.com")))
+								.andExpect(status().isCreated())).get("id").asLong();
+		JsonNode team = client.read(client.send(post("/company/" + companyId + "/teams"),
+				Map.of("name", "Versioned", "description", "Edited concurrently", "teammateIds", List.of()))
+						.andExpect(status().isCreated()));
+		String teamUrl = "/company/" + companyId + "/teams/" + team.get("id").asLong();
+		long created = team.get("version").asLong();
+
+		// A membership-only change is written with set-based SQL but still moves the version on
+		JsonNode joined = client.read(client.send(patch(teamUrl + "/members").header(HttpHeaders.IF_MATCH, tag(created)),
+				Map.of("addIds", List.of(userId))).andExpect(status().isOk())
+						.andExpect(header().string(HttpHeaders.ETAG, tag(created + 1))));
+		assertThat(joined.get("teammates")).hasSize(1);
+		client.send(patch(teamUrl).header(HttpHeaders.IF_MATCH, tag(created)), Map.of("name", "Lost Update"))
+				.andExpect(status().isPreconditionFailed());
+		client.send(patch(teamUrl).header(HttpHeaders.IF_MATCH, "W/" + tag(created + 1)), Map.of("name", "Weak"))
+				.andExpect(status().isPreconditionFailed());
+		client.send(patch(teamUrl).header(HttpHeaders.IF_MATCH, tag(created + 1)), Map.of("name", "Renamed"))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, tag(created + 2)));
+		client.send(patch(teamUrl), Map.of("description", "No precondition")).andExpect(status().isOk());
+
+		JsonNode project = client.read(client.send(post("/projects"), Map.of("name", "Versioned Project", "description",
+				"Edited concurrently", "active", true, "teamId", team.get("id").asLong()))
+						.andExpect(status().isCreated()));
+		String projectUrl = "/projects/" + project.get("id").asLong();
+		long projectVersion = project.get("version").asLong();
+		client.send(patch(projectUrl).header(HttpHeaders.IF_MATCH, tag(projectVersion)), Map.of("active", false))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, tag(projectVersion + 1)));
+		client.send(patch(projectUrl).header(HttpHeaders.IF_MATCH, tag(projectVersion)), Map.of("active", true))
+				.andExpect(status().isPreconditionFailed());
+		client.send(patch(projectUrl).header(HttpHeaders.IF_MATCH, "*"), Map.of("active", true)).andExpect(status().isOk());
+
+		client.send(patch("/users/" + userId).header(HttpHeaders.IF_MATCH, tag(99)),
+				Map.of("profile", Map.of("phone", "555-0199"))).andExpect(status().isPreconditionFailed());
+
+		JsonNode announcement = client.read(client.send(
+				post("/company/" + companyId + "/announcements").header(HttpHeaders.AUTHORIZATION, authorization),
+				Map.of("title", "Versioned", "message", "First")).andExpect(status().isCreated()));
+		String announcementUrl = "/announcements/" + announcement.get("id").asLong();
+		long announcementVersion = announcement.get("version").asLong();
+		client.send(put(announcementUrl).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_MATCH,
+				tag(announcementVersion)), Map.of("title", "Versioned", "message", "Second"))
+						.andExpect(status().isOk());
+		client.send(put(announcementUrl).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_MATCH,
+				tag(announcementVersion)), Map.of("title", "Versioned", "message", "Overwrites the second"))
+						.andExpect(status().isPreconditionFailed());
+	}
+
+	private static String tag(long version) {
+		return "\"" + version + "\"";
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.cooksys.groupfinal.controllers;
+
+import static com.cooksys.groupfinal.controllers.QueryBudget.atMostStatements;
+import static com.cooksys.groupfinal.controllers.QueryBudget.committedOnce;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sends project batches through POST /projects/batch, checking that a large
+ * batch costs no more statements than a small one and that a single rejected
+ * operation leaves the whole batch unapplied.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProjectBatchTests {
+
+	private static final int PROJECTS = 40;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void batchesApplyTogetherOrNotAtAll() throws Exception {
+		long companyId = client.copyWaystar().getId();
+		long teammateId = client.read("/company/" + companyId + "/users").get(0).get("id").asLong();
+		long teamId = client.read(client.send(post("/company/" + companyId + "/teams"),
+				Map.of("name", "Batched", "description", "Projects in bulk", "teammateIds", List.of(teammateId)))
+						.andExpect(status().isCreated())).get("id").asLong();
+
+		List<Map<String, Object>> creates = new ArrayList<>();
+		for (int i = 0; i < PROJECTS; i++) {
+			creates.add(Map.of("op", "create", "project", Map.of("name", "Batched " + i, "description",
+					"Created in a batch", "active", true, "teamId", teamId)));
+		}
+		JsonNode created = client.read(client.send(post("/projects/batch"), Map.of("operations", creates)).andExpect(status().isOk())
+				.andExpect(committedOnce()).andExpect(atMostStatements(10)));
+		assertThat(created.get("applied").asBoolean()).isTrue();
+		assertThat(created.get("results")).hasSize(PROJECTS);
+		JsonNode first = created.get("results").get(0);
+		JsonNode second = created.get("results").get(1);
+		assertThat(first.get("status").asText()).isEqualTo("CREATED");
+		long firstId = first.get("projectId").asLong();
+		long secondId = second.get("projectId").asLong();
+		long firstVersion = first.get("project").get("version").asLong();
+		assertThat(first.get("project").get("team").get("teammates").findValuesAsText("id"))
+				.containsExactly(String.valueOf(teammateId));
+
+		// The stale version on the second operation holds back the first as well
+		JsonNode refused = client.read(client.send(post("/projects/batch"), Map.of("operations", List.of(
+				Map.of("op", "update", "id", firstId, "version", firstVersion, "project", Map.of("active", false)),
+				Map.of("op", "delete", "id", secondId, "version", firstVersion + 1),
+				Map.of("op", "create", "project", Map.of("name", "Orphan", "teamId", -1L)))))
+						.andExpect(status().isBadRequest()));
+		assertThat(refused.get("applied").asBoolean()).isFalse();
+		assertThat(refused.get("results").findValuesAsText("status")).containsExactly("SKIPPED", "REJECTED",
+				"REJECTED");
+
+		JsonNode applied = client.read(client.send(post("/projects/batch"), Map.of("operations", List.of(
+				Map.of("op", "update", "id", firstId, "version", firstVersion, "project", Map.of("active", false)),
+				Map.of("op", "delete", "id", secondId))))
+						.andExpect(status().isOk()).andExpect(committedOnce()));
+		assertThat(applied.get("results")).extracting(result -> result.get("status").asText())
+				.containsExactly("UPDATED", "DELETED");
+		assertThat(applied.get("results").get(0).get("project").get("version").asLong())
+				.isEqualTo(firstVersion + 1);
+
+		client.send(post("/projects/batch"), Map.of("operations", List.of(Map.of("op", "delete", "id", secondId))))
+				.andExpect(status().isBadRequest());
+	}
+
+}
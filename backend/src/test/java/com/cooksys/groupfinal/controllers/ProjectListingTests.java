@@ -0,0 +1,121 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.dtos.ProjectDto;
+import com.cooksys.groupfinal.dtos.ProjectPageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Walks the company-wide project listing page by page and checks that the
+ * pages join up into the unpaged, filtered result, including across
+ * unnamed and identically named projects.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProjectListingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void pagesJoinUpIntoTheFilteredListing() throws Exception {
+		long companyId = client.copyWaystar().getId();
+		String url = "/company/" + companyId + "/projects";
+
+		List<ProjectDto> all = page(url + "?limit=200").getProjects();
+		assertThat(all).isNotEmpty().isSortedAccordingTo(
+				Comparator.comparing(ProjectDto::getName).thenComparing(ProjectDto::getId));
+
+		for (String sort : List.of("name", "name,desc", "id", "id,desc")) {
+			List<ProjectDto> paged = new ArrayList<>();
+			ProjectPageDto page = page(url + "?limit=2&sort=" + sort);
+			paged.addAll(page.getProjects());
+			while (page.getNextCursor() != null) {
+				page = page(url + "?limit=2&sort=" + sort + "&after=" + page.getNextCursor());
+				paged.addAll(page.getProjects());
+			}
+			assertThat(paged).as(sort).containsExactlyInAnyOrderElementsOf(all).doesNotHaveDuplicates();
+		}
+
+		ProjectDto first = all.get(0);
+		long teamId = first.getTeam().getId();
+		List<ProjectDto> active = page(url + "?active=true&teamId=" + teamId).getProjects();
+		assertThat(active).allMatch(project -> project.isActive() && project.getTeam().getId() == teamId);
+		assertThat(client.read("/company/" + companyId + "/teams/" + teamId + "/projects", ProjectDto[].class))
+				.containsExactlyElementsOf(active);
+
+		String prefix = first.getName().substring(0, 2).toUpperCase();
+		assertThat(page(url + "?name=" + prefix).getProjects())
+				.allMatch(project -> project.getName().toUpperCase().startsWith(prefix)).contains(first);
+
+		mockMvc.perform(get(url + "?sort=name&after=1")).andExpect(status().isBadRequest());
+		mockMvc.perform(get(url + "?sort=team")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void unnamedAndDuplicateNamesPageByName() throws Exception {
+		long companyId = client.copyWaystar().getId();
+		long teamId = client.read(client.send(post("/company/" + companyId + "/teams"),
+				Map.of("name", "Paged By Name", "description", "Awkward names", "teammateIds", List.of()))
+				.andExpect(status().isCreated())).get("id").asLong();
+		List<String> names = Arrays.asList(null, "Dup", null, "Alpha", "Dup", "", "Zeta", null);
+		for (String name : names) {
+			Map<String, Object> project = new HashMap<>();
+			project.put("name", name);
+			project.put("active", true);
+			project.put("teamId", teamId);
+			client.send(post("/projects"), project).andExpect(status().isCreated());
+		}
+
+		// Unnamed projects sort as an empty name, with the id breaking ties
+		Comparator<ProjectDto> byName = Comparator
+				.comparing((ProjectDto project) -> Objects.toString(project.getName(), ""))
+				.thenComparing(ProjectDto::getId);
+		String url = "/company/" + companyId + "/projects?teamId=" + teamId + "&limit=2&sort=";
+		for (String sort : List.of("name", "name,desc")) {
+			List<ProjectDto> paged = new ArrayList<>();
+			ProjectPageDto page = page(url + sort);
+			paged.addAll(page.getProjects());
+			while (page.getNextCursor() != null) {
+				page = page(url + sort + "&after=" + page.getNextCursor());
+				paged.addAll(page.getProjects());
+			}
+			assertThat(paged).as(sort).hasSize(names.size()).doesNotHaveDuplicates()
+					.isSortedAccordingTo(sort.endsWith("desc") ? byName.reversed() : byName);
+		}
+	}
+
+	private ProjectPageDto page(String url) throws Exception {
+		return client.read(url, ProjectPageDto.class);
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.cooksys.groupfinal.config.RequestStatistics;
+
+/**
+ * MockMvc expectations on how much SQL a request may run. A failure lists
+ * the statements the request prepared, which makes an N+1 easy to read off.
+ */
+final class QueryBudget {
+
+	private QueryBudget() {
+	}
+
+	static ResultMatcher atMostStatements(int budget) {
+		return result -> {
+			RequestStatistics statistics = statistics(result.getRequest().getAttribute(RequestStatistics.ATTRIBUTE));
+			assertThat(statistics.getStatements())
+					.as("SQL statements for %s %s, which prepared:%n%s", result.getRequest().getMethod(),
+							result.getRequest().getRequestURI(), String.join(System.lineSeparator(), statistics.getSql()))
+					.isLessThanOrEqualTo(budget);
+		};
+	}
+
+	static ResultMatcher atMostEntityLoads(int budget) {
+		return result -> assertThat(
+				statistics(result.getRequest().getAttribute(RequestStatistics.ATTRIBUTE)).getEntityLoads())
+						.as("entities loaded for %s %s", result.getRequest().getMethod(),
+								result.getRequest().getRequestURI())
+						.isLessThanOrEqualTo(budget);
+	}
+
+	static ResultMatcher committedOnce() {
+		return result -> {
+			RequestStatistics statistics = statistics(result.getRequest().getAttribute(RequestStatistics.ATTRIBUTE));
+			assertThat(statistics.getCommits())
+					.as("transactions committed for %s %s", result.getRequest().getMethod(),
+							result.getRequest().getRequestURI())
+					.isEqualTo(1);
+		};
+	}
+
+	private static RequestStatistics statistics(Object attribute) {
+		assertThat(attribute).as("request statistics, recorded by RequestMetricsFilter").isNotNull();
+		return (RequestStatistics) attribute;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.cooksys.groupfinal.controllers;
+
+import static com.cooksys.groupfinal.controllers.QueryBudget.atMostEntityLoads;
+import static com.cooksys.groupfinal.controllers.QueryBudget.atMostStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Holds the company read endpoints to fixed SQL budgets on a generated
+ * dataset where company 1 has about 270 employees in 27 teams. The budgets do
+ * not depend on the number of rows returned; a lazy association touched per
+ * row would blow them by hundreds of statements. Batch-fetched collections
+ * add one statement per 50 owners, so growing the dataset may need a budget
+ * bumped by one.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:${random.uuid};DB_CLOSE_ON_EXIT=FALSE;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"groupfinal.perf.companies=2", "groupfinal.perf.users=400", "groupfinal.perf.teams=40",
+		"groupfinal.perf.projects=400", "groupfinal.perf.announcements=300" })
+@ActiveProfiles("perf")
+@AutoConfigureMockMvc
+class QueryBudgetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void companyReadsStayWithinTheirQueryBudgets() throws Exception {
+		mockMvc.perform(get("/company/1/users")).andExpect(status().isOk()).andExpect(atMostStatements(7));
+		mockMvc.perform(get("/company/1/teams")).andExpect(status().isOk()).andExpect(atMostStatements(4));
+		mockMvc.perform(get("/company/1/teams/1/projects")).andExpect(status().isOk())
+				.andExpect(atMostStatements(5));
+		mockMvc.perform(get("/company/1/projects?active=true&limit=200")).andExpect(status().isOk())
+				.andExpect(atMostStatements(6));
+		mockMvc.perform(get("/company/1/employees")).andExpect(status().isOk()).andExpect(atMostStatements(3))
+				.andExpect(atMostEntityLoads(50));
+		mockMvc.perform(get("/company/1/announcements")).andExpect(status().isOk()).andExpect(atMostStatements(4));
+		mockMvc.perform(get("/company/1/stats")).andExpect(status().isOk()).andExpect(atMostStatements(7));
+	}
+
+}
@@ -0,0 +1,148 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.controllers.TestClient.CompanyCopy;
+import com.cooksys.groupfinal.dtos.AnnouncementRequestDto;
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.SearchHitDto;
+import com.cooksys.groupfinal.dtos.SearchPageDto;
+import com.cooksys.groupfinal.dtos.TeamDto;
+import com.cooksys.groupfinal.dtos.TeamRequestDto;
+import com.cooksys.groupfinal.services.AnnouncementService;
+import com.cooksys.groupfinal.services.TeamService;
+import com.cooksys.groupfinal.services.UserService;
+import com.cooksys.groupfinal.services.impl.SearchServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks that committed creates, updates and deletes reach the search index
+ * through the change log and come back ranked and highlighted, and that the
+ * periodic sweep picks up changes logged without an event in this instance.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SearchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private AnnouncementService announcementService;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private SearchServiceImpl searchService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void committedWritesAreSearchable() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+		long companyId = company.getId();
+		String url = "/company/" + companyId + "/search?q=";
+
+		CredentialsDto admin = new CredentialsDto();
+		admin.setUsername(company.getAdmin());
+		admin.setPassword(TestClient.PASSWORD);
+		userService.login(admin);
+		AnnouncementRequestDto announcement = new AnnouncementRequestDto();
+		announcement.setTitle("Quarterly offsite");
+		announcement.setMessage("The <b>offsite</b> moves to the zeppelin hangar. Bring snacks.");
+		announcement.setCredentials(admin);
+		Long announcementId = announcementService.createAnnouncement(companyId, announcement, null).getId();
+
+		TeamRequestDto team = new TeamRequestDto();
+		team.setName("Zeppelin Logistics");
+		team.setDescription("Keeps the airships flying");
+		team.setTeammateIds(Set.of());
+		TeamDto created = teamService.createTeam(companyId, team);
+
+		SearchPageDto page = await(url + "zeppelins", results -> results.getHits().size() == 2);
+		assertThat(page.getHits().get(0).getType()).isEqualTo("team");
+		assertThat(page.getHits().get(0).getTitle()).isEqualTo("<mark>Zeppelin</mark> Logistics");
+		SearchHitDto hit = page.getHits().get(1);
+		assertThat(hit.getId()).isEqualTo(announcementId);
+		assertThat(hit.getSnippet()).contains("&lt;b&gt;offsite&lt;&#x2F;b&gt;", "<mark>zeppelin</mark>");
+		assertThat(search(url + "zeppelin&type=announcement").getHits()).extracting(SearchHitDto::getId)
+				.containsExactly(announcementId);
+
+		team.setName("Blimp Logistics");
+		teamService.updateTeam(companyId, created.getId(), team, null);
+		announcementService.deleteAnnouncement(announcementId, admin, null);
+		await(url + "zeppelin", results -> results.getHits().isEmpty());
+		assertThat(search(url + "blimp").getHits()).extracting(SearchHitDto::getId).containsExactly(created.getId());
+
+		mockMvc.perform(get(url + "x&limit=0")).andExpect(status().isBadRequest());
+		mockMvc.perform(get(url + "x&type=user")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void sweepPicksUpChangesLoggedElsewhere() throws Exception {
+		long companyId = client.copyWaystar().getId();
+		String url = "/company/" + companyId + "/search?q=";
+		TeamRequestDto team = new TeamRequestDto();
+		team.setName("Balloon Brigade");
+		team.setDescription("Up, up and away");
+		team.setTeammateIds(Set.of());
+		Long teamId = teamService.createTeam(companyId, team).getId();
+		await(url + "balloon", results -> results.getHits().size() == 1);
+
+		// What another instance leaves behind: the row, the revision and its change log entry, but no event here
+		jdbcTemplate.update("update team set name = 'Hovercraft Brigade' where id = ?", teamId);
+		jdbcTemplate.update("update company_revision set revision = revision + 1 where company_id = ?", companyId);
+		jdbcTemplate.update("insert into change_log (id, company_id, revision, type, entity_id, op, created_at) "
+				+ "select -company_id, company_id, revision, 'team', ?, 'updated', ? from company_revision "
+				+ "where company_id = ?", teamId, Timestamp.from(Instant.now()), companyId);
+		assertThat(search(url + "hovercraft").getHits()).isEmpty();
+
+		searchService.sweep();
+		await(url + "hovercraft", results -> results.getHits().size() == 1);
+	}
+
+	private SearchPageDto await(String url, Predicate<SearchPageDto> condition) throws Exception {
+		SearchPageDto page = search(url);
+		for (int attempt = 0; attempt < 50 && !condition.test(page); attempt++) {
+			Thread.sleep(100);
+			page = search(url);
+		}
+		assertThat(condition).as("search results within 5 seconds").accepts(page);
+		return page;
+	}
+
+	private SearchPageDto search(String url) throws Exception {
+		return client.read(url, SearchPageDto.class);
+	}
+
+}
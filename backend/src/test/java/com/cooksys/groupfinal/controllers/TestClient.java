@@ -0,0 +1,140 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.cooksys.groupfinal.dtos.SnapshotImportResultDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Drives the API through MockMvc for the controller tests and gives each
+ * test a company of its own. Companies are copies of the Seeder's waystar
+ * company made through snapshot export and import, so a test can write to
+ * its copy without other tests seeing the changes, whatever order they run
+ * in.
+ */
+@RequiredArgsConstructor
+final class TestClient {
+
+	static final String ADMIN = "temporaryceoofwaystar";
+	static final String PASSWORD = "idontgetpaidenoughforthis";
+
+	private static final AtomicInteger COPIES = new AtomicInteger();
+
+	private final MockMvc mockMvc;
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * The seeded waystar company, found through its admin since copies share
+	 * its name. Tests only read it and write to a copy instead.
+	 */
+	long waystarId() throws Exception {
+		return read(send(post("/users/login"), Map.of("username", ADMIN, "password", PASSWORD))
+				.andExpect(status().isOk())).get("companies").get(0).get("id").asLong();
+	}
+
+	/**
+	 * Imports a new copy of the seeded waystar company. Its usernames carry a
+	 * suffix unique to the copy, and passwords are unchanged.
+	 */
+	CompanyCopy copyWaystar() throws Exception {
+		String authorization = login(ADMIN, PASSWORD);
+		String suffix = "-fixture" + COPIES.incrementAndGet();
+		SnapshotImportResultDto copy = importSnapshot(export(waystarId(), authorization), suffix, authorization);
+		return new CompanyCopy(copy.getCompanyId(), suffix);
+	}
+
+	String export(long companyId, String authorization) throws Exception {
+		MvcResult result = mockMvc.perform(get("/company/" + companyId + "/export")
+				.header(HttpHeaders.AUTHORIZATION, authorization)).andReturn();
+		return mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn().getResponse()
+				.getContentAsString();
+	}
+
+	SnapshotImportResultDto importSnapshot(String snapshot, String suffix, String authorization)
+			throws Exception {
+		return read(mockMvc
+				.perform(post("/company/import").param("usernameSuffix", suffix)
+						.header(HttpHeaders.AUTHORIZATION, authorization)
+						.contentType(MediaType.APPLICATION_NDJSON).content(snapshot))
+				.andExpect(status().isCreated()), SnapshotImportResultDto.class);
+	}
+
+	/**
+	 * Logs in and returns the Authorization header value for the session.
+	 */
+	String login(String username, String password) throws Exception {
+		return "Bearer " + read(send(post("/users/login"), Map.of("username", username, "password", password))
+				.andExpect(status().isOk())).get("token").asText();
+	}
+
+	/**
+	 * Performs the request with the body, if any, as JSON.
+	 */
+	ResultActions send(MockHttpServletRequestBuilder request, Object body) throws Exception {
+		if (body != null) {
+			request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+		}
+		return mockMvc.perform(request);
+	}
+
+	JsonNode read(ResultActions result) throws Exception {
+		return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+	}
+
+	<T> T read(ResultActions result, Class<T> type) throws Exception {
+		return objectMapper.readValue(result.andReturn().getResponse().getContentAsString(), type);
+	}
+
+	/**
+	 * Reads a GET that has to succeed.
+	 */
+	JsonNode read(String url) throws Exception {
+		return read(mockMvc.perform(get(url)).andExpect(status().isOk()));
+	}
+
+	<T> T read(String url, Class<T> type) throws Exception {
+		return read(mockMvc.perform(get(url)).andExpect(status().isOk()), type);
+	}
+
+	<T> T read(String url, TypeReference<T> type) throws Exception {
+		return objectMapper.readValue(mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse()
+				.getContentAsString(), type);
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	static final class CompanyCopy {
+
+		private final long id;
+
+		private final String suffix;
+
+		String getUrl() {
+			return "/company/" + id;
+		}
+
+		String getAdmin() {
+			return ADMIN + suffix;
+		}
+
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs {@link ContendedWriteTests}' burst with conflict retries turned off,
+ * where an edit that read the same version as a concurrent commit is refused.
+ */
+@SpringBootTest(properties = "groupfinal.retry.max-attempts=1")
+@AutoConfigureMockMvc
+class UnretriedContendedWriteTests extends ContendedWriteTests {
+
+	@Override
+	void assertRefused(int refused) {
+		assertThat(refused).as("edits refused with 409").isGreaterThanOrEqualTo(EDITS / 2);
+	}
+
+}
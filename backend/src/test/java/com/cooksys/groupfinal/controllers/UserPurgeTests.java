@@ -0,0 +1,132 @@
+package com.cooksys.groupfinal.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.controllers.TestClient.CompanyCopy;
+import com.cooksys.groupfinal.dtos.UserPurgeDto;
+import com.cooksys.groupfinal.repositories.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Purges a user who authored an announcement and sits on a team, then runs
+ * the background purge over one long-deactivated and one recently deactivated
+ * user, a batch of one at a time. Both purges have to move the company ETag.
+ */
+@SpringBootTest(properties = { "groupfinal.purge.batch-size=1", "groupfinal.purge.pause=PT0S" })
+@AutoConfigureMockMvc
+class UserPurgeTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void purgesUsersWithSetBasedStatements() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+		long companyId = company.getId();
+		String admin = client.login(company.getAdmin(), TestClient.PASSWORD);
+
+		long authorId = addUser(companyId, "purge-author", true);
+		long announcementId = client.read(client.send(
+				post("/company/" + companyId + "/announcements").header(HttpHeaders.AUTHORIZATION,
+						client.login("purge-author", "purge")),
+				Map.of("title", "Outlives its author", "message", "Still here")).andExpect(status().isCreated()))
+						.get("id").asLong();
+		long teamId = client.read(client.send(post("/company/" + companyId + "/teams"),
+				Map.of("name", "Purge Team", "description", "Loses a member", "teammateIds", List.of(authorId)))
+						.andExpect(status().isCreated())).get("id").asLong();
+		String teamsUrl = "/company/" + companyId + "/teams";
+		String teamsETag = eTag(teamsUrl);
+
+		mockMvc.perform(delete("/users/" + authorId + "/permanent")).andExpect(status().isNoContent());
+		// The purge's bulk statements still move the company revision behind the ETag
+		mockMvc.perform(get(teamsUrl).header(HttpHeaders.IF_NONE_MATCH, teamsETag)).andExpect(status().isOk());
+		assertThat(userRepository.existsById(authorId)).isFalse();
+		JsonNode feed = client.read("/company/" + companyId + "/announcements");
+		assertThat(feed.get("announcements")).anySatisfy(announcement -> {
+			assertThat(announcement.get("id").asLong()).isEqualTo(announcementId);
+			assertThat(announcement.get("author").isNull()).isTrue();
+		});
+		assertThat(client.read(teamsUrl)).anySatisfy(team -> {
+			assertThat(team.get("id").asLong()).isEqualTo(teamId);
+			assertThat(team.get("teammates")).isEmpty();
+		});
+
+		long stale = addUser(companyId, "purge-stale", false);
+		long recent = addUser(companyId, "purge-recent", false);
+		mockMvc.perform(delete("/users/" + stale)).andExpect(status().isNoContent());
+		mockMvc.perform(delete("/users/" + recent)).andExpect(status().isNoContent());
+		jdbcTemplate.update("update user_table set deactivated_at = ? where id = ?",
+				Timestamp.from(Instant.now().minus(Duration.ofDays(40))), stale);
+		String purgeETag = eTag(teamsUrl);
+
+		mockMvc.perform(post("/users/purge?inactiveDays=0").header(HttpHeaders.AUTHORIZATION, admin))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/users/purge?inactiveDays=30")).andExpect(status().isBadRequest());
+		mockMvc.perform(post("/users/purge?inactiveDays=30").header(HttpHeaders.AUTHORIZATION, admin))
+				.andExpect(status().isAccepted());
+		UserPurgeDto purge = purge(admin);
+		for (int polls = 0; purge.getStatus().equals("RUNNING") && polls < 100; polls++) {
+			Thread.sleep(50);
+			purge = purge(admin);
+		}
+		assertThat(purge.getStatus()).isEqualTo("COMPLETED");
+		assertThat(purge.getPurged()).isEqualTo(1);
+		assertThat(userRepository.existsById(stale)).isFalse();
+		assertThat(userRepository.existsById(recent)).isTrue();
+		mockMvc.perform(get(teamsUrl).header(HttpHeaders.IF_NONE_MATCH, purgeETag)).andExpect(status().isOk());
+	}
+
+	private long addUser(long companyId, String username, boolean admin) throws Exception {
+		return client.read(client.send(post("/company/" + companyId + "/user"),
+				Map.of("credentials", Map.of("username", username, "password", "purge"), "profile",
+						Map.of("firstName", "Purge", "lastName", username, "email", username + "@example.com"),
+						"admin", admin)).andExpect(status().isCreated())).get("id").asLong();
+	}
+
+	private String eTag(String url) throws Exception {
+		return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+	}
+
+	private UserPurgeDto purge(String authorization) throws Exception {
+		return client.read(mockMvc.perform(get("/users/purge").header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isOk()), UserPurgeDto.class);
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.cooksys.groupfinal.controllers;
+
+import static com.cooksys.groupfinal.controllers.QueryBudget.atMostStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cooksys.groupfinal.controllers.TestClient.CompanyCopy;
+import com.cooksys.groupfinal.dtos.BasicUserDto;
+import com.cooksys.groupfinal.dtos.CredentialsDto;
+import com.cooksys.groupfinal.dtos.ProfileDto;
+import com.cooksys.groupfinal.dtos.UserRequestDto;
+import com.cooksys.groupfinal.dtos.UserUpdateRequestDto;
+import com.cooksys.groupfinal.services.UserService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Follows a user through the write paths the typeahead listens to and checks
+ * that lookups reflect each change without issuing any SQL, and that a
+ * missing last name is never indexed as text.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserSuggestTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserService userService;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void suggestionsFollowCommittedUserChanges() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+		long companyId = company.getId();
+		String url = "/company/" + companyId + "/users/suggest?prefix=";
+
+		CredentialsDto admin = credentials(company.getAdmin(), TestClient.PASSWORD);
+		userService.login(admin);
+		UserRequestDto request = new UserRequestDto();
+		request.setCredentials(credentials("zquasar", "password"));
+		ProfileDto profile = new ProfileDto();
+		profile.setFirstName("Zebulon");
+		profile.setLastName("Quasar");
+		profile.setEmail("zq@email.com");
+		request.setProfile(profile);
+		Long userId = userService.addUser(companyId, request).getId();
+
+		await(url + "ZEB", users -> ids(users).contains(userId));
+		mockMvc.perform(get(url + "zebulon q")).andExpect(status().isOk()).andExpect(atMostStatements(0));
+		assertThat(ids(suggest(url + "zebulon q"))).containsExactly(userId);
+		assertThat(ids(suggest(url + "zq@"))).containsExactly(userId);
+		assertThat(ids(suggest(url + "zqua"))).containsExactly(userId);
+
+		UserUpdateRequestDto update = new UserUpdateRequestDto();
+		ProfileDto renamed = new ProfileDto();
+		renamed.setFirstName("Xanthe");
+		update.setProfile(renamed);
+		userService.updateUser(userId, update, null);
+		await(url + "xanthe", users -> ids(users).contains(userId));
+		assertThat(ids(suggest(url + "zebulon"))).doesNotContain(userId);
+
+		userService.deleteUser(userId);
+		await(url + "xanthe", users -> !ids(users).contains(userId));
+		userService.reinstateUser(userId, admin, null);
+		await(url + "xanthe", users -> ids(users).contains(userId));
+
+		UserRequestDto unnamed = new UserRequestDto();
+		unnamed.setCredentials(credentials("ynameless", "password"));
+		ProfileDto firstNameOnly = new ProfileDto();
+		firstNameOnly.setFirstName("Yvaine");
+		firstNameOnly.setEmail("yn@email.com");
+		unnamed.setProfile(firstNameOnly);
+		Long unnamedId = userService.addUser(companyId, unnamed).getId();
+		await(url + "yvaine", users -> ids(users).contains(unnamedId));
+		assertThat(ids(suggest(url + "yvaine n"))).doesNotContain(unnamedId);
+		assertThat(ids(suggest(url + "null"))).doesNotContain(unnamedId);
+
+		mockMvc.perform(get(url + "x&limit=51")).andExpect(status().isBadRequest());
+	}
+
+	private List<BasicUserDto> await(String url, Predicate<List<BasicUserDto>> condition) throws Exception {
+		List<BasicUserDto> users = suggest(url);
+		for (int attempt = 0; attempt < 50 && !condition.test(users); attempt++) {
+			Thread.sleep(100);
+			users = suggest(url);
+		}
+		assertThat(condition).as("suggestions within 5 seconds").accepts(users);
+		return users;
+	}
+
+	private List<BasicUserDto> suggest(String url) throws Exception {
+		return client.read(url, new TypeReference<List<BasicUserDto>>() {
+		});
+	}
+
+	private static List<Long> ids(List<BasicUserDto> users) {
+		return users.stream().map(BasicUserDto::getId).collect(Collectors.toList());
+	}
+
+	private static CredentialsDto credentials(String username, String password) {
+		CredentialsDto credentials = new CredentialsDto();
+		credentials.setUsername(username);
+		credentials.setPassword(password);
+		return credentials;
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.cooksys.groupfinal.controllers;
+
+import static com.cooksys.groupfinal.controllers.QueryBudget.atMostStatements;
+import static com.cooksys.groupfinal.controllers.QueryBudget.committedOnce;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.cooksys.groupfinal.controllers.TestClient.CompanyCopy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Walks a user, team, project and announcement through their write endpoints
+ * and holds each request to a single commit and a fixed SQL budget, so a write
+ * split across transactions or a flush per repository call shows up here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class WriteBudgetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private TestClient client;
+
+	@BeforeEach
+	void createClient() {
+		client = new TestClient(mockMvc, objectMapper);
+	}
+
+	@Test
+	void writesCommitOnceWithinTheirQueryBudgets() throws Exception {
+		CompanyCopy company = client.copyWaystar();
+		long companyId = company.getId();
+		String authorization = "Bearer " + client.read(perform(post("/users/login"), Map.of("username",
+				company.getAdmin(), "password", TestClient.PASSWORD), 9)).get("token").asText();
+
+		Map<String, String> credentials = Map.of("username", "wb-budget", "password", "budget");
+		long userId = client.read(perform(post("/company/" + companyId + "/user"),
+				Map.of("credentials", credentials, "profile", Map.of("firstName", "Write", "lastName", "Budget",
+						"email", "wb-budget@example.com")), 13)).get("id").asLong();
+		perform(patch("/users/" + userId), Map.of("profile", Map.of("phone", "555-0100")), 12);
+		perform(post("/users/login"), credentials, 8);
+		perform(delete("/users/" + userId), null, 9);
+		perform(patch("/users/" + userId + "/reinstate").header(HttpHeaders.AUTHORIZATION, authorization), null, 13);
+
+		long teamId = client.read(perform(post("/company/" + companyId + "/teams"),
+				Map.of("name", "Write Budget", "description", "Budgeted", "teammateIds", List.of(userId)), 13))
+						.get("id").asLong();
+		perform(patch("/company/" + companyId + "/teams/" + teamId), Map.of("name", "Write Budget Renamed"), 7);
+		perform(patch("/company/" + companyId + "/teams/" + teamId + "/members"),
+				Map.of("removeIds", List.of(userId)), 8);
+
+		long projectId = client.read(perform(post("/projects"),
+				Map.of("name", "Budgeted Project", "description", "Budgeted", "active", true, "teamId", teamId), 8))
+						.get("id").asLong();
+		perform(patch("/projects/" + projectId), Map.of("active", false), 8);
+		perform(delete("/projects/" + projectId), null, 6);
+
+		long announcementId = client.read(perform(
+				post("/company/" + companyId + "/announcements").header(HttpHeaders.AUTHORIZATION, authorization),
+				Map.of("title", "Budgeted", "message", "Posted once"), 7)).get("id").asLong();
+		perform(put("/announcements/" + announcementId).header(HttpHeaders.AUTHORIZATION, authorization),
+				Map.of("title", "Budgeted", "message", "Edited once"), 6);
+		perform(delete("/announcements/" + announcementId).header(HttpHeaders.AUTHORIZATION, authorization), null,
+				7);
+
+		perform(delete("/company/" + companyId + "/teams/" + teamId), null, 10);
+		perform(delete("/users/" + userId + "/permanent"), null, 11);
+	}
+
+	private ResultActions perform(MockHttpServletRequestBuilder request, Object body, int budget) throws Exception {
+		return client.send(request, body).andExpect(status().is2xxSuccessful()).andExpect(committedOnce())
+				.andExpect(atMostStatements(budget));
+	}
+
+}
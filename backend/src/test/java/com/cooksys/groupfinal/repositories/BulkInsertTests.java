@@ -0,0 +1,130 @@
+package com.cooksys.groupfinal.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.config.SchemaUpgrade;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.Credentials;
+import com.cooksys.groupfinal.entities.Profile;
+import com.cooksys.groupfinal.entities.User;
+
+/**
+ * Checks that bulk writes are grouped into JDBC batches and that ids come
+ * from pooled sequences, so the number of statements grows with
+ * rows / batch size rather than with the number of rows, and that those
+ * sequences are moved past ids written before them.
+ */
+@SpringBootTest
+class BulkInsertTests {
+
+	private static final int ROWS = 500;
+
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+	private int batchSize;
+
+	@Value("${spring.jpa.properties.groupfinal.id.allocation_size}")
+	private int allocationSize;
+
+	@Autowired
+	private CompanyRepository companyRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private SchemaUpgrade schemaUpgrade;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void bulkInsertStatementsScaleWithBatchSize() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			List<User> users = new ArrayList<>();
+			for (int i = 0; i < ROWS; i++) {
+				users.add(newUser("bulkinsert" + i));
+			}
+			users = userRepository.saveAll(users);
+
+			Company company = new Company();
+			company.setName("Bulk Insert");
+			company.setDescription("A company created with many employees at once.");
+			company.setEmployees(new HashSet<>(users));
+			companyRepository.saveAndFlush(company);
+		});
+
+		long statements = statistics.getPrepareStatementCount();
+		long sequenceCalls = ceil(ROWS, allocationSize) + 1;
+		long userInserts = ceil(ROWS, batchSize);
+		long employeeInserts = ceil(ROWS, batchSize);
+		long expected = sequenceCalls + userInserts + 1 + employeeInserts;
+
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS + 1);
+		assertThat(statements).isLessThanOrEqualTo(expected);
+	}
+
+	@Test
+	void sequencesMoveAboveExistingIds() {
+		// A row written before the per-entity sequences, with an id the sequence has not reached yet
+		long existingId = jdbcTemplate.queryForObject("select nextval('company_seq')", Long.class) + 10_000;
+		jdbcTemplate.update("insert into company (id, name, description, version) values (?, ?, ?, 0)", existingId,
+				"Pre-sequence", "Inserted before the per-entity sequences existed.");
+		try {
+			schemaUpgrade.upgrade();
+			long next = jdbcTemplate.queryForObject("select nextval('company_seq')", Long.class);
+			assertThat(next).isGreaterThan(existingId);
+
+			// A sequence already past every id is left where it is
+			schemaUpgrade.upgrade();
+			assertThat(jdbcTemplate.queryForObject("select nextval('company_seq')", Long.class))
+					.isGreaterThan(next);
+		} finally {
+			jdbcTemplate.update("delete from company_revision where company_id = ?", existingId);
+			jdbcTemplate.update("delete from company where id = ?", existingId);
+		}
+	}
+
+	private static long ceil(int rows, int size) {
+		return (rows + size - 1) / size;
+	}
+
+	private static User newUser(String username) {
+		User user = new User();
+		Credentials credentials = new Credentials();
+		credentials.setUsername(username);
+		credentials.setPassword("password");
+		user.setCredentials(credentials);
+		Profile profile = new Profile();
+		profile.setFirstName("Bulk");
+		profile.setLastName("Insert");
+		profile.setEmail(username + "@email.com");
+		user.setProfile(profile);
+		user.setActive(true);
+		return user;
+	}
+
+}
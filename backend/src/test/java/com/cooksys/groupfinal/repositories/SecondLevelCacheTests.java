@@ -0,0 +1,126 @@
+package com.cooksys.groupfinal.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cooksys.groupfinal.dtos.TeamMembersRequestDto;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.Team;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.services.TeamService;
+import com.cooksys.groupfinal.services.UserImportService;
+
+/**
+ * Checks that cached companies, teams and membership collections are served
+ * without touching the database, and that the set-based roster and employee
+ * statements and imports invalidate the collections they change, along with
+ * no team but the one whose version they bump.
+ */
+@SpringBootTest
+class SecondLevelCacheTests {
+
+	@Autowired
+	private CompanyRepository companyRepository;
+
+	@Autowired
+	private TeamRepository teamRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void cachedTeammatesAreServedFromCacheAndInvalidatedByRosterChanges() {
+		Team team = teamRepository.findAll().stream().filter(candidate -> "Team 1".equals(candidate.getName()))
+				.findFirst().orElseThrow();
+		Long companyId = transactionTemplate
+				.execute(status -> teamRepository.findById(team.getId()).orElseThrow().getCompany().getId());
+		Set<Long> before = teammateIds(team.getId());
+
+		Statistics statistics = statistics();
+		statistics.clear();
+		assertThat(teammateIds(team.getId())).isEqualTo(before);
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+		assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+
+		Team other = teamRepository.findAll().stream().filter(candidate -> "Team 2".equals(candidate.getName()))
+				.findFirst().orElseThrow();
+		long version = transactionTemplate.execute(status -> teamRepository.findById(team.getId()).orElseThrow())
+				.getVersion();
+		Long removed = before.iterator().next();
+		TeamMembersRequestDto request = new TeamMembersRequestDto();
+		request.setRemoveIds(Set.of(removed));
+		teamService.updateMembers(companyId, team.getId(), request, null);
+
+		assertThat(teammateIds(team.getId())).doesNotContain(removed).hasSize(before.size() - 1);
+		// The version bump drops only the team it moved on, which is then reloaded at its new version
+		assertThat(entityManagerFactory.getCache().contains(Team.class, other.getId())).isTrue();
+		assertThat(transactionTemplate.execute(status -> teamRepository.findById(team.getId()).orElseThrow())
+				.getVersion()).isEqualTo(version + 1);
+
+		request = new TeamMembersRequestDto();
+		request.setAddIds(Set.of(removed));
+		teamService.updateMembers(companyId, team.getId(), request, null);
+
+		assertThat(teammateIds(team.getId())).isEqualTo(before);
+	}
+
+	@Test
+	void cachedEmployeesAreInvalidatedByImports() {
+		Company company = new Company();
+		company.setName("Cache Invalidation");
+		Long companyId = companyRepository.saveAndFlush(company).getId();
+		assertThat(employeeIds(companyId)).isEmpty();
+
+		List<User> users = userRepository.findAll().stream().limit(3).collect(Collectors.toList());
+		StringBuilder csv = new StringBuilder("username,password,email\n");
+		users.forEach(user -> csv.append(user.getCredentials().getUsername()).append(",password,")
+				.append(user.getProfile().getEmail()).append("\n"));
+		userImportService.importUsers(companyId, "text/csv",
+				new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), result -> {
+				});
+
+		assertThat(employeeIds(companyId))
+				.containsExactlyInAnyOrderElementsOf(users.stream().map(User::getId).collect(Collectors.toList()));
+	}
+
+	private Set<Long> teammateIds(Long teamId) {
+		return transactionTemplate.execute(status -> teamRepository.findById(teamId).orElseThrow().getTeammates()
+				.stream().map(User::getId).collect(Collectors.toSet()));
+	}
+
+	private Set<Long> employeeIds(Long companyId) {
+		return transactionTemplate.execute(status -> companyRepository.findById(companyId).orElseThrow()
+				.getEmployees().stream().map(User::getId).collect(Collectors.toSet()));
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.cooksys.groupfinal.services.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.cooksys.groupfinal.dtos.SessionDto;
+import com.cooksys.groupfinal.entities.Company;
+import com.cooksys.groupfinal.entities.Credentials;
+import com.cooksys.groupfinal.entities.User;
+import com.cooksys.groupfinal.exceptions.NotAuthorizedException;
+import com.cooksys.groupfinal.repositories.UserRepository;
+
+/**
+ * Issues, resolves, expires, revokes and evicts sessions on a store built
+ * without Spring, so the time to live and the capacity can be made tiny.
+ */
+class SessionServiceImplTests {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+
+	@Test
+	void issuedTokensResolveWithoutTheDatabase() {
+		SessionServiceImpl sessionService = new SessionServiceImpl(userRepository, Duration.ofHours(1), 10);
+
+		SessionDto session = sessionService.openSession(user(1L, "roman"));
+		SessionDto resolved = sessionService.resolve("Bearer " + session.getToken(), null);
+		assertThat(resolved).isEqualTo(session);
+		assertThat(resolved.getUsername()).isEqualTo("roman");
+		assertThat(resolved.getCompanyIds()).containsExactly(7L);
+		assertThat(sessionService.openSession(user(1L, "roman")).getToken()).isNotEqualTo(session.getToken());
+
+		assertThatThrownBy(() -> sessionService.resolve(session.getToken(), null))
+				.isInstanceOf(NotAuthorizedException.class);
+		assertThatThrownBy(() -> sessionService.resolve("Bearer unknown", null))
+				.isInstanceOf(NotAuthorizedException.class);
+		verifyNoInteractions(userRepository);
+	}
+
+	@Test
+	void expiredSessionsAreRejectedAndSwept() throws Exception {
+		SessionServiceImpl sessionService = new SessionServiceImpl(userRepository, Duration.ofMillis(20), 10);
+		SessionDto first = sessionService.openSession(user(1L, "kendall"));
+		SessionDto second = sessionService.openSession(user(2L, "shiv"));
+
+		Thread.sleep(50);
+		SessionDto fresh = sessionService.openSession(user(3L, "connor"));
+		assertThatThrownBy(() -> sessionService.resolve("Bearer " + first.getToken(), null))
+				.isInstanceOf(NotAuthorizedException.class).hasMessageContaining("expired");
+
+		sessionService.evictExpired();
+		assertThatThrownBy(() -> sessionService.resolve("Bearer " + second.getToken(), null))
+				.isInstanceOf(NotAuthorizedException.class).hasMessageContaining("invalid");
+		assertThat(sessionService.resolve("Bearer " + fresh.getToken(), null)).isEqualTo(fresh);
+	}
+
+	@Test
+	void revokingAUserDropsOnlyTheirSessions() {
+		SessionServiceImpl sessionService = new SessionServiceImpl(userRepository, Duration.ofHours(1), 10);
+		SessionDto phone = sessionService.openSession(user(1L, "logan"));
+		SessionDto laptop = sessionService.openSession(user(1L, "logan"));
+		SessionDto other = sessionService.openSession(user(2L, "gerri"));
+
+		sessionService.revokeUser(1L);
+		for (SessionDto revoked : Set.of(phone, laptop)) {
+			assertThatThrownBy(() -> sessionService.resolve("Bearer " + revoked.getToken(), null))
+					.isInstanceOf(NotAuthorizedException.class);
+		}
+		assertThat(sessionService.resolve("Bearer " + other.getToken(), null)).isEqualTo(other);
+		sessionService.revokeUser(1L);
+	}
+
+	@Test
+	void theOldestSessionIsEvictedAtCapacity() {
+		SessionServiceImpl sessionService = new SessionServiceImpl(userRepository, Duration.ofHours(1), 3);
+		SessionDto first = sessionService.openSession(user(1L, "tom"));
+		SessionDto second = sessionService.openSession(user(2L, "greg"));
+		SessionDto third = sessionService.openSession(user(3L, "frank"));
+		sessionService.revokeUser(2L);
+
+		// Revoking freed a slot, so nothing is evicted until the store is full again
+		SessionDto fourth = sessionService.openSession(user(4L, "karl"));
+		assertThat(sessionService.resolve("Bearer " + first.getToken(), null)).isEqualTo(first);
+		SessionDto fifth = sessionService.openSession(user(5L, "karolina"));
+
+		assertThatThrownBy(() -> sessionService.resolve("Bearer " + first.getToken(), null))
+				.isInstanceOf(NotAuthorizedException.class);
+		for (SessionDto kept : Set.of(third, fourth, fifth)) {
+			assertThat(sessionService.resolve("Bearer " + kept.getToken(), null)).isEqualTo(kept);
+		}
+		assertThatThrownBy(() -> sessionService.resolve("Bearer " + second.getToken(), null))
+				.isInstanceOf(NotAuthorizedException.class);
+	}
+
+	private User user(Long id, String username) {
+		Credentials credentials = new Credentials();
+		credentials.setUsername(username);
+		credentials.setPassword("password");
+		Company company = new Company();
+		company.setId(7L);
+		User user = new User();
+		user.setId(id);
+		user.setCredentials(credentials);
+		user.setCompanies(Set.of(company));
+		return user;
+	}
+
+}
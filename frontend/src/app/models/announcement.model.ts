@@ -7,3 +7,8 @@ export interface Announcement {
   message: string;
   author: BasicUser;
 }
+
+export interface AnnouncementPage {
+  announcements: Announcement[];
+  nextCursor: string | null;
+}
@@ -16,19 +16,20 @@ export interface BasicUser {
 export interface CompanySummary {
   id: number;
   name: string;
-  description: string;
+  description?: string;
 }
 
 export interface TeamSummary {
   id: number;
   name: string;
-  description: string;
+  description?: string;
 }
 
 export interface FullUser extends BasicUser {
   username?: string;
   companies?: CompanySummary[];
   teams?: TeamSummary[];
+  token?: string;
 }
 
 export type UserRole = 'admin' | 'worker';
@@ -118,6 +118,18 @@ export class HomeComponent {
     this.companyDataService.deleteAnnouncement(announcement.id).subscribe();
   }
 
+  get hasOlderAnnouncements(): boolean {
+    const company = this.authService.selectedCompany;
+    return !!company && this.companyDataService.hasOlderAnnouncements(company);
+  }
+
+  loadOlderAnnouncements(): void {
+    const company = this.authService.selectedCompany;
+    if (company) {
+      this.companyDataService.loadOlderAnnouncements(company);
+    }
+  }
+
   markAnnouncementsRead(): void {
     const company = this.authService.selectedCompany;
     const user = this.authService.currentUser;
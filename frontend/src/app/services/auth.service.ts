@@ -125,6 +125,23 @@ export class AuthService {
     return localStorage.getItem(this.identifierKey);
   }
 
+  get sessionToken(): string | null {
+    return this.currentUser?.token ?? null;
+  }
+
+  /**
+   * Forgets a session token the server has rejected, so later calls fall back to the stored credentials.
+   */
+  dropSessionToken(): void {
+    const user = this.currentUser;
+    if (!user?.token) {
+      return;
+    }
+    const withoutToken: FullUser = { ...user, token: undefined };
+    this.currentUserSubject.next(withoutToken);
+    localStorage.setItem(this.userKey, JSON.stringify(withoutToken));
+  }
+
   get credentialsPayload(): CredentialsPayload | null {
     const username = this.storedIdentifier;
     const password = this.storedPassword;
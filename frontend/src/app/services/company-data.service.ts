@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { BehaviorSubject, Observable, map, of, tap, throwError } from 'rxjs';
-import { Announcement } from '../models/announcement.model';
+import { HttpClient, HttpErrorResponse, HttpHeaders } from '@angular/common/http';
+import { BehaviorSubject, Observable, catchError, map, of, tap, throwError } from 'rxjs';
+import { Announcement, AnnouncementPage } from '../models/announcement.model';
 import { CompanyOption } from '../models/company.model';
 import { Project } from '../models/project.model';
 import { Team } from '../models/team.model';
@@ -35,6 +35,11 @@ interface UserDraftPayload {
   isAdmin: boolean;
 }
 
+interface AuthPayload {
+  credentials?: { username: string; password: string };
+  headers?: HttpHeaders;
+}
+
 @Injectable({
   providedIn: 'root'
 })
@@ -42,6 +47,7 @@ export class CompanyDataService {
   private readonly apiUrl = 'http://localhost:8080';
 
   private announcementStreams = new Map<number, BehaviorSubject<Announcement[]>>();
+  private announcementCursors = new Map<number, string | null>();
   private teamStreams = new Map<number, BehaviorSubject<Team[]>>();
   private projectStreams = new Map<string, BehaviorSubject<Project[]>>();
   private userStreams = new Map<number, BehaviorSubject<BasicUser[]>>();
@@ -50,16 +56,28 @@ export class CompanyDataService {
 
   refreshAnnouncements(company: CompanyOption): void {
     this.http
-      .get<Announcement[]>(`${this.apiUrl}/company/${company.id}/announcements`)
-      .pipe(
-        map((announcements: Announcement[]) =>
-          [...announcements].sort(
-            (a, b) => new Date(b.date).getTime() - new Date(a.date).getTime()
-          )
-        )
-      )
-      .subscribe((announcements: Announcement[]) => {
-        this.getAnnouncementStream(company.id).next(announcements);
+      .get<AnnouncementPage>(`${this.apiUrl}/company/${company.id}/announcements`)
+      .subscribe((page: AnnouncementPage) => {
+        this.announcementCursors.set(company.id, page.nextCursor);
+        this.getAnnouncementStream(company.id).next(page.announcements);
+      });
+  }
+
+  hasOlderAnnouncements(company: CompanyOption): boolean {
+    return !!this.announcementCursors.get(company.id);
+  }
+
+  loadOlderAnnouncements(company: CompanyOption): void {
+    const before = this.announcementCursors.get(company.id);
+    if (!before) {
+      return;
+    }
+    this.http
+      .get<AnnouncementPage>(`${this.apiUrl}/company/${company.id}/announcements`, { params: { before } })
+      .subscribe((page: AnnouncementPage) => {
+        this.announcementCursors.set(company.id, page.nextCursor);
+        const stream = this.getAnnouncementStream(company.id);
+        stream.next([...stream.value, ...page.announcements]);
       });
   }
 
@@ -69,16 +87,13 @@ export class CompanyDataService {
   }
 
   createAnnouncement(company: CompanyOption, payload: AnnouncementRequest): Observable<Announcement> {
-    const credentials = this.authService.credentialsPayload;
-    if (!credentials) {
-      return throwError(() => new Error('Missing credentials for announcement creation.'));
-    }
-    const request = {
-      title: payload.title,
-      message: payload.message,
-      credentials
-    };
-    return this.http.post<Announcement>(`${this.apiUrl}/company/${company.id}/announcements`, request).pipe(
+    return this.withAuth('Missing credentials for announcement creation.', (auth) =>
+      this.http.post<Announcement>(
+        `${this.apiUrl}/company/${company.id}/announcements`,
+        { title: payload.title, message: payload.message, credentials: auth.credentials },
+        { headers: auth.headers }
+      )
+    ).pipe(
       tap((announcement: Announcement) => {
         const stream = this.getAnnouncementStream(company.id);
         stream.next([announcement, ...stream.value]);
@@ -87,32 +102,30 @@ export class CompanyDataService {
   }
 
   updateAnnouncement(announcementId: number, payload: AnnouncementRequest): Observable<Announcement> {
-    const credentials = this.authService.credentialsPayload;
-    if (!credentials) {
-      return throwError(() => new Error('Missing credentials for announcement updates.'));
-    }
-    return this.http
-      .put<Announcement>(`${this.apiUrl}/announcements/${announcementId}`, {
-        ...payload,
-        credentials
+    return this.withAuth('Missing credentials for announcement updates.', (auth) =>
+      this.http.put<Announcement>(
+        `${this.apiUrl}/announcements/${announcementId}`,
+        { ...payload, credentials: auth.credentials },
+        { headers: auth.headers }
+      )
+    ).pipe(
+      tap((announcement) => {
+        this.announcementStreams.forEach((stream) => {
+          stream.next(
+            stream.value.map((existing) => (existing.id === announcement.id ? announcement : existing))
+          );
+        });
       })
-      .pipe(
-        tap((announcement) => {
-          this.announcementStreams.forEach((stream) => {
-            stream.next(
-              stream.value.map((existing) => (existing.id === announcement.id ? announcement : existing))
-            );
-          });
-        })
-      );
+    );
   }
 
   deleteAnnouncement(announcementId: number): Observable<void> {
-    const credentials = this.authService.credentialsPayload;
-    if (!credentials) {
-      return throwError(() => new Error('Missing credentials for announcement deletion.'));
-    }
-    return this.http.delete<void>(`${this.apiUrl}/announcements/${announcementId}`, { body: credentials }).pipe(
+    return this.withAuth('Missing credentials for announcement deletion.', (auth) =>
+      this.http.delete<void>(`${this.apiUrl}/announcements/${announcementId}`, {
+        body: auth.credentials,
+        headers: auth.headers
+      })
+    ).pipe(
       tap(() => {
         this.announcementStreams.forEach((stream) => {
           stream.next(stream.value.filter((announcement) => announcement.id !== announcementId));
@@ -268,11 +281,11 @@ export class CompanyDataService {
   }
 
   reinstateUser(company: CompanyOption, userId: number): Observable<BasicUser> {
-    const credentials = this.authService.credentialsPayload;
-    if (!credentials) {
-      return throwError(() => new Error('Missing credentials for user reinstatement.'));
-    }
-    return this.http.patch<BasicUser>(`${this.apiUrl}/users/${userId}/reinstate`, credentials).pipe(
+    return this.withAuth('Missing credentials for user reinstatement.', (auth) =>
+      this.http.patch<BasicUser>(`${this.apiUrl}/users/${userId}/reinstate`, auth.credentials, {
+        headers: auth.headers
+      })
+    ).pipe(
       tap((user) => {
         const stream = this.getUserStream(company.id);
         stream.next(stream.value.map((existing) => (existing.id === user.id ? user : existing)));
@@ -280,6 +293,28 @@ export class CompanyDataService {
     );
   }
 
+  /**
+   * Sends the request with the session token issued at login so the password is not sent on every request.
+   * Sessions live in server memory and end on expiry, revocation or a restart, so a 401 on the token drops it
+   * and retries once with the stored credentials, which later calls keep using.
+   */
+  private withAuth<T>(missing: string, send: (auth: AuthPayload) => Observable<T>): Observable<T> {
+    const token = this.authService.sessionToken;
+    const credentials = this.authService.credentialsPayload;
+    if (!token) {
+      return credentials ? send({ credentials }) : throwError(() => new Error(missing));
+    }
+    return send({ headers: new HttpHeaders({ Authorization: `Bearer ${token}` }) }).pipe(
+      catchError((error: unknown) => {
+        if (!(error instanceof HttpErrorResponse) || error.status !== 401) {
+          return throwError(() => error);
+        }
+        this.authService.dropSessionToken();
+        return credentials ? send({ credentials }) : throwError(() => error);
+      })
+    );
+  }
+
   private triggerInitialFetch<T>(
     company: CompanyOption,
     mapRef: Map<number, BehaviorSubject<T[]>>,
@@ -326,6 +361,7 @@ export class CompanyDataService {
 
   clearCaches(): void {
     this.announcementStreams.clear();
+    this.announcementCursors.clear();
     this.teamStreams.clear();
     this.projectStreams.clear();
     this.userStreams.clear();